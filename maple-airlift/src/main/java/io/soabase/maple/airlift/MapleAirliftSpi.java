@@ -15,21 +15,31 @@
  */
 package io.soabase.maple.airlift;
 
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.core.MapleMdc;
 import io.soabase.maple.spi.StandardMapleSpi;
 
+/**
+ * MDC values are stored in the {@link MapleMdc}
+ */
 public class MapleAirliftSpi extends StandardMapleSpi {
     @Override
     public Object getMdcValue(String name) {
-        throw new UnsupportedOperationException("Airlift logging does not currently support MDC");
+        return MapleMdc.get(name);
     }
 
     @Override
     public void putMdcValue(String name, Object value) {
-        throw new UnsupportedOperationException("Airlift logging does not currently support MDC");
+        MapleMdc.put(name, value);
     }
 
     @Override
     public void removeMdcValue(String name) {
-        throw new UnsupportedOperationException("Airlift logging does not currently support MDC");
+        MapleMdc.remove(name);
+    }
+
+    @Override
+    protected Object getMdcValue(NamesValues namesValues, int n) {
+        return MapleMdc.get(namesValues, n);
     }
 }
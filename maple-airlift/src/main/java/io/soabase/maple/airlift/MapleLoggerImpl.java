@@ -15,11 +15,12 @@
  */
 package io.soabase.maple.airlift;
 
+import io.soabase.maple.api.Sampler;
 import io.soabase.maple.core.StandardMapleLogger;
 import io.soabase.maple.spi.MetaInstance;
 
 class MapleLoggerImpl<T> extends StandardMapleLogger<T, AirliftLogger> implements MapleLogger<T> {
-    MapleLoggerImpl(MetaInstance<T> metaInstance, AirliftLogger logger) {
-        super(metaInstance, logger, Utils::isEnabledLoggerName, Utils::levelLogger);
+    MapleLoggerImpl(MetaInstance<T> metaInstance, AirliftLogger logger, Sampler sampler) {
+        super(metaInstance, logger, logger.getJavaLogger().getName(), Utils::isEnabled, Utils::levelLogger, sampler);
     }
 }
@@ -21,18 +21,18 @@ import io.soabase.maple.api.LoggingLevel;
 import java.util.logging.Level;
 
 class Utils {
-    static String isEnabledLoggerName(LoggingLevel level, AirliftLogger logger) {
+    static boolean isEnabled(LoggingLevel level, AirliftLogger logger) {
         switch (level) {
             case ERROR:
-                return logger.getJavaLogger().isLoggable(Level.SEVERE) ? logger.getJavaLogger().getName() : null;
+                return logger.getJavaLogger().isLoggable(Level.SEVERE);
             case WARN:
-                return logger.getJavaLogger().isLoggable(Level.WARNING) ? logger.getJavaLogger().getName() : null;
+                return logger.getJavaLogger().isLoggable(Level.WARNING);
             case INFO:
-                return logger.isInfoEnabled() ? logger.getJavaLogger().getName() : null;
+                return logger.isInfoEnabled();
             case DEBUG:
-                return logger.isDebugEnabled() ? logger.getJavaLogger().getName() : null;
+                return logger.isDebugEnabled();
             case TRACE:
-                return null;
+                return false;   // airlift doesn't support trace
         }
         throw new IllegalStateException();  // should never get here
     }
@@ -15,8 +15,13 @@
  */
 package io.soabase.maple.airlift;
 
+import io.soabase.maple.api.annotations.MdcDefaultValue;
+
 public interface Schema {
     Schema name(String name);
 
     Schema age(int age);
+
+    @MdcDefaultValue
+    Schema requestId(String requestId);
 }
@@ -15,6 +15,9 @@
  */
 package io.soabase.maple.airlift;
 
+import io.soabase.maple.api.MdcCloseable;
+import io.soabase.maple.core.MapleMdc;
+import io.soabase.maple.spi.MapleSpi;
 import org.junit.jupiter.api.Test;
 
 import java.util.logging.Level;
@@ -34,4 +37,29 @@ class TestLogging {
         logger.logger().error("this is a test");
         assertThat(testLogger.getAndClearEvents()).containsExactly(new TestLogger.Event(Level.SEVERE, "this is a test"));
     }
+
+    @Test
+    void testMdc() {
+        TestLogger testLogger = new TestLogger("test-mdc");
+        LogManager.getLogManager().addLogger(testLogger);
+        MapleLogger<Schema> logger = MapleFactory.getLogger("test-mdc", Schema.class);
+        try {
+            MapleSpi.instance().putMdcValue("requestId", "r1");
+            logger.info(s -> s.age(1));
+            try (MdcCloseable ignore = logger.mdc(s -> s.requestId("r2").name("me"))) {
+                assertThat(MapleMdc.get("name")).isEqualTo("me");
+                logger.info(s -> s.age(2));
+            }
+            logger.info(s -> s.age(3).requestId("r3"));
+            assertThat(testLogger.getAndClearEvents()).containsExactly(
+                    new TestLogger.Event(Level.INFO, "age=1 request_id=r1"),
+                    new TestLogger.Event(Level.INFO, "age=2 request_id=r2"),
+                    new TestLogger.Event(Level.INFO, "age=3 request_id=r3")
+            );
+            assertThat(MapleMdc.get("requestId")).isEqualTo("r1");
+            assertThat(MapleMdc.get("name")).isNull();
+        } finally {
+            MapleMdc.clear();
+        }
+    }
 }
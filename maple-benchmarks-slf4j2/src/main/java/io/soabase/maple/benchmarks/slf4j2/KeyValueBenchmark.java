@@ -0,0 +1,114 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.benchmarks.slf4j2;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.JsonEncoder;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import io.soabase.maple.formatters.StandardFormatter;
+import io.soabase.maple.slf4j2.KeyValueFormatter;
+import io.soabase.maple.slf4j2.MapleFactory;
+import io.soabase.maple.slf4j2.MapleLogger;
+import io.soabase.maple.spi.MapleSpi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+
+// compares KeyValueFormatter with StandardFormatter on logback 1.3
+@State(Scope.Benchmark)
+public class KeyValueBenchmark {
+    private static final String LOGGER_NAME = "maple.slf4j2.benchmark";
+
+    private MapleLogger<Schema> logger;
+
+    public enum Kind {
+        STANDARD,
+        KEY_VALUE
+    }
+
+    public enum Output {
+        PATTERN,    // "%msg %kvp"
+        JSON        // logback's JsonEncoder
+    }
+
+    @Param
+    public Kind kind;
+
+    @Param
+    public Output output;
+
+    @Setup
+    public void setup() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Encoder<ILoggingEvent> encoder;
+        if (output == Output.JSON) {
+            encoder = new JsonEncoder();
+        } else {
+            PatternLayoutEncoder patternEncoder = new PatternLayoutEncoder();
+            patternEncoder.setPattern("%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg %kvp%n");
+            encoder = patternEncoder;
+        }
+        encoder.setContext(context);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                // NOP
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                // NOP
+            }
+        });
+        appender.start();
+        ch.qos.logback.classic.Logger logbackLogger = context.getLogger(LOGGER_NAME);
+        logbackLogger.setAdditive(false);
+        logbackLogger.addAppender(appender);
+
+        if (kind == Kind.KEY_VALUE) {
+            MapleFactory.setFormatter(new KeyValueFormatter(StandardFormatter.Option.SNAKE_CASE));
+        } else {
+            MapleFactory.setFormatter(new StandardFormatter(StandardFormatter.Option.SNAKE_CASE));
+        }
+        // the formatter is bound when the logger is created
+        logger = MapleFactory.getLogger(LOGGER_NAME, Schema.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(LOGGER_NAME).detachAndStopAllAppenders();
+        MapleSpi.instance().reset();
+    }
+
+    @Benchmark
+    public void testInfo() {
+        logger.info("the message", s -> s.firstName("first \"name\"").age(42));
+    }
+}
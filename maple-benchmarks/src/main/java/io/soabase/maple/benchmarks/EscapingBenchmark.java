@@ -0,0 +1,63 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.benchmarks;
+
+import io.soabase.maple.formatters.StandardFormatter;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+public class EscapingBenchmark {
+    public enum Kind {
+        SHORT_CLEAN("abc123"),
+        SHORT_ESCAPES("a \"b\" c"),
+        LONG_CLEAN(repeat("abcdefghij0123456789", 20)),
+        LONG_ESCAPES(repeat("ab \"cd\" e\\f\tg\n", 20)),
+        NUMBER(1234567);
+
+        private final Object value;
+
+        Kind(Object value) {
+            this.value = value;
+        }
+    }
+
+    @Param
+    public Kind kind;
+
+    private final StringBuilder logMessage = new StringBuilder(StandardFormatter.STRING_BUILDER_CAPACITY);
+
+    @Benchmark
+    public StringBuilder testEscapeSpaces() {
+        logMessage.setLength(0);
+        StandardFormatter.addEscapedValue(logMessage, kind.value, true);
+        return logMessage;
+    }
+
+    @Benchmark
+    public StringBuilder testQuoteIfNeeded() {
+        logMessage.setLength(0);
+        StandardFormatter.addEscapedValueQuotedIfNeeded(logMessage, kind.value);
+        return logMessage;
+    }
+
+    private static String repeat(String s, int qty) {
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < qty; ++i) {
+            str.append(s);
+        }
+        return str.toString();
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.benchmarks;
+
+import io.soabase.maple.formatters.BatchingFormatter;
+import io.soabase.maple.formatters.JsonFormatter;
+import io.soabase.maple.formatters.StandardFormatter;
+import io.soabase.maple.slf4j.MapleFactory;
+import io.soabase.maple.slf4j.MapleLogger;
+import io.soabase.maple.spi.MapleSpi;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import static io.soabase.maple.formatters.StandardFormatter.Option.*;
+
+@State(Scope.Benchmark)
+public class FormatterBenchmark {
+    private static final String ENCODER_LOGGER_NAME = "io.soabase.maple.benchmarks.encoder";
+
+    private MapleLogger<Schema> logger;
+    private BatchingFormatter batchingFormatter;
+
+    public enum Kind {
+        STANDARD,
+        STANDARD_COMPILED,
+        STANDARD_BATCHED,               // written in batches to a NOP channel
+        JSON,
+        STANDARD_STRUCTURED_MESSAGE,    // rendered directly by MapleEncoder
+        JSON_STRUCTURED_MESSAGE         // rendered directly by MapleEncoder
+    }
+
+    @Param
+    public Kind kind;
+
+    @Setup
+    public void setup() {
+        switch (kind) {
+            case STANDARD:
+                MapleFactory.setFormatter(new StandardFormatter(MAIN_MESSAGE_IS_LAST, SNAKE_CASE, ESCAPE_VALUES, QUOTE_VALUES_IF_NEEDED, SKIP_NULL_VALUES));
+                break;
+
+            case STANDARD_COMPILED:
+                MapleFactory.setFormatter(new StandardFormatter(MAIN_MESSAGE_IS_LAST, SNAKE_CASE, ESCAPE_VALUES, QUOTE_VALUES_IF_NEEDED, SKIP_NULL_VALUES, COMPILED));
+                break;
+
+            case STANDARD_BATCHED:
+                batchingFormatter = new BatchingFormatter(new StandardFormatter(MAIN_MESSAGE_IS_LAST, SNAKE_CASE, ESCAPE_VALUES, QUOTE_VALUES_IF_NEEDED, SKIP_NULL_VALUES), nopChannel(), BatchingFormatter.STANDARD_LAYOUT, BatchingFormatter.DEFAULT_BATCH_SIZE, BatchingFormatter.DEFAULT_MAX_DELAY);
+                MapleFactory.setFormatter(batchingFormatter);
+                break;
+
+            case JSON:
+                MapleFactory.setFormatter(new JsonFormatter(MAIN_MESSAGE_IS_LAST, SNAKE_CASE, SKIP_NULL_VALUES));
+                break;
+
+            case STANDARD_STRUCTURED_MESSAGE:
+                MapleFactory.setFormatter(new StandardFormatter(MAIN_MESSAGE_IS_LAST, SNAKE_CASE, ESCAPE_VALUES, QUOTE_VALUES_IF_NEEDED, SKIP_NULL_VALUES, STRUCTURED_MESSAGE));
+                break;
+
+            case JSON_STRUCTURED_MESSAGE:
+                MapleFactory.setFormatter(new JsonFormatter(MAIN_MESSAGE_IS_LAST, SNAKE_CASE, SKIP_NULL_VALUES, STRUCTURED_MESSAGE));
+                break;
+        }
+        // the formatter is bound when the logger is created
+        if ((kind == Kind.STANDARD_STRUCTURED_MESSAGE) || (kind == Kind.JSON_STRUCTURED_MESSAGE)) {
+            logger = MapleFactory.getLogger(ENCODER_LOGGER_NAME, Schema.class);
+        } else {
+            logger = MapleFactory.getLogger(FormatterBenchmark.class, Schema.class);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (batchingFormatter != null) {
+            batchingFormatter.close();
+            batchingFormatter = null;
+        }
+        MapleSpi.instance().reset();
+    }
+
+    @Benchmark
+    public void testInfoWithMessage() {
+        logger.info("message", schema -> schema.id("an \"id\" value").qty(1));
+    }
+
+    private static WritableByteChannel nopChannel() {
+        return new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) {
+                int remaining = src.remaining();
+                src.position(src.limit());
+                return remaining;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+                // NOP
+            }
+        };
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.benchmarks;
+
+import io.soabase.maple.api.MdcCloseable;
+import io.soabase.maple.slf4j.MapleFactory;
+import io.soabase.maple.slf4j.MapleLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.slf4j.MDC;
+
+/**
+ * Cost of setting/clearing MDC values per request
+ */
+public class MdcBenchmark {
+    private static final MapleLogger<Schema> logger = MapleFactory.getLogger(MdcBenchmark.class, Schema.class);
+
+    @Benchmark
+    public void testMapleMdc() {
+        try (MdcCloseable ignore = logger.mdc(s -> s.id("request-id").qty(10))) {
+            // NOP
+        }
+    }
+
+    @Benchmark
+    public void testSlf4jMdc() {
+        MDC.put("id", "request-id");
+        MDC.put("qty", String.valueOf(10));
+        MDC.remove("id");
+        MDC.remove("qty");
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.soabase.maple.formatters.ModelFormatter;
+import io.soabase.maple.slf4j.MapleFactory;
+import io.soabase.maple.slf4j.MapleLogger;
+import io.soabase.maple.spi.MapleSpi;
+import org.openjdk.jmh.annotations.*;
+
+import static io.soabase.maple.formatters.StandardFormatter.Option.*;
+
+// run with "-prof gc" and compare gc.alloc.rate.norm for each value of kind
+@State(Scope.Benchmark)
+public class ModelFormatterBenchmark {
+    private static final Model model = new Model("a name", new Model.Child("Main St", 12225), 100);
+
+    private MapleLogger<ModelSchema> logger;
+
+    public enum Kind {
+        TREE,
+        ACCESSORS
+    }
+
+    public interface ModelSchema {
+        ModelSchema id(String id);
+
+        ModelSchema model(Model model);
+    }
+
+    public static class Model {
+        private final String name;
+        private final Child child;
+        private final int qty;
+
+        public static class Child {
+            private final String street;
+            private final int zip;
+
+            public Child(String street, int zip) {
+                this.street = street;
+                this.zip = zip;
+            }
+
+            public String getStreet() {
+                return street;
+            }
+
+            public int getZip() {
+                return zip;
+            }
+        }
+
+        public Model(String name, Child child, int qty) {
+            this.name = name;
+            this.child = child;
+            this.qty = qty;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Child getChild() {
+            return child;
+        }
+
+        public int getQty() {
+            return qty;
+        }
+    }
+
+    @Param
+    public Kind kind;
+
+    @Setup
+    public void setup() {
+        ObjectMapper mapper = new ObjectMapper();
+        switch (kind) {
+            case TREE:
+                MapleFactory.setFormatter(new ModelFormatter(ModelFormatter.NodeMapper.forMapper(mapper), SNAKE_CASE, QUOTE_VALUES_IF_NEEDED, ESCAPE_VALUES, SKIP_NULL_VALUES));
+                break;
+
+            case ACCESSORS:
+                MapleFactory.setFormatter(new ModelFormatter(mapper, SNAKE_CASE, QUOTE_VALUES_IF_NEEDED, ESCAPE_VALUES, SKIP_NULL_VALUES));
+                break;
+        }
+        logger = MapleFactory.getLogger(ModelFormatterBenchmark.class, ModelSchema.class);    // the formatter is bound when the logger is created
+    }
+
+    @TearDown
+    public void tearDown() {
+        MapleSpi.instance().reset();
+    }
+
+    @Benchmark
+    public void testModel() {
+        logger.info("message", schema -> schema.id("id").model(model));
+    }
+}
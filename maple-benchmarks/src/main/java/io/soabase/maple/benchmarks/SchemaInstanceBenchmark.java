@@ -0,0 +1,49 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.benchmarks;
+
+import io.soabase.maple.slf4j.MapleFactory;
+import io.soabase.maple.slf4j.MapleLogger;
+import org.openjdk.jmh.annotations.*;
+
+// run with "-prof gc" and compare gc.alloc.rate.norm for each value of reuseSchemaInstances
+@State(Scope.Benchmark)
+public class SchemaInstanceBenchmark {
+    private static final MapleLogger<Schema> logger = MapleFactory.getLogger(SchemaInstanceBenchmark.class, Schema.class);
+
+    @Param({"false", "true"})
+    public boolean reuseSchemaInstances;
+
+    @Setup
+    public void setup() {
+        MapleFactory.setReuseSchemaInstances(reuseSchemaInstances);
+    }
+
+    @TearDown
+    public void tearDown() {
+        MapleFactory.setReuseSchemaInstances(false);
+    }
+
+    @Benchmark
+    public void testInfo() {
+        logger.info(schema -> schema.id("id").qty(1));
+    }
+
+    @Benchmark
+    public void testInfoWithMessage() {
+        logger.info("message", schema -> schema.id("id").qty(1));
+    }
+}
@@ -20,7 +20,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class StandardLoggerBenchmark {
+    static final String DISABLED_LOGGER_NAME = "io.soabase.maple.benchmarks.disabled";   // set to WARN in logback.xml
+
     private static final Logger savedLogger = getLogger();
+    private static final Logger disabledLogger = LoggerFactory.getLogger(DISABLED_LOGGER_NAME);
 
     @Benchmark
     public void testFreshLogger() {
@@ -32,6 +35,12 @@ public class StandardLoggerBenchmark {
         testAllLevels(savedLogger);
     }
 
+    @Benchmark
+    public void testDisabledLevels() {
+        disabledLogger.trace("message id={} qty={}", "id", 1);
+        disabledLogger.debug("message id={} qty={}", "id", 1);
+    }
+
     private static Logger getLogger() {
         return LoggerFactory.getLogger(StandardLoggerBenchmark.class);
     }
@@ -15,12 +15,49 @@
  */
 package io.soabase.maple.benchmarks;
 
+import io.soabase.maple.formatters.StandardFormatter;
 import io.soabase.maple.slf4j.MapleFactory;
 import io.soabase.maple.slf4j.MapleLogger;
+import io.soabase.maple.spi.MapleSpi;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 
+import static io.soabase.maple.benchmarks.StandardLoggerBenchmark.DISABLED_LOGGER_NAME;
+
+// compare with StandardLoggerBenchmark (hand-written SLF4J parameterized logging)
+@State(Scope.Benchmark)
 public class StructuredLoggerBenchmark {
-    private static final MapleLogger<Schema> savedLogger = getLogger();
+    private MapleLogger<Schema> savedLogger;
+    private MapleLogger<Schema> disabledLogger;
+
+    public enum Kind {
+        STANDARD,
+        STANDARD_COMPILED,
+        STANDARD_COMPILED_REUSED    // as STANDARD_COMPILED with schema instances reused
+    }
+
+    @Param
+    public Kind kind;
+
+    @Setup
+    public void setup() {
+        if (kind != Kind.STANDARD) {
+            MapleFactory.setFormatter(new StandardFormatter(StandardFormatter.Option.COMPILED));
+        }
+        MapleFactory.setReuseSchemaInstances(kind == Kind.STANDARD_COMPILED_REUSED);
+        // the formatter is bound when the logger is created
+        savedLogger = getLogger();
+        disabledLogger = MapleFactory.getLogger(DISABLED_LOGGER_NAME, Schema.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        MapleSpi.instance().reset();
+    }
 
     @Benchmark
     public void testFreshLogger() {
@@ -32,6 +69,12 @@ public class StructuredLoggerBenchmark {
         testAllLevels(savedLogger);
     }
 
+    @Benchmark
+    public void testDisabledLevels() {
+        disabledLogger.trace("message", schema -> schema.id("id").qty(1));
+        disabledLogger.debug("message", schema -> schema.id("id").qty(1));
+    }
+
     private static MapleLogger<Schema> getLogger() {
         return MapleFactory.getLogger(StructuredLoggerBenchmark.class, Schema.class);
     }
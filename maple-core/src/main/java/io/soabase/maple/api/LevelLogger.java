@@ -18,4 +18,15 @@ package io.soabase.maple.api;
 @FunctionalInterface
 public interface LevelLogger {
     void log(String msg, Throwable t);
+
+    /**
+     * Log a message that is rendered on demand. Loggers that can pass the message on to a sink
+     * should override this. The default renders the message to a String and calls {@link #log(String, Throwable)}.
+     *
+     * @param message the message
+     * @param t the exception to output or {@code null}
+     */
+    default void logStructured(StructuredMessage message, Throwable t) {
+        log(message.toString(), t);
+    }
 }
@@ -0,0 +1,42 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.api;
+
+/**
+ * Decides whether a log statement for an enabled level is logged. Filters are applied before the statement
+ * is evaluated so that the statement (and any values it computes) never runs for filtered events.
+ */
+@FunctionalInterface
+public interface MapleFilter {
+    /**
+     * @param loggingLevel the logging level
+     * @param loggerName the name of the logger
+     * @param mainMessage the main message or {@code ""}
+     * @return true if the statement should be logged
+     */
+    boolean isLoggable(LoggingLevel loggingLevel, String loggerName, String mainMessage);
+
+    /**
+     * Return a filter that logs only if this filter and the given filter both log. The given filter
+     * is not called if this filter doesn't log.
+     *
+     * @param filter other filter
+     * @return combined filter
+     */
+    default MapleFilter and(MapleFilter filter) {
+        return (loggingLevel, loggerName, mainMessage) -> isLoggable(loggingLevel, loggerName, mainMessage) && filter.isLoggable(loggingLevel, loggerName, mainMessage);
+    }
+}
@@ -30,4 +30,17 @@ public interface MapleFormatter {
      * @param t the exception to output or {@code null}
      */
     void apply(LevelLogger logger, LoggingLevel loggingLevel, String loggerName, NamesValues namesValues, String mainMessage, Throwable t);
+
+    /**
+     * Called once when a schema is generated. Formatters can return a version of themselves that is
+     * specialized for the schema. The returned formatter is what {@link io.soabase.maple.spi.MetaInstance#formatter()}
+     * returns.
+     *
+     * @param schemaClass the logging schema
+     * @param names the schema's names
+     * @return specialized formatter or {@code this}
+     */
+    default MapleFormatter specialize(Class<?> schemaClass, Names names) {
+        return this;
+    }
 }
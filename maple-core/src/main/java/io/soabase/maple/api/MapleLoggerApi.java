@@ -217,10 +217,10 @@ public interface MapleLoggerApi<T> {
     void error(String mainMessage, Throwable t, Statement<T> statement);
 
     /**
-     * Pass the generated name/values to the logger's MDC system
+     * Pass the generated name/values to the logger's MDC system. Values that are not set (i.e. {@code null}) are skipped.
      *
      * @param statement structured logging statement
-     * @return a closeable - when closed the schema names are removed from MDC
+     * @return a closeable - when closed the MDC values that were replaced are restored and the others are removed
      */
     MdcCloseable mdc(Statement<T> statement);
 }
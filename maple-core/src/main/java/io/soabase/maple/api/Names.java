@@ -25,4 +25,30 @@ public interface Names {
     String nthRawName(int n);
 
     Set<Specialization> nthSpecializations(int n);
+
+    /**
+     * Return true if the nth name has the given specialization
+     *
+     * @param n index
+     * @param specialization specialization to check
+     * @return true/false
+     */
+    default boolean nthHasSpecialization(int n, Specialization specialization) {
+        return nthSpecializations(n).contains(specialization);
+    }
+
+    /**
+     * Return true if any of the names has the given specialization
+     *
+     * @param specialization specialization to check
+     * @return true/false
+     */
+    default boolean hasSpecialization(Specialization specialization) {
+        for (int i = 0; i < qty(); ++i) {
+            if (nthHasSpecialization(i, specialization)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
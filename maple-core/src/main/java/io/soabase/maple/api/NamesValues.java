@@ -24,4 +24,16 @@ public interface NamesValues extends Names, Values {
      * @return stream of name/value
      */
     Stream<NameValue> stream();
+
+    /**
+     * Return the names of the schema these values were generated for. These names are shared
+     * by every statement for the schema so formatters can use them as a key for caching
+     * per-schema data. Returns {@code null} if the names are not fixed (e.g. they were
+     * generated dynamically by a formatter).
+     *
+     * @return schema names or {@code null}
+     */
+    default Names schemaNames() {
+        return null;
+    }
 }
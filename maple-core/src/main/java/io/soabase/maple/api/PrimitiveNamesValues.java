@@ -0,0 +1,56 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.api;
+
+/**
+ * Names/values that store primitive schema arguments (int, long, double, etc.) without boxing.
+ * {@link #nthValue(int)} still works for all values but boxes primitives. Formatters can check
+ * {@link #nthValueType(int)} and use the primitive accessors to avoid boxing.
+ */
+public interface PrimitiveNamesValues extends NamesValues {
+    /**
+     * Return how the nth value is stored. {@link ValueType#OBJECT} is returned
+     * for non-primitive values and for values that were not set.
+     *
+     * @param n index
+     * @return type
+     */
+    ValueType nthValueType(int n);
+
+    /**
+     * Return the nth value when its type is {@link ValueType#INT} or {@link ValueType#LONG}
+     *
+     * @param n index
+     * @return value
+     */
+    long nthLong(int n);
+
+    /**
+     * Return the nth value when its type is {@link ValueType#FLOAT} or {@link ValueType#DOUBLE}
+     *
+     * @param n index
+     * @return value
+     */
+    double nthDouble(int n);
+
+    /**
+     * Return the nth value when its type is {@link ValueType#BOOLEAN}
+     *
+     * @param n index
+     * @return value
+     */
+    boolean nthBoolean(int n);
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.api;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * <p>
+ * Sampling/rate limiting policy for a logger. {@link #sample(LoggingLevel)} is called for each statement of an enabled
+ * level before the statement is evaluated. Rejected statements are not evaluated or formatted. See
+ * {@code io.soabase.maple.core.Samplers} for standard implementations.
+ * </p>
+ *
+ * <p>
+ * Samplers that need the statement's values (e.g. to sample per field value) return {@code true} from {@link #needsValues()}.
+ * {@link #sample(LoggingLevel, NamesValues)} is then called after the statement is evaluated and before it is formatted.
+ * </p>
+ *
+ * <p>
+ * The number of rejected events is periodically reported by the logger as a summary event. Pending counts are also
+ * reported by a background thread so that a burst that is followed by silence is still reported.
+ * </p>
+ */
+@FunctionalInterface
+public interface Sampler {
+    /**
+     * Called before the statement is evaluated
+     *
+     * @param loggingLevel the logging level
+     * @return true if the event should be logged
+     */
+    boolean sample(LoggingLevel loggingLevel);
+
+    /**
+     * Called after the statement is evaluated if {@link #needsValues()} returns true
+     *
+     * @param loggingLevel the logging level
+     * @param namesValues the statement's values
+     * @return true if the event should be logged
+     */
+    default boolean sample(LoggingLevel loggingLevel, NamesValues namesValues) {
+        return true;
+    }
+
+    /**
+     * @return true if {@link #sample(LoggingLevel, NamesValues)} should be called
+     */
+    default boolean needsValues() {
+        return false;
+    }
+
+    /**
+     * @return how often the number of rejected events is reported
+     */
+    default Duration summaryInterval() {
+        return Duration.ofMinutes(1);
+    }
+
+    /**
+     * Return a sampler that logs only if both this sampler and the given sampler log. The given sampler
+     * is not called if this sampler rejects the event.
+     *
+     * @param sampler other sampler
+     * @return combined sampler
+     */
+    default Sampler and(Sampler sampler) {
+        Objects.requireNonNull(sampler, "sampler cannot be null");
+        Sampler self = this;
+        return new Sampler() {
+            @Override
+            public boolean sample(LoggingLevel loggingLevel) {
+                return self.sample(loggingLevel) && sampler.sample(loggingLevel);
+            }
+
+            @Override
+            public boolean sample(LoggingLevel loggingLevel, NamesValues namesValues) {
+                return self.sample(loggingLevel, namesValues) && sampler.sample(loggingLevel, namesValues);
+            }
+
+            @Override
+            public boolean needsValues() {
+                return self.needsValues() || sampler.needsValues();
+            }
+
+            @Override
+            public Duration summaryInterval() {
+                return self.summaryInterval();
+            }
+        };
+    }
+
+    /**
+     * Return this sampler with a different summary interval
+     *
+     * @param summaryInterval new interval
+     * @return sampler
+     */
+    default Sampler withSummaryInterval(Duration summaryInterval) {
+        Objects.requireNonNull(summaryInterval, "summaryInterval cannot be null");
+        Sampler self = this;
+        return new Sampler() {
+            @Override
+            public boolean sample(LoggingLevel loggingLevel) {
+                return self.sample(loggingLevel);
+            }
+
+            @Override
+            public boolean sample(LoggingLevel loggingLevel, NamesValues namesValues) {
+                return self.sample(loggingLevel, namesValues);
+            }
+
+            @Override
+            public boolean needsValues() {
+                return self.needsValues();
+            }
+
+            @Override
+            public Duration summaryInterval() {
+                return summaryInterval;
+            }
+        };
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.api;
+
+import io.soabase.maple.core.SnapshotNamesValues;
+
+/**
+ * A log message that is rendered on demand. Formatters that support it (see
+ * {@link io.soabase.maple.formatters.StandardFormatter.Option#STRUCTURED_MESSAGE}) pass
+ * instances to {@link LevelLogger#logStructured(StructuredMessage, Throwable)} so that sinks such as
+ * encoders can render the message directly into their own buffers instead of creating an
+ * intermediate String.
+ *
+ * The names/values are only valid while the logger call is in progress. When the call returns the message is
+ * detached. If a sink has already rendered it with {@link #formatTo(StringBuilder)} or it has been rendered with
+ * {@link #toString()}, the names/values are released - loggers that defer processing must render the message before the
+ * call returns (as logback's {@code prepareForDeferredProcessing()} does). Otherwise, the names/values are copied (see
+ * {@link SnapshotNamesValues#captureDeferred(NamesValues)}) so that a logger that kept the message can still render it.
+ * The copy does not call deferred value suppliers.
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+public final class StructuredMessage {
+    private final Renderer renderer;
+    private final String mainMessage;
+    private volatile NamesValues namesValues;
+    private volatile String rendered;
+    private volatile boolean consumed;
+
+    @FunctionalInterface
+    public interface Renderer {
+        /**
+         * Render the message
+         *
+         * @param sink target
+         * @param namesValues name/value pairs
+         * @param mainMessage the main message to output or {@code ""}
+         */
+        void render(StringBuilder sink, NamesValues namesValues, String mainMessage);
+    }
+
+    public StructuredMessage(Renderer renderer, NamesValues namesValues, String mainMessage) {
+        this.renderer = renderer;
+        this.namesValues = namesValues;
+        this.mainMessage = mainMessage;
+    }
+
+    /**
+     * Render the message into the given sink
+     *
+     * @param sink target
+     */
+    public void formatTo(StringBuilder sink) {
+        String localRendered = rendered;
+        if (localRendered != null) {
+            sink.append(localRendered);
+        } else {
+            NamesValues localNamesValues = namesValues;
+            if (localNamesValues != null) {
+                renderer.render(sink, localNamesValues, mainMessage);
+                consumed = true;
+            }
+        }
+    }
+
+    /**
+     * Called by the formatter when the logger call has returned. Do not call directly.
+     */
+    public void detach() {
+        NamesValues localNamesValues = namesValues;
+        if (localNamesValues != null) {
+            if (consumed || (rendered != null)) {
+                namesValues = null;
+            } else {
+                SnapshotNamesValues snapshot = new SnapshotNamesValues();
+                snapshot.captureDeferred(localNamesValues);
+                namesValues = snapshot;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        String localRendered = rendered;
+        if (localRendered == null) {
+            NamesValues localNamesValues = namesValues;
+            if (localNamesValues == null) {
+                return "";
+            }
+            StringBuilder sink = new StringBuilder();
+            renderer.render(sink, localNamesValues, mainMessage);
+            localRendered = sink.toString();
+            rendered = localRendered;
+        }
+        return localRendered;
+    }
+}
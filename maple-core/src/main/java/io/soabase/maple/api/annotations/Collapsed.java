@@ -0,0 +1,45 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.api.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Collapse duplicate events for this schema. Events with the same level, main message, exception type and
+ * values for {@link #fields()} are logged once per window. The number of duplicates is then logged as a summary.
+ * Applies to loggers obtained without an explicit {@code io.soabase.maple.core.EventCollapser}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Collapsed {
+    /**
+     * @return schema fields (i.e. schema method names) that identify duplicate events. If empty, all fields are used.
+     */
+    String[] fields() default {};
+
+    /**
+     * @return window in milliseconds
+     */
+    long windowMs() default 10_000;
+
+    /**
+     * @return maximum number of distinct events tracked
+     */
+    int maxEntries() default 1_000;
+}
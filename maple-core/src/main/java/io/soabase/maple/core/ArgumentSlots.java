@@ -0,0 +1,108 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+import io.soabase.maple.api.Names;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.ValueType;
+
+/**
+ * Direct access to the argument slots of a schema instance. Generated formatters use this to read values
+ * without going through {@link io.soabase.maple.api.PrimitiveNamesValues}. Slots are only available for the
+ * values of a live schema instance (possibly wrapped for MDC defaults) - {@link #arguments(NamesValues)} returns
+ * {@code null} for snapshots and other implementations. Slots of specialized fields must not be read directly
+ * as their values are substituted by the wrapper.
+ */
+// note: this is public so that ByteBuddy generated formatters can access it
+@SuppressWarnings({"WeakerAccess", "PMD.UselessParentheses"})
+public final class ArgumentSlots {
+    /**
+     * Return the argument slots of the given values or {@code null} if not available
+     *
+     * @param namesValues values
+     * @return arguments or {@code null}
+     */
+    public static Object[] arguments(NamesValues namesValues) {
+        NamesValuesImp instanceValues = instanceValues(namesValues);
+        return (instanceValues != null) ? instanceValues.arguments() : null;
+    }
+
+    /**
+     * Return the primitive slots of the given values or {@code null} if not available or the schema
+     * has no primitive arguments
+     *
+     * @param namesValues values
+     * @return primitives or {@code null}
+     */
+    public static long[] primitives(NamesValues namesValues) {
+        NamesValuesImp instanceValues = instanceValues(namesValues);
+        return (instanceValues != null) ? instanceValues.primitives() : null;
+    }
+
+    /**
+     * Return how the value of the given argument slot is stored
+     *
+     * @param argument argument slot
+     * @return type
+     */
+    public static ValueType valueType(Object argument) {
+        if (argument instanceof PrimitiveMarker) {
+            return ((PrimitiveMarker) argument).valueType;
+        }
+        return (argument instanceof DeferredValue) ? ((DeferredValue) argument).valueType : ValueType.OBJECT;
+    }
+
+    /**
+     * Return the value of the given argument slot, boxing primitives
+     *
+     * @param argument argument slot
+     * @param primitives primitive slots
+     * @param n index
+     * @return value
+     */
+    public static Object value(Object argument, long[] primitives, int n) {
+        if (argument instanceof PrimitiveMarker) {
+            return ((PrimitiveMarker) argument).box(primitives[n]);
+        }
+        return (argument instanceof DeferredValue) ? ((DeferredValue) argument).value() : argument;
+    }
+
+    /**
+     * Return the value of the given argument slot when its type is {@link ValueType#INT} or {@link ValueType#LONG}
+     *
+     * @param argument argument slot
+     * @param primitives primitive slots
+     * @param n index
+     * @return value
+     */
+    public static long longValue(Object argument, long[] primitives, int n) {
+        return (argument instanceof DeferredValue) ? ((DeferredValue) argument).longValue() : primitives[n];
+    }
+
+    static NamesValuesImp instanceValues(NamesValues namesValues) {
+        if (namesValues instanceof NamesValuesImp) {
+            return (NamesValuesImp) namesValues;
+        }
+        if (namesValues instanceof SpecializedNamesValues) {
+            Names wrapped = ((SpecializedNamesValues) namesValues).wrapped();
+            return (wrapped instanceof NamesValuesImp) ? (NamesValuesImp) wrapped : null;
+        }
+        return null;
+    }
+
+    private ArgumentSlots() {
+    }
+}
@@ -0,0 +1,268 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+import io.soabase.maple.api.MdcCloseable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// runs dependent stages with the given context attached - dependent stages are also wrapped
+class ContextCompletionStage<T> implements CompletionStage<T> {
+    private final MapleContext context;
+    private final CompletionStage<T> stage;
+
+    ContextCompletionStage(MapleContext context, CompletionStage<T> stage) {
+        this.context = context;
+        this.stage = stage;
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenApply(Function<? super T, ? extends U> fn) {
+        return wrap(stage.thenApply(function(fn)));
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenApplyAsync(Function<? super T, ? extends U> fn) {
+        return wrap(stage.thenApplyAsync(function(fn)));
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenApplyAsync(Function<? super T, ? extends U> fn, Executor executor) {
+        return wrap(stage.thenApplyAsync(function(fn), executor));
+    }
+
+    @Override
+    public CompletionStage<Void> thenAccept(Consumer<? super T> action) {
+        return wrap(stage.thenAccept(consumer(action)));
+    }
+
+    @Override
+    public CompletionStage<Void> thenAcceptAsync(Consumer<? super T> action) {
+        return wrap(stage.thenAcceptAsync(consumer(action)));
+    }
+
+    @Override
+    public CompletionStage<Void> thenAcceptAsync(Consumer<? super T> action, Executor executor) {
+        return wrap(stage.thenAcceptAsync(consumer(action), executor));
+    }
+
+    @Override
+    public CompletionStage<Void> thenRun(Runnable action) {
+        return wrap(stage.thenRun(context.wrap(action)));
+    }
+
+    @Override
+    public CompletionStage<Void> thenRunAsync(Runnable action) {
+        return wrap(stage.thenRunAsync(context.wrap(action)));
+    }
+
+    @Override
+    public CompletionStage<Void> thenRunAsync(Runnable action, Executor executor) {
+        return wrap(stage.thenRunAsync(context.wrap(action), executor));
+    }
+
+    @Override
+    public <U, V> CompletionStage<V> thenCombine(CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn) {
+        return wrap(stage.thenCombine(other, biFunction(fn)));
+    }
+
+    @Override
+    public <U, V> CompletionStage<V> thenCombineAsync(CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn) {
+        return wrap(stage.thenCombineAsync(other, biFunction(fn)));
+    }
+
+    @Override
+    public <U, V> CompletionStage<V> thenCombineAsync(CompletionStage<? extends U> other, BiFunction<? super T, ? super U, ? extends V> fn, Executor executor) {
+        return wrap(stage.thenCombineAsync(other, biFunction(fn), executor));
+    }
+
+    @Override
+    public <U> CompletionStage<Void> thenAcceptBoth(CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action) {
+        return wrap(stage.thenAcceptBoth(other, biConsumer(action)));
+    }
+
+    @Override
+    public <U> CompletionStage<Void> thenAcceptBothAsync(CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action) {
+        return wrap(stage.thenAcceptBothAsync(other, biConsumer(action)));
+    }
+
+    @Override
+    public <U> CompletionStage<Void> thenAcceptBothAsync(CompletionStage<? extends U> other, BiConsumer<? super T, ? super U> action, Executor executor) {
+        return wrap(stage.thenAcceptBothAsync(other, biConsumer(action), executor));
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterBoth(CompletionStage<?> other, Runnable action) {
+        return wrap(stage.runAfterBoth(other, context.wrap(action)));
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterBothAsync(CompletionStage<?> other, Runnable action) {
+        return wrap(stage.runAfterBothAsync(other, context.wrap(action)));
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterBothAsync(CompletionStage<?> other, Runnable action, Executor executor) {
+        return wrap(stage.runAfterBothAsync(other, context.wrap(action), executor));
+    }
+
+    @Override
+    public <U> CompletionStage<U> applyToEither(CompletionStage<? extends T> other, Function<? super T, U> fn) {
+        return wrap(stage.applyToEither(other, function(fn)));
+    }
+
+    @Override
+    public <U> CompletionStage<U> applyToEitherAsync(CompletionStage<? extends T> other, Function<? super T, U> fn) {
+        return wrap(stage.applyToEitherAsync(other, function(fn)));
+    }
+
+    @Override
+    public <U> CompletionStage<U> applyToEitherAsync(CompletionStage<? extends T> other, Function<? super T, U> fn, Executor executor) {
+        return wrap(stage.applyToEitherAsync(other, function(fn), executor));
+    }
+
+    @Override
+    public CompletionStage<Void> acceptEither(CompletionStage<? extends T> other, Consumer<? super T> action) {
+        return wrap(stage.acceptEither(other, consumer(action)));
+    }
+
+    @Override
+    public CompletionStage<Void> acceptEitherAsync(CompletionStage<? extends T> other, Consumer<? super T> action) {
+        return wrap(stage.acceptEitherAsync(other, consumer(action)));
+    }
+
+    @Override
+    public CompletionStage<Void> acceptEitherAsync(CompletionStage<? extends T> other, Consumer<? super T> action, Executor executor) {
+        return wrap(stage.acceptEitherAsync(other, consumer(action), executor));
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterEither(CompletionStage<?> other, Runnable action) {
+        return wrap(stage.runAfterEither(other, context.wrap(action)));
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterEitherAsync(CompletionStage<?> other, Runnable action) {
+        return wrap(stage.runAfterEitherAsync(other, context.wrap(action)));
+    }
+
+    @Override
+    public CompletionStage<Void> runAfterEitherAsync(CompletionStage<?> other, Runnable action, Executor executor) {
+        return wrap(stage.runAfterEitherAsync(other, context.wrap(action), executor));
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenCompose(Function<? super T, ? extends CompletionStage<U>> fn) {
+        return wrap(stage.thenCompose(function(fn)));
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenComposeAsync(Function<? super T, ? extends CompletionStage<U>> fn) {
+        return wrap(stage.thenComposeAsync(function(fn)));
+    }
+
+    @Override
+    public <U> CompletionStage<U> thenComposeAsync(Function<? super T, ? extends CompletionStage<U>> fn, Executor executor) {
+        return wrap(stage.thenComposeAsync(function(fn), executor));
+    }
+
+    @Override
+    public CompletionStage<T> exceptionally(Function<Throwable, ? extends T> fn) {
+        return wrap(stage.exceptionally(function(fn)));
+    }
+
+    @Override
+    public CompletionStage<T> whenComplete(BiConsumer<? super T, ? super Throwable> action) {
+        return wrap(stage.whenComplete(biConsumer(action)));
+    }
+
+    @Override
+    public CompletionStage<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action) {
+        return wrap(stage.whenCompleteAsync(biConsumer(action)));
+    }
+
+    @Override
+    public CompletionStage<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action, Executor executor) {
+        return wrap(stage.whenCompleteAsync(biConsumer(action), executor));
+    }
+
+    @Override
+    public <U> CompletionStage<U> handle(BiFunction<? super T, Throwable, ? extends U> fn) {
+        return wrap(stage.handle(biFunction(fn)));
+    }
+
+    @Override
+    public <U> CompletionStage<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn) {
+        return wrap(stage.handleAsync(biFunction(fn)));
+    }
+
+    @Override
+    public <U> CompletionStage<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn, Executor executor) {
+        return wrap(stage.handleAsync(biFunction(fn), executor));
+    }
+
+    @Override
+    public CompletableFuture<T> toCompletableFuture() {
+        return stage.toCompletableFuture();
+    }
+
+    @Override
+    public String toString() {
+        return "ContextCompletionStage{" + "context=" + context + ", stage=" + stage + '}';
+    }
+
+    private <U> CompletionStage<U> wrap(CompletionStage<U> newStage) {
+        return new ContextCompletionStage<>(context, newStage);
+    }
+
+    private <A, R> Function<A, R> function(Function<A, R> fn) {
+        return a -> {
+            try (MdcCloseable ignore = context.attach()) {
+                return fn.apply(a);
+            }
+        };
+    }
+
+    private <A, B, R> BiFunction<A, B, R> biFunction(BiFunction<A, B, R> fn) {
+        return (a, b) -> {
+            try (MdcCloseable ignore = context.attach()) {
+                return fn.apply(a, b);
+            }
+        };
+    }
+
+    private <A> Consumer<A> consumer(Consumer<A> action) {
+        return a -> {
+            try (MdcCloseable ignore = context.attach()) {
+                action.accept(a);
+            }
+        };
+    }
+
+    private <A, B> BiConsumer<A, B> biConsumer(BiConsumer<A, B> action) {
+        return (a, b) -> {
+            try (MdcCloseable ignore = context.attach()) {
+                action.accept(a, b);
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+import io.soabase.maple.api.MapleFormatter;
+import io.soabase.maple.api.Names;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.spi.MetaInstance;
+
+/**
+ * Delegates to a meta instance but replaces its formatter (e.g. to sample or collapse events before they are formatted)
+ */
+class DecoratedMetaInstance<T> implements MetaInstance<T> {
+    private final MetaInstance<T> metaInstance;
+    private final MapleFormatter formatter;
+
+    DecoratedMetaInstance(MetaInstance<T> metaInstance, MapleFormatter formatter) {
+        this.metaInstance = metaInstance;
+        this.formatter = formatter;
+    }
+
+    @Override
+    public T newSchemaInstance() {
+        return metaInstance.newSchemaInstance();
+    }
+
+    @Override
+    public T acquireSchemaInstance() {
+        return metaInstance.acquireSchemaInstance();
+    }
+
+    @Override
+    public void releaseSchemaInstance(T instance) {
+        metaInstance.releaseSchemaInstance(instance);
+    }
+
+    @Override
+    public Names schemaNames() {
+        return metaInstance.schemaNames();
+    }
+
+    @Override
+    public MapleFormatter formatter() {
+        return formatter;
+    }
+
+    @Override
+    public NamesValues toNamesValues(T instance) {
+        return metaInstance.toNamesValues(instance);
+    }
+}
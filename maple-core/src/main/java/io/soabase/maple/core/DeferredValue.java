@@ -0,0 +1,94 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+import io.soabase.maple.api.ValueType;
+
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A schema value that was set via a {@link Supplier}, {@link IntSupplier} or {@link LongSupplier}.
+ * The supplier is called the first time the value is read and the result is retained. A value can be read from
+ * more than one thread (e.g. by appenders rendering a detached message) so resolution is synchronized.
+ */
+final class DeferredValue {
+    final ValueType valueType;
+    private volatile Object supplier;    // null once resolved - written after value/primitive
+    private Object value;
+    private long primitive;
+
+    DeferredValue(Supplier<?> supplier) {
+        this(ValueType.OBJECT, supplier);
+    }
+
+    DeferredValue(IntSupplier supplier) {
+        this(ValueType.INT, supplier);
+    }
+
+    DeferredValue(LongSupplier supplier) {
+        this(ValueType.LONG, supplier);
+    }
+
+    private DeferredValue(ValueType valueType, Object supplier) {
+        this.valueType = valueType;
+        this.supplier = supplier;
+    }
+
+    Object value() {
+        resolve();
+        switch (valueType) {
+            case INT:
+                return (int) primitive;
+
+            case LONG:
+                return primitive;
+
+            default:
+                return value;
+        }
+    }
+
+    long longValue() {
+        resolve();
+        return primitive;
+    }
+
+    private void resolve() {
+        if (supplier != null) {
+            synchronized (this) {
+                Object localSupplier = supplier;
+                if (localSupplier != null) {
+                    switch (valueType) {
+                        case INT:
+                            primitive = ((IntSupplier) localSupplier).getAsInt();
+                            break;
+
+                        case LONG:
+                            primitive = ((LongSupplier) localSupplier).getAsLong();
+                            break;
+
+                        default:
+                            value = ((Supplier<?>) localSupplier).get();
+                            break;
+                    }
+                    supplier = null;
+                }
+            }
+        }
+    }
+}
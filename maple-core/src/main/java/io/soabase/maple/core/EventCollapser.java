@@ -0,0 +1,294 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+import io.soabase.maple.api.LevelLogger;
+import io.soabase.maple.api.LoggingLevel;
+import io.soabase.maple.api.MapleFormatter;
+import io.soabase.maple.api.Names;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.annotations.Collapsed;
+import io.soabase.maple.spi.MetaInstance;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Collapses duplicate events (e.g. the storm of identical errors logged when a dependency fails). Events are
+ * fingerprinted by logger, level, main message, exception type and the values of the configured schema fields.
+ * The first occurrence is logged immediately and duplicates within the window are only counted. When the window
+ * ends a summary with the number of duplicates is logged instead of the event.
+ * </p>
+ *
+ * <p>
+ * Recent fingerprints are kept in a bounded concurrent table. Expired entries are swept (and their summaries logged)
+ * once per window by whichever thread logs through the collapser, or by a background thread if nothing is logged.
+ * When the table is full, expired entries are swept and then arbitrary entries (in the table's iteration order,
+ * not the oldest) are evicted and their summaries logged until the table is three quarters full.
+ * </p>
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+public final class EventCollapser {
+    private static final Map<Class<?>, EventCollapser> schemaCollapsers = new ConcurrentHashMap<>();
+    private static final EventCollapser NONE = new EventCollapser(Duration.ofMillis(1), 1);
+
+    private final String[] fields;
+    private final long windowNanos;
+    private final int maxEntries;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos;
+    private final AtomicBoolean registered = new AtomicBoolean();
+
+    /**
+     * @param window collapsing window
+     * @param maxEntries maximum number of distinct events tracked
+     * @param fields schema fields (i.e. schema method names) that identify duplicate events. If empty, all fields are used.
+     */
+    public EventCollapser(Duration window, int maxEntries, String... fields) {
+        Objects.requireNonNull(window, "window cannot be null");
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.fields = Objects.requireNonNull(fields, "fields cannot be null").clone();
+        this.windowNanos = window.toNanos();
+        this.maxEntries = maxEntries;
+        nextSweepNanos = new AtomicLong(System.nanoTime() + windowNanos);
+    }
+
+    /**
+     * Return the collapser for the schema's {@link Collapsed} annotation. The same collapser is returned for
+     * each call with the same schema.
+     *
+     * @param schemaClass logging schema
+     * @return collapser or {@code null} if the schema isn't annotated
+     */
+    public static EventCollapser forSchema(Class<?> schemaClass) {
+        EventCollapser collapser = schemaCollapsers.computeIfAbsent(schemaClass, EventCollapser::buildForSchema);
+        return (collapser != NONE) ? collapser : null;
+    }
+
+    /**
+     * Return a meta instance whose formatter collapses duplicate events before passing them to the given
+     * meta instance's formatter
+     *
+     * @param metaInstance meta instance to wrap
+     * @return collapsing meta instance
+     */
+    public <T> MetaInstance<T> wrap(MetaInstance<T> metaInstance) {
+        Names schemaNames = metaInstance.schemaNames();
+        int[] indexes = indexes(schemaNames);
+        String[] names = new String[indexes.length];
+        for (int i = 0; i < indexes.length; ++i) {
+            names[i] = schemaNames.nthName(indexes[i]);
+        }
+        MapleFormatter formatter = metaInstance.formatter();
+        if (registered.compareAndSet(false, true)) {
+            // otherwise the summary of a storm that is followed by silence would never be logged
+            SummaryFlusher.register(this, EventCollapser::sweepExpired);
+        }
+        return new DecoratedMetaInstance<>(metaInstance, (logger, loggingLevel, loggerName, namesValues, mainMessage, t) -> {
+            // events that aren't from the schema (e.g. sampling summaries) are never collapsed
+            if (namesValues.schemaNames() != schemaNames) {
+                formatter.apply(logger, loggingLevel, loggerName, namesValues, mainMessage, t);
+            } else {
+                collapse(formatter, indexes, names, logger, loggingLevel, loggerName, namesValues, mainMessage, t);
+            }
+        });
+    }
+
+    /**
+     * @return number of distinct events currently tracked
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private void collapse(MapleFormatter formatter, int[] indexes, String[] names, LevelLogger logger, LoggingLevel loggingLevel, String loggerName, NamesValues namesValues, String mainMessage, Throwable t) {
+        long now = System.nanoTime();
+        sweepExpired(now);
+
+        Object[] values = new Object[indexes.length];
+        for (int i = 0; i < indexes.length; ++i) {
+            values[i] = namesValues.nthValue(indexes[i]);
+        }
+        Key key = new Key(loggerName, loggingLevel, mainMessage, (t != null) ? t.getClass() : null, values);
+        for (;;) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                if (entries.size() >= maxEntries) {
+                    evict(now);
+                }
+                if (entries.putIfAbsent(key, new Entry(key, names, logger, formatter, now + windowNanos)) == null) {
+                    formatter.apply(logger, loggingLevel, loggerName, namesValues, mainMessage, t);
+                    return;
+                }
+            } else if (now - entry.windowEndNanos < 0) {
+                entry.repeated.increment();
+                if (!entry.flushed) {
+                    return;
+                }
+                // the entry was flushed after it was read - retry with the entry that replaced it
+                entry.repeated.decrement();
+            } else if (entries.remove(key, entry) && entry.flush() > 0) {
+                // the storm is ongoing - count this event in the next window rather than logging it again
+                Entry nextEntry = new Entry(key, names, logger, formatter, now + windowNanos);
+                nextEntry.repeated.increment();
+                if (entries.putIfAbsent(key, nextEntry) == null) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // also called by the SummaryFlusher
+    private void sweepExpired(long now) {
+        long next = nextSweepNanos.get();
+        if (now - next >= 0 && nextSweepNanos.compareAndSet(next, now + windowNanos)) {
+            sweep(now);
+        }
+    }
+
+    private void sweep(long now) {
+        entries.values().forEach(entry -> {
+            if (((now - entry.windowEndNanos) >= 0) && entries.remove(entry.key, entry)) {
+                entry.flush();
+            }
+        });
+    }
+
+    private void evict(long now) {
+        sweep(now);
+        int target = maxEntries - Math.max(1, maxEntries / 4);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ((entries.size() > target) && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entries.remove(entry.key, entry)) {
+                entry.flush();
+            }
+        }
+    }
+
+    private int[] indexes(Names schemaNames) {
+        if (fields.length == 0) {
+            int[] indexes = new int[schemaNames.qty()];
+            Arrays.setAll(indexes, i -> i);
+            return indexes;
+        }
+        int[] indexes = new int[fields.length];
+        for (int i = 0; i < fields.length; ++i) {
+            indexes[i] = -1;
+            for (int j = 0; j < schemaNames.qty(); ++j) {
+                if (fields[i].equals(schemaNames.nthName(j))) {
+                    indexes[i] = j;
+                    break;
+                }
+            }
+            if (indexes[i] < 0) {
+                throw new IllegalArgumentException("No schema field named: " + fields[i]);
+            }
+        }
+        return indexes;
+    }
+
+    private static EventCollapser buildForSchema(Class<?> schemaClass) {
+        Collapsed collapsed = schemaClass.getAnnotation(Collapsed.class);
+        if (collapsed == null) {
+            return NONE;
+        }
+        return new EventCollapser(Duration.ofMillis(collapsed.windowMs()), collapsed.maxEntries(), collapsed.fields());
+    }
+
+    private static class Key {
+        private final String loggerName;
+        private final LoggingLevel loggingLevel;
+        private final String mainMessage;
+        private final Class<?> exceptionType;
+        private final Object[] values;
+        private final int hashCode;
+
+        private Key(String loggerName, LoggingLevel loggingLevel, String mainMessage, Class<?> exceptionType, Object[] values) {
+            this.loggerName = loggerName;
+            this.loggingLevel = loggingLevel;
+            this.mainMessage = mainMessage;
+            this.exceptionType = exceptionType;
+            this.values = values;
+            hashCode = (31 * Objects.hash(loggerName, loggingLevel, mainMessage, exceptionType)) + Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return (hashCode == key.hashCode)
+                    && (loggingLevel == key.loggingLevel)
+                    && (exceptionType == key.exceptionType)
+                    && Objects.equals(loggerName, key.loggerName)
+                    && Objects.equals(mainMessage, key.mainMessage)
+                    && Arrays.equals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static class Entry {
+        private final Key key;
+        private final String[] names;
+        private final LevelLogger logger;
+        private final MapleFormatter formatter;
+        private final long windowEndNanos;
+        private final LongAdder repeated = new LongAdder();
+        private volatile boolean flushed;
+
+        private Entry(Key key, String[] names, LevelLogger logger, MapleFormatter formatter, long windowEndNanos) {
+            this.key = key;
+            this.names = names;
+            this.logger = logger;
+            this.formatter = formatter;
+            this.windowEndNanos = windowEndNanos;
+        }
+
+        // only called by the thread that removed the entry from the table. Increments check the flag after
+        // counting: one that sees it unset is included in the sum, one that sees it set is undone and retried
+        // against a new entry. An increment that is summed and then sees the flag can be counted again by the retry.
+        private long flush() {
+            flushed = true;
+            long count = repeated.sum();
+            if (count > 0) {
+                formatter.apply(logger, key.loggingLevel, key.loggerName, new CollapsedNamesValues(names, key.values, count), CollapsedNamesValues.SUMMARY_MESSAGE, null);
+            }
+            return count;
+        }
+    }
+}
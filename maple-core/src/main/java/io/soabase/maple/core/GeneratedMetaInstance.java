@@ -20,15 +20,20 @@ import io.soabase.maple.api.Names;
 import io.soabase.maple.api.NamesValues;
 import io.soabase.maple.spi.MetaInstance;
 
+import java.util.Arrays;
+
 class GeneratedMetaInstance<T> implements MetaInstance<T> {
     private final Class<T> generatedClass;
     private final InstanceFactory<T> instanceFactory;
+    private final boolean hasPrimitives;
     private final Names names;
     private final MapleFormatter formatter;
+    private final ThreadLocal<Instance> recycled = ThreadLocal.withInitial(this::newRecycledInstance);
 
-    GeneratedMetaInstance(Class<T> generatedClass, InstanceFactory<T> instanceFactory, Names names, MapleFormatter formatter) {
+    GeneratedMetaInstance(Class<T> generatedClass, InstanceFactory<T> instanceFactory, boolean hasPrimitives, Names names, MapleFormatter formatter) {
         this.generatedClass = generatedClass;
         this.instanceFactory = instanceFactory;
+        this.hasPrimitives = hasPrimitives;
         this.names = names;
         this.formatter = formatter;
     }
@@ -38,12 +43,36 @@ class GeneratedMetaInstance<T> implements MetaInstance<T> {
         try {
             T instance = instanceFactory.newInstance();
             ((Instance) instance).arguments = new Object[names.qty()];
+            if (hasPrimitives) {
+                ((Instance) instance).primitives = new long[names.qty()];
+            }
             return instance;
         } catch (Exception e) {
             throw new RuntimeException("Could not allocate schema instance: " + generatedClass.getName(), e);
         }
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public T acquireSchemaInstance() {
+        Instance instance = recycled.get();
+        if (instance.inUse) {
+            // a statement is logging with this schema while already logging with it - i.e. re-entrant
+            return newSchemaInstance();
+        }
+        instance.inUse = true;
+        return (T) instance;
+    }
+
+    @Override
+    public void releaseSchemaInstance(T instance) {
+        Instance thisInstance = (Instance) instance;
+        if (thisInstance.inUse) {
+            Arrays.fill(thisInstance.arguments, null);
+            thisInstance.inUse = false;
+        }
+    }
+
     @Override
     public Names schemaNames() {
         return names;
@@ -56,7 +85,13 @@ class GeneratedMetaInstance<T> implements MetaInstance<T> {
 
     @Override
     public NamesValues toNamesValues(T instance) {
-        return new NamesValuesImp(names, ((Instance) instance).arguments);
+        Instance thisInstance = (Instance) instance;
+        return (thisInstance.namesValues != null) ? thisInstance.namesValues : new NamesValuesImp(names, thisInstance.arguments, thisInstance.primitives);
     }
 
+    private Instance newRecycledInstance() {
+        Instance instance = (Instance) newSchemaInstance();
+        instance.namesValues = new NamesValuesImp(names, instance.arguments, instance.primitives);
+        return instance;
+    }
 }
@@ -29,6 +29,9 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -44,10 +47,29 @@ public class Generator {
             Stream.of(Instance.class.getMethods()).map(Method::getName).collect(Collectors.toSet())
     );
     private static final Method setValueAtIndexMethod;
+    private static final Map<Class<?>, Method> setPrimitiveAtIndexMethods;
+    private static final Map<Class<?>, Method> setSupplierAtIndexMethods;
 
     static {
         try {
             setValueAtIndexMethod = Instance.class.getMethod("internalSetValueAtIndex", Integer.TYPE, Object.class);
+
+            Map<Class<?>, Method> map = new HashMap<>();
+            Method setIntAtIndexMethod = Instance.class.getMethod("internalSetIntAtIndex", Integer.TYPE, Integer.TYPE);
+            map.put(Byte.TYPE, setIntAtIndexMethod);
+            map.put(Short.TYPE, setIntAtIndexMethod);
+            map.put(Integer.TYPE, setIntAtIndexMethod);
+            map.put(Long.TYPE, Instance.class.getMethod("internalSetLongAtIndex", Integer.TYPE, Long.TYPE));
+            map.put(Float.TYPE, Instance.class.getMethod("internalSetFloatAtIndex", Integer.TYPE, Float.TYPE));
+            map.put(Double.TYPE, Instance.class.getMethod("internalSetDoubleAtIndex", Integer.TYPE, Double.TYPE));
+            map.put(Boolean.TYPE, Instance.class.getMethod("internalSetBooleanAtIndex", Integer.TYPE, Boolean.TYPE));
+            setPrimitiveAtIndexMethods = Collections.unmodifiableMap(map);
+
+            map = new HashMap<>();
+            map.put(Supplier.class, Instance.class.getMethod("internalSetSupplierAtIndex", Integer.TYPE, Supplier.class));
+            map.put(IntSupplier.class, Instance.class.getMethod("internalSetIntSupplierAtIndex", Integer.TYPE, IntSupplier.class));
+            map.put(LongSupplier.class, Instance.class.getMethod("internalSetLongSupplierAtIndex", Integer.TYPE, LongSupplier.class));
+            setSupplierAtIndexMethods = Collections.unmodifiableMap(map);
         } catch (NoSuchMethodException e) {
             throw new RuntimeException("Could not find internal method", e);
         }
@@ -65,10 +87,12 @@ public class Generator {
     private static class Generated<T> {
         final Class generatedClass;
         final InstanceFactory<T> instanceFactory;
+        final boolean hasPrimitives;
 
-        Generated(Class generatedClass, InstanceFactory<T> instanceFactory) {
+        Generated(Class generatedClass, InstanceFactory<T> instanceFactory, boolean hasPrimitives) {
             this.generatedClass = generatedClass;
             this.instanceFactory = instanceFactory;
+            this.hasPrimitives = hasPrimitives;
         }
     }
 
@@ -76,15 +100,59 @@ public class Generator {
     public <T> GeneratedMetaInstance<T> generate(Names names, Class<T> schemaClass, ClassLoader classLoader, MapleFormatter formatter) {
         return metaInstanceCache.computeIfAbsent(new Key(schemaClass, formatter), __ -> {
             Generated<T> generated = generatedCache.computeIfAbsent(schemaClass, ___ -> {
+                Generated<T> precompiled = loadPrecompiled(names, schemaClass, classLoader);
+                if (precompiled != null) {
+                    return precompiled;
+                }
+
                 ByteBuddy byteBuddy = new ByteBuddy();
                 Class generatedClass = internalGenerate(byteBuddy, schemaClass, classLoader, toMap(names));
                 InstanceFactory<T> instanceFactory = generateInstanceFactory(byteBuddy, generatedClass);
-                return new Generated(generatedClass, instanceFactory);
+                return new Generated(generatedClass, instanceFactory, hasPrimitives(schemaClass));
             });
-            return new GeneratedMetaInstance<>(generated.generatedClass, generated.instanceFactory, names, formatter);
+            return new GeneratedMetaInstance<>(generated.generatedClass, generated.instanceFactory, generated.hasPrimitives, names, formatter.specialize(schemaClass, names));
         });
     }
 
+    @SuppressWarnings("unchecked")
+    private <T> Generated<T> loadPrecompiled(Names names, Class<T> schemaClass, ClassLoader classLoader) {
+        Class<?> precompiledClass;
+        try {
+            precompiledClass = Class.forName(schemaClass.getName() + PrecompiledSchema.CLASS_NAME_SUFFIX, true, classLoader);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        if (!PrecompiledSchema.class.isAssignableFrom(precompiledClass)) {
+            return null;
+        }
+
+        PrecompiledSchema<T> precompiled;
+        try {
+            precompiled = (PrecompiledSchema<T>) precompiledClass.getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw new RuntimeException("Could not create precompiled schema: " + precompiledClass.getName(), e);
+        }
+        if (!Arrays.equals(precompiled.schemaMethods(), schemaMethods(names, schemaClass))) {
+            return null;    // the schema has changed since it was precompiled
+        }
+        return new Generated<>(precompiledClass, precompiled, precompiled.hasPrimitives());
+    }
+
+    private String[] schemaMethods(Names names, Class<?> schemaClass) {
+        Map<String, Method> methods = Stream.of(schemaClass.getMethods())
+                .filter(method -> method.getParameterCount() == 1)
+                .collect(Collectors.toMap(Method::toGenericString, method -> method, (a, b) -> a));
+        String[] schemaMethods = new String[names.qty()];
+        for (int i = 0; i < names.qty(); ++i) {
+            Method method = methods.get(names.nthRawName(i));
+            if (method == null) {
+                return new String[0];
+            }
+            schemaMethods[i] = method.getName() + "(" + method.getParameterTypes()[0].getCanonicalName() + ")";
+        }
+        return schemaMethods;
+    }
+
     private Map<String, Integer> toMap(Names names) {
         return IntStream.range(0, names.qty())
                 .mapToObj(i -> new AbstractMap.SimpleEntry<>(names.nthRawName(i), i))
@@ -101,7 +169,9 @@ public class Generator {
             if (thisIndex < 0 ) {
                 throw new InvalidSchemaException(String.format("Could not find method %s in generated Names", method.toGenericString()));
             }
-            Implementation methodCall = invoke(setValueAtIndexMethod)
+            Class<?> parameterType = method.getParameterTypes()[0];
+            Method setAtIndexMethod = setPrimitiveAtIndexMethods.getOrDefault(parameterType, setSupplierAtIndexMethods.getOrDefault(parameterType, setValueAtIndexMethod));
+            Implementation methodCall = invoke(setAtIndexMethod)
                     .with(thisIndex)
                     .withArgument(0)
                     .andThen(FixedValue.self());
@@ -112,6 +182,12 @@ public class Generator {
         return builder.make().load(classLoader).getLoaded();
     }
 
+    private boolean hasPrimitives(Class schemaClass) {
+        return Stream.of(schemaClass.getMethods())
+                .filter(method -> !method.isBridge() && !method.isSynthetic() && !method.isDefault() && !Modifier.isStatic(method.getModifiers()))
+                .anyMatch(method -> setPrimitiveAtIndexMethods.containsKey(method.getParameterTypes()[0]));
+    }
+
     private <T> InstanceFactory generateInstanceFactory(ByteBuddy byteBuddy, Class<T> clazz) {
         try {
             DynamicType.Builder<InstanceFactory> builder = byteBuddy
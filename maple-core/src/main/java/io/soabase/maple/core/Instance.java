@@ -15,12 +15,58 @@
  */
 package io.soabase.maple.core;
 
+import io.soabase.maple.api.NamesValues;
+
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
 // note: this is public so that ByteBuddy can access it
 @SuppressWarnings("WeakerAccess")
 public class Instance {
     Object[] arguments;
+    long[] primitives;          // null if the schema has no primitive arguments
+    NamesValues namesValues;    // only set for recycled instances
+    boolean inUse;
 
     public void internalSetValueAtIndex(int index, Object value) {
         arguments[index] = value;
     }
+
+    public void internalSetIntAtIndex(int index, int value) {
+        arguments[index] = PrimitiveMarker.INT;
+        primitives[index] = value;
+    }
+
+    public void internalSetLongAtIndex(int index, long value) {
+        arguments[index] = PrimitiveMarker.LONG;
+        primitives[index] = value;
+    }
+
+    public void internalSetFloatAtIndex(int index, float value) {
+        arguments[index] = PrimitiveMarker.FLOAT;
+        primitives[index] = Double.doubleToRawLongBits(value);
+    }
+
+    public void internalSetDoubleAtIndex(int index, double value) {
+        arguments[index] = PrimitiveMarker.DOUBLE;
+        primitives[index] = Double.doubleToRawLongBits(value);
+    }
+
+    public void internalSetBooleanAtIndex(int index, boolean value) {
+        arguments[index] = PrimitiveMarker.BOOLEAN;
+        primitives[index] = value ? 1 : 0;
+    }
+
+    public void internalSetSupplierAtIndex(int index, Supplier<?> supplier) {
+        arguments[index] = (supplier != null) ? new DeferredValue(supplier) : null;
+    }
+
+    public void internalSetIntSupplierAtIndex(int index, IntSupplier supplier) {
+        arguments[index] = (supplier != null) ? new DeferredValue(supplier) : null;
+    }
+
+    public void internalSetLongSupplierAtIndex(int index, LongSupplier supplier) {
+        arguments[index] = (supplier != null) ? new DeferredValue(supplier) : null;
+    }
 }
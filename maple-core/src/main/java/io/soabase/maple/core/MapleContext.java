@@ -0,0 +1,308 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+import io.soabase.maple.api.MdcCloseable;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.PrimitiveNamesValues;
+import io.soabase.maple.api.ValueType;
+import io.soabase.maple.spi.MapleContextBinding;
+import io.soabase.maple.spi.MapleSpi;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * <p>
+ * An immutable snapshot of the values set via {@link io.soabase.maple.api.MapleLoggerApi#mdc(io.soabase.maple.api.Statement)}.
+ * Each thread has a current context which {@code mdc()} extends and restores when closed. Capturing the current
+ * context ({@link #current()}) is just a reference copy, so it is cheap to hand to other threads.
+ * </p>
+ *
+ * <p>
+ * Use the wrapping methods to restore a context around task execution in other threads. While attached, the
+ * context's values are also put into the logging library's MDC. {@link io.soabase.maple.api.annotations.MdcDefaultValue}
+ * values are read from the current context first and then from the logging library's MDC.
+ * </p>
+ *
+ * <p>
+ * A {@link MapleContextBinding} can bind contexts in other ways (e.g. maple-scoped binds them to a {@code ScopedValue}).
+ * When a context is bound, it is current unless the thread's context was derived from it (e.g. via {@code mdc()} in the bound scope).
+ * </p>
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+public final class MapleContext {
+    private static final MapleContext EMPTY = new MapleContext(new String[0], new String[0], null);
+    private static final ThreadLocal<MapleContext> current = ThreadLocal.withInitial(() -> EMPTY);
+    private static final MapleContextBinding binding = MapleContextBinding.instance();
+
+    private final String[] keys;
+    private final String[] values;
+    private final MapleContext parent;  // the context this was derived from
+
+    private MapleContext(String[] keys, String[] values, MapleContext parent) {
+        this.keys = keys;
+        this.values = values;
+        this.parent = parent;
+    }
+
+    /**
+     * @return the current context
+     */
+    public static MapleContext current() {
+        MapleContext threadContext = current.get();
+        MapleContext boundContext = binding.boundContext();
+        if ((boundContext == null) || threadContext.isDerivedFrom(boundContext)) {
+            return threadContext;
+        }
+        return boundContext;
+    }
+
+    /**
+     * @return a context with no values
+     */
+    public static MapleContext empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Return an executor that runs each task with the context that was current when the task was submitted
+     *
+     * @param executor executor to wrap
+     * @return wrapped executor
+     */
+    public static Executor wrapExecutor(Executor executor) {
+        return command -> executor.execute(current().wrap(command));
+    }
+
+    /**
+     * Return an executor service that runs each task with the context that was current when the task was submitted
+     *
+     * @param executorService executor service to wrap
+     * @return wrapped executor service
+     */
+    public static ExecutorService wrapExecutorService(ExecutorService executorService) {
+        return new ContextExecutorService(executorService);
+    }
+
+    /**
+     * Return a new context with this context's values plus the set (non-null) values of the given names/values
+     * (which replace any existing values with the same names)
+     *
+     * @param namesValues names/values
+     * @return new context
+     */
+    public MapleContext with(NamesValues namesValues) {
+        int namesQty = namesValues.qty();
+        String[] newKeys = new String[namesQty];
+        String[] newValues = new String[namesQty];
+        int qty = 0;
+        PrimitiveNamesValues primitiveValues = (namesValues instanceof PrimitiveNamesValues) ? (PrimitiveNamesValues) namesValues : null;
+        for (int i = 0; i < namesQty; ++i) {
+            String value = toContextValue(namesValues, primitiveValues, i);
+            if (value != null) {
+                newKeys[qty] = namesValues.nthName(i);
+                newValues[qty] = value;
+                ++qty;
+            }
+        }
+        return with(newKeys, newValues, qty);
+    }
+
+    /**
+     * Return the value for the given name or {@code null}
+     *
+     * @param name name
+     * @return value or {@code null}
+     */
+    public String get(String name) {
+        int index = indexOf(name);
+        return (index >= 0) ? values[index] : null;
+    }
+
+    /**
+     * @return the number of values in this context
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @param n index
+     * @return the name of the nth value
+     */
+    public String nthKey(int n) {
+        return keys[n];
+    }
+
+    /**
+     * @param n index
+     * @return the nth value
+     */
+    public String nthValue(int n) {
+        return values[n];
+    }
+
+    /**
+     * Make this the current thread's context (and put its values into the logging library's MDC) until the returned
+     * closeable is closed. Closing restores the previous context and MDC values.
+     *
+     * @return closeable
+     */
+    public MdcCloseable attach() {
+        if (keys.length == 0) {
+            MapleContext previous = swap(this);
+            return () -> swap(previous);
+        }
+        return new RestoringMdcCloseable(MapleSpi.instance(), keys, values, keys.length, this);
+    }
+
+    /**
+     * Return a runnable that runs the given runnable with this context attached
+     *
+     * @param runnable runnable
+     * @return wrapped runnable
+     */
+    public Runnable wrap(Runnable runnable) {
+        return () -> {
+            try (MdcCloseable ignore = attach()) {
+                runnable.run();
+            }
+        };
+    }
+
+    /**
+     * Return a callable that calls the given callable with this context attached
+     *
+     * @param callable callable
+     * @return wrapped callable
+     */
+    public <V> Callable<V> wrap(Callable<V> callable) {
+        return () -> {
+            try (MdcCloseable ignore = attach()) {
+                return callable.call();
+            }
+        };
+    }
+
+    /**
+     * Return a stage whose dependent stages (and their dependent stages, etc.) run with this context attached.
+     * Note: {@link CompletionStage#toCompletableFuture()} returns the unwrapped future.
+     *
+     * @param stage stage to wrap
+     * @return wrapped stage
+     */
+    public <T> CompletionStage<T> wrap(CompletionStage<T> stage) {
+        return new ContextCompletionStage<>(this, stage);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder("MapleContext{");
+        for (int i = 0; i < keys.length; ++i) {
+            if (i > 0) {
+                str.append(", ");
+            }
+            str.append(keys[i]).append('=').append(values[i]);
+        }
+        return str.append('}').toString();
+    }
+
+    // the first qty keys/values replace/add to this context's values - the arrays may be used directly
+    MapleContext with(String[] newKeys, String[] newValues, int qty) {
+        if (keys.length == 0) {
+            if (newKeys.length == qty) {
+                return new MapleContext(newKeys, newValues, this);
+            }
+            return new MapleContext(Arrays.copyOf(newKeys, qty), Arrays.copyOf(newValues, qty), this);
+        }
+
+        String[] mergedKeys = Arrays.copyOf(keys, keys.length + qty);
+        String[] mergedValues = Arrays.copyOf(values, values.length + qty);
+        int mergedQty = keys.length;
+        for (int i = 0; i < qty; ++i) {
+            int index = indexOf(newKeys[i]);
+            if (index >= 0) {
+                mergedValues[index] = newValues[i];
+            } else {
+                mergedKeys[mergedQty] = newKeys[i];
+                mergedValues[mergedQty] = newValues[i];
+                ++mergedQty;
+            }
+        }
+        if (mergedQty < mergedKeys.length) {
+            mergedKeys = Arrays.copyOf(mergedKeys, mergedQty);
+            mergedValues = Arrays.copyOf(mergedValues, mergedQty);
+        }
+        return new MapleContext(mergedKeys, mergedValues, this);
+    }
+
+    static String toContextValue(NamesValues namesValues, PrimitiveNamesValues primitiveValues, int n) {
+        ValueType valueType = (primitiveValues != null) ? primitiveValues.nthValueType(n) : ValueType.OBJECT;
+        switch (valueType) {
+            case INT:
+            case LONG:
+                return Long.toString(primitiveValues.nthLong(n));
+
+            case FLOAT:
+                return Float.toString((float) primitiveValues.nthDouble(n));
+
+            case DOUBLE:
+                return Double.toString(primitiveValues.nthDouble(n));
+
+            case BOOLEAN:
+                return primitiveValues.nthBoolean(n) ? "true" : "false";
+
+            default: {
+                Object value = namesValues.nthValue(n);
+                return (value != null) ? String.valueOf(value) : null;
+            }
+        }
+    }
+
+    static MapleContext swap(MapleContext newContext) {
+        MapleContext previous = current.get();
+        current.set(newContext);
+        return previous;
+    }
+
+    private boolean isDerivedFrom(MapleContext context) {
+        for (MapleContext check = this; check != null; check = check.parent) {
+            if (check == context) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int indexOf(String name) {
+        // names are usually the same String instances from the schema
+        for (int i = 0; i < keys.length; ++i) {
+            if (keys[i] == name) {
+                return i;
+            }
+        }
+        for (int i = 0; i < keys.length; ++i) {
+            if (keys[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
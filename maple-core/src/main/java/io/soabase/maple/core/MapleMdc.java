@@ -0,0 +1,172 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+import io.soabase.maple.api.Names;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.Specialization;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>
+ * An MDC owned by Maple for logging libraries that don't have one (e.g. Airlift and java.util.logging). Each name
+ * is assigned a slot the first time it's used and each thread's values are stored in an array indexed by slot.
+ * For {@link io.soabase.maple.api.annotations.MdcDefaultValue} lookups each schema's fields are mapped to slots
+ * once, so a lookup is an array access rather than a map lookup.
+ * </p>
+ *
+ * <p>
+ * As with other MDCs, values are per-thread - use {@link MapleContext} to propagate them to other threads.
+ * </p>
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+public final class MapleMdc {
+    private static final int[] NO_SLOTS = new int[0];
+    private static final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private static final Map<Names, int[]> schemaSlots = new ConcurrentHashMap<>();
+    private static volatile String[] slotNames = new String[0];
+    private static final ThreadLocal<Table> tables = ThreadLocal.withInitial(Table::new);
+
+    private static class Table {
+        private Object[] values = new Object[8];
+        private Names names;    // the last schema looked up and its field to slot mapping
+        private int[] namesSlots = NO_SLOTS;
+
+        Object get(int slot) {
+            return ((slot >= 0) && (slot < values.length)) ? values[slot] : null;
+        }
+
+        void set(int slot, Object value) {
+            if (slot >= values.length) {
+                if (value == null) {
+                    return;
+                }
+                values = Arrays.copyOf(values, Math.max(slot + 1, values.length * 2));
+            }
+            values[slot] = value;
+        }
+    }
+
+    /**
+     * Return the current thread's value for the given name or {@code null}
+     *
+     * @param name name
+     * @return value or {@code null}
+     */
+    public static Object get(String name) {
+        Integer slot = slots.get(name);
+        return (slot != null) ? tables.get().get(slot) : null;
+    }
+
+    /**
+     * Return the current thread's value for the nth field of the given names/values or {@code null}
+     *
+     * @param namesValues names/values
+     * @param n field index
+     * @return value or {@code null}
+     */
+    public static Object get(NamesValues namesValues, int n) {
+        Names names = namesValues.schemaNames();
+        if (names == null) {
+            return get(namesValues.nthName(n));
+        }
+        Table table = tables.get();
+        if (table.names != names) {
+            table.namesSlots = schemaSlots.computeIfAbsent(names, MapleMdc::buildSchemaSlots);
+            table.names = names;
+        }
+        return table.get(table.namesSlots[n]);
+    }
+
+    /**
+     * Set the current thread's value for the given name
+     *
+     * @param name name
+     * @param value value or {@code null} to remove
+     */
+    public static void put(String name, Object value) {
+        tables.get().set(slotFor(name), value);
+    }
+
+    /**
+     * Remove the current thread's value for the given name
+     *
+     * @param name name
+     */
+    public static void remove(String name) {
+        Integer slot = slots.get(name);
+        if (slot != null) {
+            tables.get().set(slot, null);
+        }
+    }
+
+    /**
+     * Remove all of the current thread's values
+     */
+    public static void clear() {
+        Table table = tables.get();
+        Arrays.fill(table.values, null);
+    }
+
+    /**
+     * Pass each of the current thread's set values to the given consumer (in the order that the names were first used)
+     *
+     * @param consumer consumer
+     */
+    public static void forEach(BiConsumer<String, Object> consumer) {
+        Object[] values = tables.get().values;
+        String[] localSlotNames = slotNames;
+        int qty = Math.min(values.length, localSlotNames.length);
+        for (int i = 0; i < qty; ++i) {
+            Object value = values[i];
+            if (value != null) {
+                consumer.accept(localSlotNames[i], value);
+            }
+        }
+    }
+
+    private static int slotFor(String name) {
+        Integer slot = slots.get(name);
+        return (slot != null) ? slot : newSlot(name);
+    }
+
+    private static synchronized int newSlot(String name) {
+        Integer slot = slots.get(name);
+        if (slot == null) {
+            String[] newSlotNames = Arrays.copyOf(slotNames, slotNames.length + 1);
+            slot = slotNames.length;
+            newSlotNames[slot] = name;
+            slotNames = newSlotNames;   // published before the slot can be used
+            slots.put(name, slot);
+        }
+        return slot;
+    }
+
+    private static int[] buildSchemaSlots(Names names) {
+        int[] fieldSlots = new int[names.qty()];
+        for (int i = 0; i < fieldSlots.length; ++i) {
+            fieldSlots[i] = names.nthHasSpecialization(i, Specialization.DEFAULT_FROM_MDC) ? slotFor(names.nthName(i)) : -1;
+        }
+        return fieldSlots;
+    }
+
+    private MapleMdc() {
+    }
+}
@@ -18,7 +18,9 @@ package io.soabase.maple.core;
 import io.soabase.maple.api.NameValue;
 import io.soabase.maple.api.Names;
 import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.PrimitiveNamesValues;
 import io.soabase.maple.api.Specialization;
+import io.soabase.maple.api.ValueType;
 
 import java.util.Iterator;
 import java.util.Set;
@@ -27,13 +29,16 @@ import java.util.Spliterators;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
-class NamesValuesImp implements NamesValues {
+@SuppressWarnings("PMD.UselessParentheses")
+class NamesValuesImp implements PrimitiveNamesValues {
     private final Names names;
     private final Object[] arguments;
+    private final long[] primitives;
 
-    NamesValuesImp(Names names, Object[] arguments) {
+    NamesValuesImp(Names names, Object[] arguments, long[] primitives) {
         this.names = names;
         this.arguments = arguments;
+        this.primitives = primitives;
     }
 
     @Override
@@ -53,7 +58,49 @@ class NamesValuesImp implements NamesValues {
 
     @Override
     public Object nthValue(int n) {
-        return arguments[n];
+        Object value = arguments[n];
+        if (value instanceof PrimitiveMarker) {
+            return ((PrimitiveMarker) value).box(primitives[n]);
+        }
+        return (value instanceof DeferredValue) ? ((DeferredValue) value).value() : value;
+    }
+
+    @Override
+    public ValueType nthValueType(int n) {
+        Object value = arguments[n];
+        if (value instanceof PrimitiveMarker) {
+            return ((PrimitiveMarker) value).valueType;
+        }
+        return (value instanceof DeferredValue) ? ((DeferredValue) value).valueType : ValueType.OBJECT;
+    }
+
+    @Override
+    public long nthLong(int n) {
+        Object value = arguments[n];
+        return (value instanceof DeferredValue) ? ((DeferredValue) value).longValue() : primitives[n];
+    }
+
+    Object[] arguments() {
+        return arguments;
+    }
+
+    long[] primitives() {
+        return primitives;
+    }
+
+    DeferredValue nthDeferredValue(int n) {
+        Object value = arguments[n];
+        return (value instanceof DeferredValue) ? (DeferredValue) value : null;
+    }
+
+    @Override
+    public double nthDouble(int n) {
+        return Double.longBitsToDouble(primitives[n]);
+    }
+
+    @Override
+    public boolean nthBoolean(int n) {
+        return primitives[n] != 0;
     }
 
     @Override
@@ -61,11 +108,26 @@ class NamesValuesImp implements NamesValues {
         return names.nthSpecializations(n);
     }
 
+    @Override
+    public boolean nthHasSpecialization(int n, Specialization specialization) {
+        return names.nthHasSpecialization(n, specialization);
+    }
+
+    @Override
+    public boolean hasSpecialization(Specialization specialization) {
+        return names.hasSpecialization(specialization);
+    }
+
     @Override
     public Stream<NameValue> stream() {
         return newStream(this);
     }
 
+    @Override
+    public Names schemaNames() {
+        return names;
+    }
+
     static Stream<NameValue> newStream(NamesValues namesValues) {
         Iterator<NameValue> iterator = new Iterator<NameValue>() {
             private int index = -1;
@@ -0,0 +1,39 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+/**
+ * Implemented by the classes that maple-processor generates for {@link io.soabase.maple.api.annotations.Precompiled}
+ * schemas. The generated class is in the schema's package and is named the schema's binary
+ * name plus {@link #CLASS_NAME_SUFFIX} (e.g. {@code Outer$Schema_MapleSchema}).
+ */
+public interface PrecompiledSchema<T> extends InstanceFactory<T> {
+    String CLASS_NAME_SUFFIX = "_MapleSchema";
+
+    /**
+     * Return the schema methods in the order of the schema's {@link io.soabase.maple.api.Names}. Each
+     * method is described as {@code name(parameter type)} where the parameter type is the erased canonical name.
+     * If these do not match the runtime names the precompiled class is ignored.
+     *
+     * @return schema methods
+     */
+    String[] schemaMethods();
+
+    /**
+     * @return true if any schema method takes a primitive other than {@code char}
+     */
+    boolean hasPrimitives();
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+import io.soabase.maple.api.ValueType;
+
+// marks an argument whose value is stored in Instance#primitives
+final class PrimitiveMarker {
+    static final PrimitiveMarker INT = new PrimitiveMarker(ValueType.INT);
+    static final PrimitiveMarker LONG = new PrimitiveMarker(ValueType.LONG);
+    static final PrimitiveMarker FLOAT = new PrimitiveMarker(ValueType.FLOAT);
+    static final PrimitiveMarker DOUBLE = new PrimitiveMarker(ValueType.DOUBLE);
+    static final PrimitiveMarker BOOLEAN = new PrimitiveMarker(ValueType.BOOLEAN);
+
+    final ValueType valueType;
+
+    private PrimitiveMarker(ValueType valueType) {
+        this.valueType = valueType;
+    }
+
+    Object box(long primitive) {
+        switch (valueType) {
+            case INT:
+                return (int) primitive;
+            case LONG:
+                return primitive;
+            case FLOAT:
+                return (float) Double.longBitsToDouble(primitive);
+            case DOUBLE:
+                return Double.longBitsToDouble(primitive);
+            case BOOLEAN:
+                return primitive != 0;
+        }
+        throw new IllegalStateException();  // should never get here
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+import io.soabase.maple.api.MdcCloseable;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.PrimitiveNamesValues;
+import io.soabase.maple.spi.MapleSpi;
+
+/**
+ * Puts values into the MDC and makes a new {@link MapleContext} current. Remembers exactly which keys it set
+ * along with their previous values. Closing restores the previous values (or removes the keys if there
+ * weren't any) and the previous context.
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+final class RestoringMdcCloseable implements MdcCloseable {
+    private final MapleSpi spi;
+    private final String[] keys;
+    private final Object[] previousValues;
+    private final int qty;
+    private final MapleContext previousContext;
+    private boolean closed;
+
+    /**
+     * Put the set (non-null) values and extend the current context with them
+     *
+     * @param spi SPI
+     * @param namesValues names/values
+     * @return closeable
+     */
+    static RestoringMdcCloseable put(MapleSpi spi, NamesValues namesValues) {
+        int namesQty = namesValues.qty();
+        String[] keys = new String[namesQty];
+        String[] values = new String[namesQty];
+        int qty = 0;
+        PrimitiveNamesValues primitiveValues = (namesValues instanceof PrimitiveNamesValues) ? (PrimitiveNamesValues) namesValues : null;
+        for (int i = 0; i < namesQty; ++i) {
+            String value = MapleContext.toContextValue(namesValues, primitiveValues, i);
+            if (value != null) {
+                keys[qty] = namesValues.nthName(i);
+                values[qty] = value;
+                ++qty;
+            }
+        }
+        return new RestoringMdcCloseable(spi, keys, values, qty, MapleContext.current().with(keys, values, qty));
+    }
+
+    RestoringMdcCloseable(MapleSpi spi, String[] keys, String[] values, int qty, MapleContext newContext) {
+        this.spi = spi;
+        this.keys = keys;
+        this.qty = qty;
+        previousValues = new Object[qty];
+        for (int i = 0; i < qty; ++i) {
+            previousValues[i] = spi.getMdcValue(keys[i]);
+            spi.putMdcValue(keys[i], values[i]);
+        }
+        previousContext = MapleContext.swap(newContext);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (int i = qty - 1; i >= 0; --i) {
+            Object previousValue = previousValues[i];
+            if (previousValue != null) {
+                spi.putMdcValue(keys[i], previousValue);
+            } else {
+                spi.removeMdcValue(keys[i]);
+            }
+            previousValues[i] = null;
+        }
+        MapleContext.swap(previousContext);
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, lock-free, multi-producer/multi-consumer ring of preallocated slots (after
+ * Dmitry Vyukov's bounded MPMC queue). Slots are claimed, filled in place and published so
+ * that nothing is allocated per event. Each slot's sequence number tracks whether it is free,
+ * published or being read.
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+public class RingBuffer<E> {
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity number of slots - must be a power of 2
+     * @param slotFactory allocates each slot
+     */
+    public RingBuffer(int capacity, Supplier<E> slotFactory) {
+        if ((capacity < 2) || (Integer.bitCount(capacity) != 1)) {
+            throw new IllegalArgumentException("capacity must be a power of 2 greater than 1: " + capacity);
+        }
+        slots = new Object[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; ++i) {
+            slots[i] = slotFactory.get();
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Claim the next free slot for writing. The slot must be filled via {@link #get(long)} and then
+     * passed to {@link #publish(long)}
+     *
+     * @return the claimed position or {@code -1} if the ring is full
+     */
+    public long tryClaim() {
+        long position = tail.get();
+        for (;;) {
+            long difference = sequences.get(index(position)) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return -1;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Make a claimed slot available to readers
+     *
+     * @param position position returned by {@link #tryClaim()}
+     */
+    public void publish(long position) {
+        sequences.set(index(position), position + 1);
+    }
+
+    /**
+     * Take the oldest published slot for reading. The slot must be passed to {@link #release(long)}
+     * when done.
+     *
+     * @return the taken position or {@code -1} if there are no published slots
+     */
+    public long tryTake() {
+        long position = head.get();
+        for (;;) {
+            long difference = sequences.get(index(position)) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return -1;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Return a taken slot to the ring so that it can be claimed again
+     *
+     * @param position position returned by {@link #tryTake()}
+     */
+    public void release(long position) {
+        sequences.set(index(position), position + slots.length);
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(long position) {
+        return (E) slots[index(position)];
+    }
+
+    /**
+     * @return the number of positions claimed so far
+     */
+    public long claimed() {
+        return tail.get();
+    }
+
+    private int index(long position) {
+        return (int) position & mask;
+    }
+}
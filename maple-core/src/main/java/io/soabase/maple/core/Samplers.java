@@ -0,0 +1,176 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+import io.soabase.maple.api.LoggingLevel;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.Sampler;
+import io.soabase.maple.api.annotations.RateLimited;
+import io.soabase.maple.api.annotations.Sampled;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Standard {@link Sampler}s
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+public final class Samplers {
+    private static final Map<Class<?>, Sampler> schemaSamplers = new ConcurrentHashMap<>();
+    private static final Sampler NONE = __ -> true;
+    private static final Object NULL_KEY = new Object();
+    private static final int MAX_KEYS = 10_000;
+
+    /**
+     * Return a sampler that logs 1 in {@code oneIn} events (the first event is logged). Events are counted
+     * with striped counters so the ratio is exact per stripe and approximate overall.
+     *
+     * @param oneIn ratio
+     * @return sampler
+     */
+    public static Sampler ratio(int oneIn) {
+        if (oneIn < 1) {
+            throw new IllegalArgumentException("oneIn must be at least 1");
+        }
+        if (oneIn == 1) {
+            return NONE;
+        }
+        StripedCounter counter = new StripedCounter();
+        return __ -> ((counter.incrementAndGet() - 1) % oneIn) == 0;
+    }
+
+    /**
+     * Return a token bucket sampler that logs at most {@code perSecond} events per second allowing
+     * bursts of up to {@code perSecond} events. Once the limit is reached, rejecting an event only
+     * reads shared state.
+     *
+     * @param perSecond rate
+     * @return sampler
+     */
+    public static Sampler rateLimit(long perSecond) {
+        if (perSecond < 1) {
+            throw new IllegalArgumentException("perSecond must be at least 1");
+        }
+        long burstNanos = TimeUnit.SECONDS.toNanos(1);
+        long intervalNanos = Math.max(1, burstNanos / perSecond);
+        // "generic cell rate algorithm" - i.e. the time at which the bucket would next be empty
+        AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+        return __ -> {
+            for (;;) {
+                long now = System.nanoTime();
+                long arrival = theoreticalArrival.get();
+                long next = (((arrival - now) > 0) ? arrival : now) + intervalNanos;
+                if ((next - now) > burstNanos) {
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, next)) {
+                    return true;
+                }
+            }
+        };
+    }
+
+    /**
+     * Return a sampler that has a separate sampler for each logging level
+     *
+     * @param samplerFactory creates the sampler for each level
+     * @return sampler
+     */
+    public static Sampler perLevel(Supplier<Sampler> samplerFactory) {
+        LoggingLevel[] levels = LoggingLevel.values();
+        Sampler[] samplers = new Sampler[levels.length];
+        for (LoggingLevel level : levels) {
+            samplers[level.ordinal()] = samplerFactory.get();
+        }
+        return loggingLevel -> samplers[loggingLevel.ordinal()].sample(loggingLevel);
+    }
+
+    /**
+     * Return a sampler that has a separate sampler for each value of the given schema field. The statement is evaluated
+     * but rejected events are not formatted. At most 10,000 values are tracked - samplers are reset when this is exceeded.
+     *
+     * @param fieldName schema field (i.e. the schema method name)
+     * @param samplerFactory creates the sampler for each value
+     * @return sampler
+     */
+    public static Sampler keyed(String fieldName, Supplier<Sampler> samplerFactory) {
+        Objects.requireNonNull(fieldName, "fieldName cannot be null");
+        Map<Object, Sampler> samplers = new ConcurrentHashMap<>();
+        return new Sampler() {
+            @Override
+            public boolean sample(LoggingLevel loggingLevel) {
+                return true;
+            }
+
+            @Override
+            public boolean sample(LoggingLevel loggingLevel, NamesValues namesValues) {
+                for (int i = 0; i < namesValues.qty(); ++i) {
+                    if (fieldName.equals(namesValues.nthName(i))) {
+                        Object value = namesValues.nthValue(i);
+                        Object key = (value != null) ? value : NULL_KEY;
+                        Sampler sampler = samplers.get(key);
+                        if (sampler == null) {
+                            if (samplers.size() >= MAX_KEYS) {
+                                samplers.clear();
+                            }
+                            sampler = samplers.computeIfAbsent(key, __ -> samplerFactory.get());
+                        }
+                        return sampler.sample(loggingLevel);
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public boolean needsValues() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Return the sampler for the schema's {@link Sampled} and/or {@link RateLimited} annotations. The same
+     * sampler is returned for each call with the same schema.
+     *
+     * @param schemaClass logging schema
+     * @return sampler or {@code null} if the schema isn't annotated
+     */
+    public static Sampler forSchema(Class<?> schemaClass) {
+        Sampler sampler = schemaSamplers.computeIfAbsent(schemaClass, Samplers::buildForSchema);
+        return (sampler != NONE) ? sampler : null;
+    }
+
+    private static Sampler buildForSchema(Class<?> schemaClass) {
+        Sampler sampler = NONE;
+        Sampled sampled = schemaClass.getAnnotation(Sampled.class);
+        if (sampled != null) {
+            sampler = perLevel(() -> ratio(sampled.oneIn()));
+        }
+        RateLimited rateLimited = schemaClass.getAnnotation(RateLimited.class);
+        if (rateLimited != null) {
+            Sampler rateLimit = perLevel(() -> rateLimit(rateLimited.perSecond()));
+            sampler = (sampler != NONE) ? sampler.and(rateLimit) : rateLimit;
+        }
+        return sampler;
+    }
+
+    private Samplers() {
+    }
+}
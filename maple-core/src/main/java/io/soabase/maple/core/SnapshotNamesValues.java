@@ -0,0 +1,236 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+import io.soabase.maple.api.NameValue;
+import io.soabase.maple.api.Names;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.PrimitiveNamesValues;
+import io.soabase.maple.api.Specialization;
+import io.soabase.maple.api.ValueType;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * A reusable copy of a {@link NamesValues}. Values are resolved when captured (i.e. specializations
+ * such as MDC defaults are read on the capturing thread) and primitives are copied without boxing.
+ * {@link #captureDeferred(NamesValues)} copies values set via suppliers without calling the supplier.
+ * The arrays grow as needed and are reused between captures.
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+public class SnapshotNamesValues implements PrimitiveNamesValues {
+    private static final String[] EMPTY_STRINGS = {};
+    private static final Set<Specialization>[] EMPTY_SPECIALIZATIONS = newSpecializations(0);
+    private static final Object[] EMPTY_VALUES = {};
+    private static final long[] EMPTY_PRIMITIVES = {};
+    private static final ValueType[] EMPTY_VALUE_TYPES = {};
+
+    private Names schemaNames;
+    private int qty;
+    private String[] names = EMPTY_STRINGS;
+    private String[] rawNames = EMPTY_STRINGS;
+    private Set<Specialization>[] specializations = EMPTY_SPECIALIZATIONS;
+    private Object[] values = EMPTY_VALUES;
+    private long[] primitives = EMPTY_PRIMITIVES;
+    private ValueType[] valueTypes = EMPTY_VALUE_TYPES;
+
+    /**
+     * Replace the contents of this snapshot with the current values of the given names/values
+     *
+     * @param namesValues source
+     */
+    public void capture(NamesValues namesValues) {
+        capture(namesValues, false);
+    }
+
+    /**
+     * Same as {@link #capture(NamesValues)} except that values set via a {@link java.util.function.Supplier},
+     * {@link java.util.function.IntSupplier} or {@link java.util.function.LongSupplier} are copied without
+     * calling the supplier. The supplier is called the first time the value is read from the snapshot, on the reading thread.
+     *
+     * @param namesValues source
+     */
+    public void captureDeferred(NamesValues namesValues) {
+        capture(namesValues, true);
+    }
+
+    private void capture(NamesValues namesValues, boolean keepDeferred) {
+        clear();
+        int qty = namesValues.qty();
+        schemaNames = namesValues.schemaNames();
+        ensureCapacity(qty);
+        PrimitiveNamesValues primitiveNamesValues = (namesValues instanceof PrimitiveNamesValues) ? (PrimitiveNamesValues) namesValues : null;
+        NamesValuesImp instanceValues = keepDeferred ? ArgumentSlots.instanceValues(namesValues) : null;
+        for (int i = 0; i < qty; ++i) {
+            if (schemaNames == null) {
+                names[i] = namesValues.nthName(i);
+                rawNames[i] = namesValues.nthRawName(i);
+                specializations[i] = namesValues.nthSpecializations(i);
+            }
+            ValueType valueType = (primitiveNamesValues != null) ? primitiveNamesValues.nthValueType(i) : ValueType.OBJECT;
+            valueTypes[i] = valueType;
+            // MDC defaults replace null values so those must be resolved now
+            DeferredValue deferredValue = (instanceValues != null) ? instanceValues.nthDeferredValue(i) : null;
+            if ((deferredValue != null) && !namesValues.nthHasSpecialization(i, Specialization.DEFAULT_FROM_MDC)) {
+                values[i] = deferredValue;
+                continue;
+            }
+            switch (valueType) {
+                case INT:
+                case LONG:
+                    primitives[i] = primitiveNamesValues.nthLong(i);
+                    break;
+
+                case FLOAT:
+                case DOUBLE:
+                    primitives[i] = Double.doubleToRawLongBits(primitiveNamesValues.nthDouble(i));
+                    break;
+
+                case BOOLEAN:
+                    primitives[i] = primitiveNamesValues.nthBoolean(i) ? 1 : 0;
+                    break;
+
+                default:
+                    values[i] = namesValues.nthValue(i);
+                    break;
+            }
+        }
+        this.qty = qty;
+    }
+
+    /**
+     * Release references held by this snapshot
+     */
+    public void clear() {
+        Arrays.fill(values, 0, qty, null);
+        if (schemaNames == null) {
+            Arrays.fill(names, 0, qty, null);
+            Arrays.fill(rawNames, 0, qty, null);
+            Arrays.fill(specializations, 0, qty, null);
+        }
+        schemaNames = null;
+        qty = 0;
+    }
+
+    @Override
+    public int qty() {
+        return qty;
+    }
+
+    @Override
+    public String nthName(int n) {
+        return (schemaNames != null) ? schemaNames.nthName(n) : names[n];
+    }
+
+    @Override
+    public String nthRawName(int n) {
+        return (schemaNames != null) ? schemaNames.nthRawName(n) : rawNames[n];
+    }
+
+    @Override
+    public Object nthValue(int n) {
+        Object value = values[n];
+        if (value instanceof DeferredValue) {
+            return ((DeferredValue) value).value();
+        }
+        switch (valueTypes[n]) {
+            case INT:
+                return (int) primitives[n];
+
+            case LONG:
+                return primitives[n];
+
+            case FLOAT:
+                return (float) nthDouble(n);
+
+            case DOUBLE:
+                return nthDouble(n);
+
+            case BOOLEAN:
+                return nthBoolean(n);
+
+            default:
+                return value;
+        }
+    }
+
+    @Override
+    public ValueType nthValueType(int n) {
+        return valueTypes[n];
+    }
+
+    @Override
+    public long nthLong(int n) {
+        Object value = values[n];
+        return (value instanceof DeferredValue) ? ((DeferredValue) value).longValue() : primitives[n];
+    }
+
+    @Override
+    public double nthDouble(int n) {
+        return Double.longBitsToDouble(primitives[n]);
+    }
+
+    @Override
+    public boolean nthBoolean(int n) {
+        return primitives[n] != 0;
+    }
+
+    @Override
+    public Set<Specialization> nthSpecializations(int n) {
+        return (schemaNames != null) ? schemaNames.nthSpecializations(n) : specializations[n];
+    }
+
+    @Override
+    public boolean nthHasSpecialization(int n, Specialization specialization) {
+        return (schemaNames != null) ? schemaNames.nthHasSpecialization(n, specialization) : specializations[n].contains(specialization);
+    }
+
+    @Override
+    public boolean hasSpecialization(Specialization specialization) {
+        return (schemaNames != null) ? schemaNames.hasSpecialization(specialization) : PrimitiveNamesValues.super.hasSpecialization(specialization);
+    }
+
+    @Override
+    public Stream<NameValue> stream() {
+        return NamesValuesImp.newStream(this);
+    }
+
+    @Override
+    public Names schemaNames() {
+        return schemaNames;
+    }
+
+    private void ensureCapacity(int qty) {
+        if (values.length < qty) {
+            values = new Object[qty];
+            primitives = new long[qty];
+            valueTypes = new ValueType[qty];
+        }
+        // names are only copied when there are no schema names
+        if ((schemaNames == null) && (names.length < qty)) {
+            names = new String[qty];
+            rawNames = new String[qty];
+            specializations = newSpecializations(qty);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Specialization>[] newSpecializations(int qty) {
+        return new Set[qty];
+    }
+}
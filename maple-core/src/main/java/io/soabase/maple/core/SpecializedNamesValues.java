@@ -18,7 +18,9 @@ package io.soabase.maple.core;
 import io.soabase.maple.api.NameValue;
 import io.soabase.maple.api.Names;
 import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.PrimitiveNamesValues;
 import io.soabase.maple.api.Specialization;
+import io.soabase.maple.api.ValueType;
 
 import java.util.Set;
 import java.util.function.IntFunction;
@@ -26,13 +28,60 @@ import java.util.stream.Stream;
 
 import static io.soabase.maple.core.NamesValuesImp.newStream;
 
-public class SpecializedNamesValues implements NamesValues {
-    private final Names names;
-    private final IntFunction<Object> valueProc;
+@SuppressWarnings("PMD.UselessParentheses")
+public class SpecializedNamesValues implements PrimitiveNamesValues {
+    private Names names;                            // reset for recyclable instances
+    private final IntFunction<Object> valueProc;    // null for recyclable instances
+    private final Specializer specializer;          // null unless recyclable
+    private boolean inUse;
+
+    /**
+     * Returns the specialized value of the nth field of the wrapped names/values
+     */
+    @FunctionalInterface
+    public interface Specializer {
+        Object value(NamesValues namesValues, int n);
+    }
 
     public SpecializedNamesValues(Names names, IntFunction<Object> valueProc) {
         this.names = names;
         this.valueProc = valueProc;
+        this.specializer = null;
+    }
+
+    /**
+     * A recyclable instance (e.g. per thread) - see {@link #acquire(NamesValues)} and {@link #release()}
+     *
+     * @param specializer value proc - receives the currently wrapped names/values
+     */
+    public SpecializedNamesValues(Specializer specializer) {
+        this.names = null;
+        this.valueProc = null;
+        this.specializer = specializer;
+    }
+
+    /**
+     * Wrap the given names/values with this recyclable instance. The instance can only be used until {@link #release()}
+     * is called.
+     *
+     * @param namesValues names/values to wrap
+     * @return this or {@code null} if this instance is already in use (e.g. a nested logging call while formatting)
+     */
+    public SpecializedNamesValues acquire(NamesValues namesValues) {
+        if (inUse) {
+            return null;
+        }
+        inUse = true;
+        names = namesValues;
+        return this;
+    }
+
+    /**
+     * Release a recyclable instance that was returned by {@link #acquire(NamesValues)}
+     */
+    public void release() {
+        names = null;
+        inUse = false;
     }
 
     @Override
@@ -52,7 +101,28 @@ public class SpecializedNamesValues implements NamesValues {
 
     @Override
     public Object nthValue(int n) {
-        return valueProc.apply(n);
+        return (specializer != null) ? specializer.value((NamesValues) names, n) : valueProc.apply(n);
+    }
+
+    @Override
+    public ValueType nthValueType(int n) {
+        // specialized values only replace unset values which are always OBJECT
+        return (names instanceof PrimitiveNamesValues) ? ((PrimitiveNamesValues) names).nthValueType(n) : ValueType.OBJECT;
+    }
+
+    @Override
+    public long nthLong(int n) {
+        return ((PrimitiveNamesValues) names).nthLong(n);
+    }
+
+    @Override
+    public double nthDouble(int n) {
+        return ((PrimitiveNamesValues) names).nthDouble(n);
+    }
+
+    @Override
+    public boolean nthBoolean(int n) {
+        return ((PrimitiveNamesValues) names).nthBoolean(n);
     }
 
     @Override
@@ -60,8 +130,27 @@ public class SpecializedNamesValues implements NamesValues {
         return names.nthSpecializations(n);
     }
 
+    @Override
+    public boolean nthHasSpecialization(int n, Specialization specialization) {
+        return names.nthHasSpecialization(n, specialization);
+    }
+
+    @Override
+    public boolean hasSpecialization(Specialization specialization) {
+        return names.hasSpecialization(specialization);
+    }
+
     @Override
     public Stream<NameValue> stream() {
         return newStream(this);
     }
+
+    Names wrapped() {
+        return names;
+    }
+
+    @Override
+    public Names schemaNames() {
+        return (names instanceof NamesValues) ? ((NamesValues) names).schemaNames() : names;
+    }
 }
@@ -19,22 +19,112 @@ import io.soabase.maple.api.*;
 import io.soabase.maple.spi.MapleSpi;
 import io.soabase.maple.spi.MetaInstance;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 
+@SuppressWarnings("PMD.UselessParentheses")
 public class StandardMapleLogger<T, LOGGER> implements MapleLoggerBase<T> {
+    private static final LoggingLevel[] levels = LoggingLevel.values();
+
     private final MetaInstance<T> metaInstance;
     private final LOGGER logger;
-    private final BiFunction<LoggingLevel, LOGGER, LevelLogger> levelLoggerProc;
+    private final String loggerName;
+    private final BiPredicate<LoggingLevel, LOGGER> isEnabledProc;
     private final BiFunction<LoggingLevel, LOGGER, String> isEnabledLoggerNameProc;
+    private final LevelLogger[] levelLoggers;   // indexed by LoggingLevel ordinal
+    private final Sampler sampler;              // null if not sampled
+    private final MetaInstance<T> consumeMetaInstance;
+    private final LongAdder suppressed = new LongAdder();
+    private final AtomicLong nextSummaryNanos;
+    private final long summaryIntervalNanos;
+    private volatile LoggingLevel suppressedLevel;  // level of the most recently suppressed statement
+
+    /**
+     * @param metaInstance meta instance
+     * @param logger the underlying logger
+     * @param loggerName the underlying logger's name
+     * @param isEnabledProc returns true if the given level is enabled for the logger - called for each log statement
+     * @param levelLoggerProc returns the logger proxy for the given level - called once per level at construction
+     */
+    public StandardMapleLogger(MetaInstance<T> metaInstance,
+                               LOGGER logger,
+                               String loggerName,
+                               BiPredicate<LoggingLevel, LOGGER> isEnabledProc,
+                               BiFunction<LoggingLevel, LOGGER, LevelLogger> levelLoggerProc) {
+        this(metaInstance, logger, loggerName, isEnabledProc, null, levelLoggerProc, null);
+    }
+
+    /**
+     * @param metaInstance meta instance
+     * @param logger the underlying logger
+     * @param loggerName the underlying logger's name
+     * @param isEnabledProc returns true if the given level is enabled for the logger - called for each log statement
+     * @param levelLoggerProc returns the logger proxy for the given level - called once per level at construction
+     * @param sampler sampler or {@code null}
+     */
+    public StandardMapleLogger(MetaInstance<T> metaInstance,
+                               LOGGER logger,
+                               String loggerName,
+                               BiPredicate<LoggingLevel, LOGGER> isEnabledProc,
+                               BiFunction<LoggingLevel, LOGGER, LevelLogger> levelLoggerProc,
+                               Sampler sampler) {
+        this(metaInstance, logger, loggerName, isEnabledProc, null, levelLoggerProc, sampler);
+    }
 
+    /**
+     * @param metaInstance meta instance
+     * @param logger the underlying logger
+     * @param isEnabledLoggerNameProc returns the logger name if the given level is enabled or {@code null} - called for each log statement
+     * @param levelLoggerProc returns the logger proxy for the given level - called once per level at construction
+     */
     public StandardMapleLogger(MetaInstance<T> metaInstance,
                                LOGGER logger,
                                BiFunction<LoggingLevel, LOGGER, String> isEnabledLoggerNameProc,
                                BiFunction<LoggingLevel, LOGGER, LevelLogger> levelLoggerProc) {
+        this(metaInstance, logger, null, null, isEnabledLoggerNameProc, levelLoggerProc, null);
+    }
+
+    /**
+     * @param metaInstance meta instance
+     * @param logger the underlying logger
+     * @param isEnabledLoggerNameProc returns the logger name if the given level is enabled or {@code null} - called for each log statement
+     * @param levelLoggerProc returns the logger proxy for the given level - called once per level at construction
+     * @param sampler sampler or {@code null}
+     */
+    public StandardMapleLogger(MetaInstance<T> metaInstance,
+                               LOGGER logger,
+                               BiFunction<LoggingLevel, LOGGER, String> isEnabledLoggerNameProc,
+                               BiFunction<LoggingLevel, LOGGER, LevelLogger> levelLoggerProc,
+                               Sampler sampler) {
+        this(metaInstance, logger, null, null, isEnabledLoggerNameProc, levelLoggerProc, sampler);
+    }
+
+    private StandardMapleLogger(MetaInstance<T> metaInstance,
+                                LOGGER logger,
+                                String loggerName,
+                                BiPredicate<LoggingLevel, LOGGER> isEnabledProc,
+                                BiFunction<LoggingLevel, LOGGER, String> isEnabledLoggerNameProc,
+                                BiFunction<LoggingLevel, LOGGER, LevelLogger> levelLoggerProc,
+                                Sampler sampler) {
         this.metaInstance = metaInstance;
         this.logger = logger;
+        this.loggerName = loggerName;
+        this.isEnabledProc = isEnabledProc;
         this.isEnabledLoggerNameProc = isEnabledLoggerNameProc;
-        this.levelLoggerProc = levelLoggerProc;
+        levelLoggers = new LevelLogger[levels.length];
+        for (LoggingLevel level : levels) {
+            levelLoggers[level.ordinal()] = levelLoggerProc.apply(level, logger);
+        }
+        this.sampler = sampler;
+        consumeMetaInstance = sampler != null && sampler.needsValues() ? sampledMetaInstance(metaInstance, sampler) : metaInstance;
+        summaryIntervalNanos = (sampler != null) ? sampler.summaryInterval().toNanos() : 0;
+        nextSummaryNanos = new AtomicLong(System.nanoTime() + summaryIntervalNanos);
+        if (sampler != null) {
+            // otherwise the suppressed count of a burst that is followed by silence would never be logged
+            SummaryFlusher.register(this, StandardMapleLogger::flushSuppressed);
+        }
     }
 
     public LOGGER logger() {
@@ -43,20 +133,88 @@ public class StandardMapleLogger<T, LOGGER> implements MapleLoggerBase<T> {
 
     @Override
     public void consume(LoggingLevel loggingLevel, String mainMessage, Throwable t, Statement<T> statement) {
-        String loggerName = isEnabledLoggerNameProc.apply(loggingLevel, logger);
-        if (loggerName != null) {
-            MapleSpi.instance().consume(levelLoggerProc.apply(loggingLevel, logger), loggingLevel, loggerName, mainMessage, t, statement, metaInstance);
+        String loggerName = enabledLoggerName(loggingLevel);
+        if (loggerName == null) {
+            return;
         }
+        if (sampler != null) {
+            reportSuppressed(loggingLevel, loggerName, System.nanoTime());
+            if (!sampler.sample(loggingLevel)) {
+                suppress(loggingLevel);
+                return;
+            }
+        }
+        MapleSpi.instance().consume(levelLoggers[loggingLevel.ordinal()], loggingLevel, loggerName, mainMessage, t, statement, consumeMetaInstance);
     }
 
     @Override
     public MdcCloseable mdc(Statement<T> statement) {
-        NamesValues namesValues = statement.toNamesValues(getMetaInstance());
-        namesValues.stream().forEach(nameValue -> MapleSpi.instance().putMdcValue(nameValue.name(), String.valueOf(nameValue.value())));
-        return () -> namesValues.stream().forEach(nameValue -> MapleSpi.instance().removeMdcValue(nameValue.name()));
+        // the values are copied into the MDC so the schema instance can always be recycled
+        T instance = metaInstance.acquireSchemaInstance();
+        try {
+            statement.handle(instance);
+            return RestoringMdcCloseable.put(MapleSpi.instance(), metaInstance.toNamesValues(instance));
+        } finally {
+            metaInstance.releaseSchemaInstance(instance);
+        }
     }
 
     public MetaInstance<T> getMetaInstance() {
         return metaInstance;
     }
+
+    /**
+     * @return sampler or {@code null}
+     */
+    public Sampler getSampler() {
+        return sampler;
+    }
+
+    private MetaInstance<T> sampledMetaInstance(MetaInstance<T> metaInstance, Sampler sampler) {
+        MapleFormatter formatter = metaInstance.formatter();
+        return new DecoratedMetaInstance<>(metaInstance, (logger, loggingLevel, loggerName, namesValues, mainMessage, t) -> {
+            if (sampler.sample(loggingLevel, namesValues)) {
+                formatter.apply(logger, loggingLevel, loggerName, namesValues, mainMessage, t);
+            } else {
+                suppress(loggingLevel);
+            }
+        });
+    }
+
+    // returns null if the level is not enabled
+    private String enabledLoggerName(LoggingLevel loggingLevel) {
+        if (isEnabledProc != null) {
+            return isEnabledProc.test(loggingLevel, logger) ? loggerName : null;
+        }
+        return isEnabledLoggerNameProc.apply(loggingLevel, logger);
+    }
+
+    private void suppress(LoggingLevel loggingLevel) {
+        suppressed.increment();
+        if (suppressedLevel != loggingLevel) {
+            suppressedLevel = loggingLevel;
+        }
+    }
+
+    // called by the SummaryFlusher - logs the summary with the level of the most recently suppressed statement
+    private void flushSuppressed(long now) {
+        LoggingLevel loggingLevel = suppressedLevel;
+        if (loggingLevel != null) {
+            String loggerName = enabledLoggerName(loggingLevel);
+            if (loggerName != null) {
+                reportSuppressed(loggingLevel, loggerName, now);
+            }
+        }
+    }
+
+    // the summary is logged with the level of whichever enabled statement notices that the interval has elapsed
+    private void reportSuppressed(LoggingLevel loggingLevel, String loggerName, long now) {
+        long next = nextSummaryNanos.get();
+        if (((now - next) >= 0) && nextSummaryNanos.compareAndSet(next, now + summaryIntervalNanos)) {
+            long count = suppressed.sumThenReset();
+            if (count > 0) {
+                metaInstance.formatter().apply(levelLoggers[loggingLevel.ordinal()], loggingLevel, loggerName, new SuppressedNamesValues(count), SuppressedNamesValues.SUMMARY_MESSAGE, null);
+            }
+        }
+    }
 }
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free counter striped by thread so that counting doesn't contend across cores. Each stripe
+ * is on its own cache line.
+ */
+final class StripedCounter {
+    private static final int PADDING = 16;  // longs - i.e. 128 bytes between stripes
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    StripedCounter() {
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+        cells = new AtomicLongArray(stripes * PADDING);
+        mask = stripes - 1;
+    }
+
+    /**
+     * Increment the calling thread's stripe
+     *
+     * @return the stripe's new count
+     */
+    long incrementAndGet() {
+        long id = Thread.currentThread().getId();
+        int stripe = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        return cells.incrementAndGet(stripe * PADDING);
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Periodically logs pending summaries (suppressed counts, collapsed duplicates) so that they are reported
+ * even if nothing else is logged after a burst. Owners are held weakly - a registration ends when its owner
+ * is garbage collected. A single daemon thread is started on the first registration.
+ */
+final class SummaryFlusher {
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private static final Queue<Registration<?>> registrations = new ConcurrentLinkedQueue<>();
+    private static volatile boolean started;
+
+    /**
+     * Call {@code flushProc} with the owner and the current {@link System#nanoTime()} on each tick
+     *
+     * @param owner owner of the summaries
+     * @param flushProc logs the owner's expired summaries - must not strongly reference the owner
+     */
+    static <T> void register(T owner, ObjLongConsumer<T> flushProc) {
+        registrations.add(new Registration<>(owner, flushProc));
+        if (!started) {
+            start();
+        }
+    }
+
+    private static synchronized void start() {
+        if (!started) {
+            Thread thread = new Thread(SummaryFlusher::flushPeriodically, "maple-summary-flusher");
+            thread.setDaemon(true);
+            thread.start();
+            started = true;
+        }
+    }
+
+    private static void flushPeriodically() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(TICK_NANOS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long now = System.nanoTime();
+            Iterator<Registration<?>> iterator = registrations.iterator();
+            while (iterator.hasNext()) {
+                if (!iterator.next().flush(now)) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private static class Registration<T> {
+        private final WeakReference<T> owner;
+        private final ObjLongConsumer<T> flushProc;
+
+        private Registration(T owner, ObjLongConsumer<T> flushProc) {
+            this.owner = new WeakReference<>(owner);
+            this.flushProc = flushProc;
+        }
+
+        // returns false once the owner has been collected
+        private boolean flush(long now) {
+            T owner = this.owner.get();
+            if (owner == null) {
+                return false;
+            }
+            try {
+                flushProc.accept(owner, now);
+            } catch (RuntimeException e) {
+                System.err.println("Maple summary flusher failed to log a summary");
+                e.printStackTrace();
+            }
+            return true;
+        }
+    }
+
+    private SummaryFlusher() {
+    }
+}
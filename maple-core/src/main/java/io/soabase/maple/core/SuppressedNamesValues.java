@@ -0,0 +1,68 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.core;
+
+import io.soabase.maple.api.NameValue;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.Specialization;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Values of the summary event logged for events rejected by a {@link io.soabase.maple.api.Sampler}
+ */
+class SuppressedNamesValues implements NamesValues {
+    static final String SUMMARY_MESSAGE = "sampled events suppressed";
+    static final String SUPPRESSED_NAME = "suppressed";
+
+    private final long suppressed;
+
+    SuppressedNamesValues(long suppressed) {
+        this.suppressed = suppressed;
+    }
+
+    @Override
+    public int qty() {
+        return 1;
+    }
+
+    @Override
+    public String nthName(int n) {
+        return SUPPRESSED_NAME;
+    }
+
+    @Override
+    public String nthRawName(int n) {
+        return SUPPRESSED_NAME;
+    }
+
+    @Override
+    public Set<Specialization> nthSpecializations(int n) {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Object nthValue(int n) {
+        return suppressed;
+    }
+
+    @Override
+    public Stream<NameValue> stream() {
+        return NamesValuesImp.newStream(this);
+    }
+}
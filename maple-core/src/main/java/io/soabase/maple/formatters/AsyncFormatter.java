@@ -0,0 +1,348 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.formatters;
+
+import io.soabase.maple.api.LevelLogger;
+import io.soabase.maple.api.LoggingLevel;
+import io.soabase.maple.api.MapleFormatter;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.core.RingBuffer;
+import io.soabase.maple.core.SnapshotNamesValues;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Moves formatting and the call to the underlying logger off of the logging thread. The logging thread
+ * copies the schema's names/values into a preallocated slot of a lock-free ring buffer and a single
+ * background thread formats the slot with the wrapped formatter.
+ * </p>
+ *
+ * <p>
+ * Schema values (including MDC defaults, deferred values and required value checks) are resolved on the logging thread
+ * when they are copied - i.e. deferred values are resolved even for events that are later dropped by {@link BackpressurePolicy#DROP_OLDEST}.
+ * However, anything the underlying logger itself reads from the current thread (e.g. MDC values in
+ * a logback pattern, caller data) will be read from the background thread.
+ * </p>
+ *
+ * <p>
+ * Call {@link #close()} to drain and stop the background thread. A shutdown hook also
+ * closes the formatter when the JVM exits. Once closed, events are formatted on the logging thread.
+ * </p>
+ *
+ * <p>
+ * Events whose formatting throws are reported to {@code System.err} and counted (see {@link #getFailedCount()}).
+ * If formatting throws an {@link Error} the background thread formats the events still in the ring buffer and stops.
+ * Subsequent events are formatted on the logging thread.
+ * </p>
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+public class AsyncFormatter implements MapleFormatter, Closeable {
+    private final MapleFormatter formatter;
+    private final WaitStrategy waitStrategy;
+    private final BackpressurePolicy backpressurePolicy;
+    private final RingBuffer<Event> ringBuffer;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Thread consumer;
+    private final Thread shutdownHook;
+    private volatile boolean running = true;
+
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    public enum WaitStrategy {
+        BUSY_SPIN,  // lowest latency - burns a CPU while waiting
+        YIELD,      // Thread.yield() while waiting
+        PARK        // briefly park while waiting - lowest CPU usage
+    }
+
+    public enum BackpressurePolicy {
+        BLOCK,              // when full, the logging thread waits for a free slot
+        DROP_BELOW_WARN,    // when full, INFO/DEBUG/TRACE events are dropped - WARN/ERROR events wait for a free slot
+        DROP_OLDEST         // when full, the oldest unformatted event is dropped to make room
+    }
+
+    private static class Event {
+        private SnapshotNamesValues namesValues = new SnapshotNamesValues();
+        private LevelLogger logger;
+        private LoggingLevel loggingLevel;
+        private String loggerName;
+        private String mainMessage;
+        private Throwable t;
+
+        private void swap(Event rhs) {
+            SnapshotNamesValues namesValues = this.namesValues;
+            this.namesValues = rhs.namesValues;
+            rhs.namesValues = namesValues;
+            LevelLogger logger = this.logger;
+            this.logger = rhs.logger;
+            rhs.logger = logger;
+            LoggingLevel loggingLevel = this.loggingLevel;
+            this.loggingLevel = rhs.loggingLevel;
+            rhs.loggingLevel = loggingLevel;
+            String loggerName = this.loggerName;
+            this.loggerName = rhs.loggerName;
+            rhs.loggerName = loggerName;
+            String mainMessage = this.mainMessage;
+            this.mainMessage = rhs.mainMessage;
+            rhs.mainMessage = mainMessage;
+            Throwable t = this.t;
+            this.t = rhs.t;
+            rhs.t = t;
+        }
+
+        private void clear() {
+            namesValues.clear();
+            logger = null;
+            loggingLevel = null;
+            loggerName = null;
+            mainMessage = null;
+            t = null;
+        }
+    }
+
+    public AsyncFormatter(MapleFormatter formatter) {
+        this(formatter, DEFAULT_CAPACITY, WaitStrategy.PARK, BackpressurePolicy.BLOCK);
+    }
+
+    /**
+     * @param formatter the formatter to apply on the background thread
+     * @param capacity ring buffer size - must be a power of 2
+     * @param waitStrategy how the background thread waits for events and the logging thread waits for free slots
+     * @param backpressurePolicy what to do when the ring buffer is full
+     */
+    public AsyncFormatter(MapleFormatter formatter, int capacity, WaitStrategy waitStrategy, BackpressurePolicy backpressurePolicy) {
+        this.formatter = formatter;
+        this.waitStrategy = waitStrategy;
+        this.backpressurePolicy = backpressurePolicy;
+        ringBuffer = new RingBuffer<>(capacity, Event::new);
+
+        consumer = new Thread(this::consume, "maple-async-formatter");
+        consumer.setDaemon(true);
+        consumer.start();
+
+        shutdownHook = new Thread(this::stop, "maple-async-formatter-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    @Override
+    public void apply(LevelLogger logger, LoggingLevel loggingLevel, String loggerName, NamesValues namesValues, String mainMessage, Throwable t) {
+        long position = claim(loggingLevel);
+        if (position < 0) {
+            if (!running) {
+                formatter.apply(logger, loggingLevel, loggerName, namesValues, mainMessage, t);
+            }
+            return;
+        }
+
+        Event event = ringBuffer.get(position);
+        try {
+            event.namesValues.capture(namesValues);
+            event.logger = logger;
+            event.loggingLevel = loggingLevel;
+            event.loggerName = loggerName;
+            event.mainMessage = mainMessage;
+            event.t = t;
+        } catch (RuntimeException e) {
+            event.clear();  // a null level marks the slot as empty for the consumer
+            throw e;
+        } finally {
+            ringBuffer.publish(position);
+            if (!running) {
+                // closed while publishing - the background thread may have already exited
+                drain(new Event());
+            }
+        }
+    }
+
+    /**
+     * Wait until all events logged before this call have been formatted (or dropped)
+     */
+    public void flush() {
+        long target = ringBuffer.claimed();
+        int iteration = 0;
+        while (completed.get() < target) {
+            if (!consumer.isAlive()) {
+                break;
+            }
+            idle(iteration++);
+        }
+    }
+
+    /**
+     * Drain any pending events and stop the background thread
+     */
+    @Override
+    @SuppressWarnings("PMD.EmptyCatchBlock")
+    public void close() {
+        if (stop()) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException ignore) {
+                // JVM is already shutting down
+            }
+        } else if (!consumer.isAlive()) {
+            // the background thread died - format anything it left behind
+            drain(new Event());
+        }
+    }
+
+    /**
+     * @return the number of events dropped due to the backpressure policy
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the number of events whose formatting threw an exception
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    private long claim(LoggingLevel loggingLevel) {
+        int iteration = 0;
+        for (;;) {
+            if (!running) {
+                return -1;
+            }
+            long position = ringBuffer.tryClaim();
+            if (position >= 0) {
+                return position;
+            }
+            switch (backpressurePolicy) {
+                case DROP_BELOW_WARN: {
+                    if ((loggingLevel != LoggingLevel.WARN) && (loggingLevel != LoggingLevel.ERROR)) {
+                        dropped.incrementAndGet();
+                        return -1;
+                    }
+                    break;
+                }
+
+                case DROP_OLDEST: {
+                    long oldest = ringBuffer.tryTake();
+                    if (oldest >= 0) {
+                        ringBuffer.get(oldest).clear();
+                        ringBuffer.release(oldest);
+                        completed.incrementAndGet();
+                        dropped.incrementAndGet();
+                        continue;
+                    }
+                    break;
+                }
+
+                default: {
+                    break;
+                }
+            }
+            idle(iteration++);
+        }
+    }
+
+    private void consume() {
+        Event current = new Event();
+        int iteration = 0;
+        try {
+            for (;;) {
+                long position = ringBuffer.tryTake();
+                if (position < 0) {
+                    if (!running) {
+                        drain(current);
+                        break;
+                    }
+                    idle(iteration++);
+                    continue;
+                }
+                iteration = 0;
+                format(position, current);
+            }
+        } catch (Error e) {
+            // don't leave logging threads waiting for a consumer that is gone - they format events themselves from now on
+            running = false;
+            try {
+                drain(current);
+            } catch (Error again) {
+                e.addSuppressed(again);
+            }
+            throw e;
+        }
+    }
+
+    private void drain(Event current) {
+        long position;
+        while ((position = ringBuffer.tryTake()) >= 0) {
+            format(position, current);
+        }
+    }
+
+    private void format(long position, Event current) {
+        // move the event out of the ring so that its slot is free while formatting
+        current.swap(ringBuffer.get(position));
+        ringBuffer.release(position);
+        try {
+            if (current.loggingLevel != null) {
+                formatter.apply(current.logger, current.loggingLevel, current.loggerName, current.namesValues, current.mainMessage, current.t);
+            }
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            System.err.println("Maple async formatter failed to format an event");
+            e.printStackTrace();
+        } finally {
+            current.clear();
+            completed.incrementAndGet();
+        }
+    }
+
+    private synchronized boolean stop() {
+        if (!running) {
+            return false;
+        }
+        running = false;
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    private void idle(int iteration) {
+        switch (waitStrategy) {
+            case BUSY_SPIN: {
+                break;
+            }
+
+            case YIELD: {
+                Thread.yield();
+                break;
+            }
+
+            default: {
+                if (iteration < 100) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                }
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,439 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.formatters;
+
+import io.soabase.maple.api.LevelLogger;
+import io.soabase.maple.api.LoggingLevel;
+import io.soabase.maple.api.MapleFormatter;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.StructuredMessage;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>
+ * Writes formatted events directly to a channel (e.g. a file) in batches instead of passing each event to
+ * the underlying logger. Each thread appends its events to its own batch so that logging threads don't contend
+ * with each other. A batch is written with a single channel write when it reaches the batch size and
+ * at least every {@code maxDelay} by a background thread. Combined with {@link AsyncFormatter} all events
+ * are batched by the async consumer thread.
+ * </p>
+ *
+ * <p>
+ * The underlying logger is only used for level checks - its appenders, layout, MDC etc. are bypassed. Events from
+ * different threads are interleaved a batch at a time. Call {@link #flush()} to write all pending batches and
+ * {@link #close()} to stop the background thread. A shutdown hook also closes the formatter when the JVM exits. Once
+ * closed, events are passed to the underlying logger.
+ * </p>
+ *
+ * <p>
+ * A thread's batch starts small and grows as events are added. Once a batch has seen no events between two flushes
+ * its buffers are released, so threads that rarely log (e.g. in a large pool) don't hold batch sized buffers.
+ * </p>
+ *
+ * <p>
+ * A batch that cannot be written (e.g. an {@link IOException} from the channel) is discarded - its stack trace is
+ * printed to {@code System.err} and it is counted in {@link #getFailedCount()}.
+ * </p>
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+public class BatchingFormatter implements MapleFormatter, Flushable, Closeable {
+    private final MapleFormatter formatter;
+    private final WritableByteChannel channel;
+    private final boolean closeChannel;
+    private final Layout layout;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Set<Batch> batches = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<Batch> threadBatch = ThreadLocal.withInitial(this::newBatch);
+    private final Object writeLock = new Object();
+    private final Thread flusher;
+    private final Thread shutdownHook;
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean running = true;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    public static final int DEFAULT_BATCH_SIZE = 64 * 1024;
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofMillis(100);
+
+    /**
+     * Renders the text around each formatted message
+     */
+    public interface Layout {
+        /**
+         * Append the text that precedes the message
+         *
+         * @param sink target
+         * @param loggingLevel the logging level
+         * @param loggerName the logger name
+         */
+        void appendPrefix(StringBuilder sink, LoggingLevel loggingLevel, String loggerName);
+
+        /**
+         * Append the text that follows the message (usually including a line separator)
+         *
+         * @param sink target
+         * @param t the exception or {@code null}
+         */
+        void appendSuffix(StringBuilder sink, Throwable t);
+    }
+
+    /**
+     * "2019-01-01T12:00:00.000Z INFO  logger.name - message" followed by any stack trace
+     */
+    public static final Layout STANDARD_LAYOUT = new Layout() {
+        // the formatted timestamp up to the second - replaced at most once per second
+        private volatile Timestamp timestamp = new Timestamp(Long.MIN_VALUE, "");
+
+        @Override
+        public void appendPrefix(StringBuilder sink, LoggingLevel loggingLevel, String loggerName) {
+            long now = System.currentTimeMillis();
+            long second = Math.floorDiv(now, 1000);
+            Timestamp localTimestamp = timestamp;
+            if (localTimestamp.second != second) {
+                localTimestamp = new Timestamp(second, Instant.ofEpochSecond(second).toString().replace("Z", ""));
+                timestamp = localTimestamp;
+            }
+            int millis = (int) Math.floorMod(now, 1000);
+            sink.append(localTimestamp.formatted).append('.');
+            if (millis < 100) {
+                sink.append('0');
+            }
+            if (millis < 10) {
+                sink.append('0');
+            }
+            sink.append(millis).append("Z ");
+            String level = loggingLevel.name();
+            sink.append(level);
+            for (int i = level.length(); i < 6; ++i) {
+                sink.append(' ');
+            }
+            sink.append(loggerName).append(" - ");
+        }
+
+        @Override
+        public void appendSuffix(StringBuilder sink, Throwable t) {
+            sink.append(System.lineSeparator());
+            if (t != null) {
+                StringWriter stackTrace = new StringWriter();
+                t.printStackTrace(new PrintWriter(stackTrace));
+                sink.append(stackTrace.getBuffer());
+            }
+        }
+    };
+
+    private static class Timestamp {
+        private final long second;
+        private final String formatted;
+
+        private Timestamp(long second, String formatted) {
+            this.second = second;
+            this.formatted = formatted;
+        }
+    }
+
+    /**
+     * Return a batching formatter that appends to the given file using the standard layout, batch size and
+     * max delay. The file is closed when the formatter is closed.
+     *
+     * @param formatter the formatter that formats each message
+     * @param path file to append to
+     * @return batching formatter
+     * @throws IOException errors opening the file
+     */
+    public static BatchingFormatter forFile(MapleFormatter formatter, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new BatchingFormatter(formatter, channel, true, STANDARD_LAYOUT, DEFAULT_BATCH_SIZE, DEFAULT_MAX_DELAY);
+    }
+
+    /**
+     * @param formatter the formatter that formats each message
+     * @param channel where to write batches - the channel is not closed by this formatter
+     * @param layout renders the text around each message
+     * @param batchSize a batch is written when it has at least this many characters
+     * @param maxDelay the maximum time an event waits in a batch before it is written
+     */
+    public BatchingFormatter(MapleFormatter formatter, WritableByteChannel channel, Layout layout, int batchSize, Duration maxDelay) {
+        this(formatter, channel, false, layout, batchSize, maxDelay);
+    }
+
+    private BatchingFormatter(MapleFormatter formatter, WritableByteChannel channel, boolean closeChannel, Layout layout, int batchSize, Duration maxDelay) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        if (maxDelay.isNegative() || maxDelay.isZero()) {
+            throw new IllegalArgumentException("maxDelay must be positive");
+        }
+        this.formatter = formatter;
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+        this.layout = layout;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+
+        flusher = new Thread(this::flushPeriodically, "maple-batching-formatter");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        shutdownHook = new Thread(this::stop, "maple-batching-formatter-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    @Override
+    public void apply(LevelLogger logger, LoggingLevel loggingLevel, String loggerName, NamesValues namesValues, String mainMessage, Throwable t) {
+        if (!running) {
+            formatter.apply(logger, loggingLevel, loggerName, namesValues, mainMessage, t);
+            return;
+        }
+        Batch batch = threadBatch.get();
+        // formatting can log (e.g. a value's toString()) - restore the outer event's level/name afterwards
+        LoggingLevel savedLoggingLevel = batch.loggingLevel;
+        String savedLoggerName = batch.loggerName;
+        batch.loggingLevel = loggingLevel;
+        batch.loggerName = loggerName;
+        try {
+            formatter.apply(batch, loggingLevel, loggerName, namesValues, mainMessage, t);
+        } finally {
+            batch.loggingLevel = savedLoggingLevel;
+            batch.loggerName = savedLoggerName;
+        }
+    }
+
+    /**
+     * @return the number of batches that could not be written
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Write all pending batches
+     */
+    @Override
+    public void flush() {
+        for (Batch batch : batches) {
+            batch.flush();
+            if (!batch.owner.isAlive()) {
+                batches.remove(batch);
+            }
+        }
+    }
+
+    /**
+     * Write all pending batches and stop the background thread
+     */
+    @Override
+    @SuppressWarnings("PMD.EmptyCatchBlock")
+    public void close() {
+        if (stop()) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException ignore) {
+                // JVM is already shutting down
+            }
+        }
+    }
+
+    private class Batch implements LevelLogger {
+        private final Thread owner = Thread.currentThread();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        // guarded by the lock
+        private StringBuilder buffer = new StringBuilder(INITIAL_CAPACITY);
+        private ByteBuffer bytes;   // allocated when first written
+        private boolean active;
+
+        // only accessed by the owning thread
+        private LoggingLevel loggingLevel;
+        private String loggerName;
+        private final StringBuilder nested = new StringBuilder();  // events logged while a structured message is rendered
+        private boolean rendering;
+
+        @Override
+        public void log(String msg, Throwable t) {
+            lock.lock();
+            try {
+                StringBuilder sink = rendering ? nested : buffer;
+                layout.appendPrefix(sink, loggingLevel, loggerName);
+                sink.append(msg);
+                layout.appendSuffix(sink, t);
+                if (!rendering) {
+                    written();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void logStructured(StructuredMessage message, Throwable t) {
+            lock.lock();
+            try {
+                if (rendering) {
+                    log(message.toString(), t);
+                    return;
+                }
+                // rendering can log (e.g. a value's toString()) - those events are appended after this one
+                rendering = true;
+                try {
+                    layout.appendPrefix(buffer, loggingLevel, loggerName);
+                    message.formatTo(buffer);
+                    layout.appendSuffix(buffer, t);
+                    buffer.append(nested);
+                } finally {
+                    rendering = false;
+                    nested.setLength(0);
+                }
+                written();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void flush() {
+            lock.lock();
+            try {
+                write();
+                if (!active) {
+                    // nothing logged since the previous flush - don't hold on to the buffers
+                    release();
+                }
+                active = false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void written() {
+            active = true;
+            // if closed concurrently the final flush may have already happened
+            if ((buffer.length() >= batchSize) || !running) {
+                write();
+            }
+        }
+
+        // must hold the lock
+        private void write() {
+            if (buffer.length() == 0) {
+                return;
+            }
+            try {
+                encode();
+                synchronized (writeLock) {
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                failed.incrementAndGet();
+                System.err.println("Maple batching formatter failed to write a batch");
+                e.printStackTrace();
+            } finally {
+                buffer.setLength(0);
+                if (bytes != null) {
+                    bytes.clear();
+                }
+            }
+        }
+
+        private void release() {
+            if (buffer.capacity() > INITIAL_CAPACITY) {
+                buffer = new StringBuilder(INITIAL_CAPACITY);
+            }
+            bytes = null;
+        }
+
+        private void encode() {
+            if (bytes == null || bytes.capacity() < buffer.length()) {
+                bytes = ByteBuffer.allocate(buffer.length());
+            }
+            CharBuffer chars = CharBuffer.wrap(buffer);
+            encoder.reset();
+            while (encoder.encode(chars, bytes, true).isOverflow()) {
+                grow();
+            }
+            while (encoder.flush(bytes).isOverflow()) {
+                grow();
+            }
+            bytes.flip();
+        }
+
+        private void grow() {
+            ByteBuffer larger = ByteBuffer.allocate(bytes.capacity() * 2);
+            bytes.flip();
+            larger.put(bytes);
+            bytes = larger;
+        }
+    }
+
+    private Batch newBatch() {
+        Batch batch = new Batch();
+        batches.add(batch);
+        return batch;
+    }
+
+    private void flushPeriodically() {
+        while (running) {
+            LockSupport.parkNanos(maxDelayNanos);
+            flush();
+        }
+    }
+
+    private synchronized boolean stop() {
+        if (!running) {
+            return false;
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (closeChannel) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Maple batching formatter could not close channel: " + e);
+            }
+        }
+        return true;
+    }
+}
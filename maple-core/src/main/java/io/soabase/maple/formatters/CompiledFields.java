@@ -0,0 +1,349 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.formatters;
+
+import io.soabase.maple.api.Names;
+import io.soabase.maple.api.PrimitiveNamesValues;
+import io.soabase.maple.api.ValueType;
+import io.soabase.maple.core.ArgumentSlots;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.implementation.Implementation;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.StubMethod;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.soabase.maple.formatters.StandardFormatter.QUOTE;
+import static io.soabase.maple.formatters.StandardFormatter.SPACE;
+import static net.bytebuddy.implementation.MethodCall.invoke;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+
+/**
+ * <p>
+ * Support for {@link StandardFormatter.Option#COMPILED}. A {@link Format} is generated for each schema that calls a field
+ * writer for each field in order - i.e. the field loop is unrolled. Each call passes the field's index, its rendered
+ * name and the formatter's options as constants and the writer is chosen by the field's declared type. Once inlined,
+ * the JIT folds away the branches for disabled options.
+ * </p>
+ *
+ * <p>
+ * Fields without specializations are read directly from the schema instance's argument slots (see {@link ArgumentSlots}).
+ * Specialized fields (e.g. {@link io.soabase.maple.api.Specialization#DEFAULT_FROM_MDC}) and values without slots
+ * (e.g. snapshots) are read via {@link PrimitiveNamesValues}.
+ * </p>
+ *
+ * <p>
+ * Note: this is public so that ByteBuddy generated classes can access it
+ * </p>
+ */
+@SuppressWarnings({"WeakerAccess", "PMD.UselessParentheses"})
+public final class CompiledFields {
+    static final int VALUE_PLAIN = 0;
+    static final int VALUE_ESCAPED = 1;
+    static final int VALUE_ESCAPED_QUOTED_IF_NEEDED = 2;
+
+    private static final Method writeObjectMethod;
+    private static final Method writeLongMethod;
+    private static final Method writeFloatMethod;
+    private static final Method writeDoubleMethod;
+    private static final Method writeBooleanMethod;
+    private static final Method writeSlotObjectMethod;
+    private static final Method writeSlotLongMethod;
+    private static final Method writeSlotFloatMethod;
+    private static final Method writeSlotDoubleMethod;
+    private static final Method writeSlotBooleanMethod;
+
+    static {
+        try {
+            Class<?>[] parameterTypes = {StringBuilder.class, PrimitiveNamesValues.class, Integer.TYPE, Integer.TYPE, char[].class, Boolean.TYPE, Integer.TYPE, Boolean.TYPE};
+            writeObjectMethod = CompiledFields.class.getMethod("writeObject", parameterTypes);
+            writeLongMethod = CompiledFields.class.getMethod("writeLong", parameterTypes);
+            writeFloatMethod = CompiledFields.class.getMethod("writeFloat", parameterTypes);
+            writeDoubleMethod = CompiledFields.class.getMethod("writeDouble", parameterTypes);
+            writeBooleanMethod = CompiledFields.class.getMethod("writeBoolean", parameterTypes);
+
+            Class<?>[] slotParameterTypes = {StringBuilder.class, PrimitiveNamesValues.class, Object[].class, long[].class, Integer.TYPE, Integer.TYPE, char[].class, Boolean.TYPE, Integer.TYPE, Boolean.TYPE};
+            writeSlotObjectMethod = CompiledFields.class.getMethod("writeSlotObject", slotParameterTypes);
+            writeSlotLongMethod = CompiledFields.class.getMethod("writeSlotLong", slotParameterTypes);
+            writeSlotFloatMethod = CompiledFields.class.getMethod("writeSlotFloat", slotParameterTypes);
+            writeSlotDoubleMethod = CompiledFields.class.getMethod("writeSlotDouble", slotParameterTypes);
+            writeSlotBooleanMethod = CompiledFields.class.getMethod("writeSlotBoolean", slotParameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException("Could not find field writer method", e);
+        }
+    }
+
+    /**
+     * Generated per schema
+     */
+    @FunctionalInterface
+    public interface Format {
+        /**
+         * Format the fields
+         *
+         * @param logMessage target
+         * @param values the schema's values
+         * @param arguments the schema instance's argument slots or {@code null} if not available
+         * @param primitives the schema instance's primitive slots or {@code null}
+         * @param start the length of the target before the main message/fields were formatted. Used to determine if a separating space is needed.
+         */
+        void formatTo(StringBuilder logMessage, PrimitiveNamesValues values, Object[] arguments, long[] primitives, int start);
+    }
+
+    static Format compile(Class<?> schemaClass, Names names, StandardFormatter formatter) {
+        Map<String, Method> methods = Stream.of(schemaClass.getMethods())
+                .filter(method -> method.getParameterCount() == 1)
+                .collect(Collectors.toMap(Method::toGenericString, method -> method, (a, b) -> a));
+        int valueFormat;
+        if (formatter.quoteValuesOnlyIfNeeded) {
+            valueFormat = VALUE_ESCAPED_QUOTED_IF_NEEDED;
+        } else if (formatter.escapeValues) {
+            valueFormat = VALUE_ESCAPED;
+        } else {
+            valueFormat = VALUE_PLAIN;
+        }
+
+        Implementation implementation = StubMethod.INSTANCE;
+        for (int i = names.qty() - 1; i >= 0; --i) {
+            Method method = methods.get(names.nthRawName(i));
+            Class<?> type = (method != null) ? method.getParameterTypes()[0] : Object.class;
+            MethodCall call = names.nthSpecializations(i).isEmpty() ? invoke(slotWriterMethod(type)).withArgument(0, 1, 2, 3, 4) : invoke(writerMethod(type)).withArgument(0, 1, 4);
+            implementation = call
+                    .with(i, formatter.renderName(names.nthName(i)), formatter.quoteValues, valueFormat, formatter.skipNullValues)
+                    .andThen(implementation);
+        }
+
+        try {
+            return new ByteBuddy()
+                    .subclass(Format.class)
+                    .method(named("formatTo")).intercept(implementation)
+                    .make()
+                    .load(Format.class.getClassLoader())
+                    .getLoaded()
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (Exception e) {
+            throw new RuntimeException("Could not compile formatter for: " + schemaClass.getName(), e);
+        }
+    }
+
+    public static void writeObject(StringBuilder logMessage, PrimitiveNamesValues values, int start, int index, char[] name, boolean quoteValues, int valueFormat, boolean skipNullValues) {
+        writeValue(logMessage, values.nthValue(index), start, name, quoteValues, valueFormat, skipNullValues);
+    }
+
+    public static void writeSlotObject(StringBuilder logMessage, PrimitiveNamesValues values, Object[] arguments, long[] primitives, int start, int index, char[] name, boolean quoteValues, int valueFormat, boolean skipNullValues) {
+        if (arguments == null) {
+            writeObject(logMessage, values, start, index, name, quoteValues, valueFormat, skipNullValues);
+            return;
+        }
+        writeValue(logMessage, ArgumentSlots.value(arguments[index], primitives, index), start, name, quoteValues, valueFormat, skipNullValues);
+    }
+
+    public static void writeSlotLong(StringBuilder logMessage, PrimitiveNamesValues values, Object[] arguments, long[] primitives, int start, int index, char[] name, boolean quoteValues, int valueFormat, boolean skipNullValues) {
+        if (arguments == null) {
+            writeLong(logMessage, values, start, index, name, quoteValues, valueFormat, skipNullValues);
+            return;
+        }
+        Object argument = arguments[index];
+        if (ArgumentSlots.valueType(argument) == ValueType.OBJECT) {   // not set
+            writeValue(logMessage, argument, start, name, quoteValues, valueFormat, skipNullValues);
+            return;
+        }
+        writeName(logMessage, start, name, quoteValues);
+        logMessage.append(ArgumentSlots.longValue(argument, primitives, index));
+        if (quoteValues) {
+            logMessage.append(QUOTE);
+        }
+    }
+
+    public static void writeSlotFloat(StringBuilder logMessage, PrimitiveNamesValues values, Object[] arguments, long[] primitives, int start, int index, char[] name, boolean quoteValues, int valueFormat, boolean skipNullValues) {
+        if (arguments == null) {
+            writeFloat(logMessage, values, start, index, name, quoteValues, valueFormat, skipNullValues);
+            return;
+        }
+        Object argument = arguments[index];
+        if (ArgumentSlots.valueType(argument) == ValueType.OBJECT) {   // not set
+            writeValue(logMessage, argument, start, name, quoteValues, valueFormat, skipNullValues);
+            return;
+        }
+        writeName(logMessage, start, name, quoteValues);
+        logMessage.append((float) Double.longBitsToDouble(primitives[index]));
+        if (quoteValues) {
+            logMessage.append(QUOTE);
+        }
+    }
+
+    public static void writeSlotDouble(StringBuilder logMessage, PrimitiveNamesValues values, Object[] arguments, long[] primitives, int start, int index, char[] name, boolean quoteValues, int valueFormat, boolean skipNullValues) {
+        if (arguments == null) {
+            writeDouble(logMessage, values, start, index, name, quoteValues, valueFormat, skipNullValues);
+            return;
+        }
+        Object argument = arguments[index];
+        if (ArgumentSlots.valueType(argument) == ValueType.OBJECT) {   // not set
+            writeValue(logMessage, argument, start, name, quoteValues, valueFormat, skipNullValues);
+            return;
+        }
+        writeName(logMessage, start, name, quoteValues);
+        logMessage.append(Double.longBitsToDouble(primitives[index]));
+        if (quoteValues) {
+            logMessage.append(QUOTE);
+        }
+    }
+
+    public static void writeSlotBoolean(StringBuilder logMessage, PrimitiveNamesValues values, Object[] arguments, long[] primitives, int start, int index, char[] name, boolean quoteValues, int valueFormat, boolean skipNullValues) {
+        if (arguments == null) {
+            writeBoolean(logMessage, values, start, index, name, quoteValues, valueFormat, skipNullValues);
+            return;
+        }
+        Object argument = arguments[index];
+        if (ArgumentSlots.valueType(argument) == ValueType.OBJECT) {   // not set
+            writeValue(logMessage, argument, start, name, quoteValues, valueFormat, skipNullValues);
+            return;
+        }
+        writeName(logMessage, start, name, quoteValues);
+        logMessage.append(primitives[index] != 0);
+        if (quoteValues) {
+            logMessage.append(QUOTE);
+        }
+    }
+
+    private static void writeValue(StringBuilder logMessage, Object value, int start, char[] name, boolean quoteValues, int valueFormat, boolean skipNullValues) {
+        if (skipNullValues && (value == null)) {
+            return;
+        }
+        writeName(logMessage, start, name, quoteValues);
+        switch (valueFormat) {
+            case VALUE_ESCAPED: {
+                StandardFormatter.addEscapedValue(logMessage, value, !quoteValues);
+                break;
+            }
+
+            case VALUE_ESCAPED_QUOTED_IF_NEEDED: {
+                StandardFormatter.addEscapedValueQuotedIfNeeded(logMessage, value);
+                break;
+            }
+
+            default: {
+                if (!StandardFormatter.addNumericValue(logMessage, value)) {
+                    logMessage.append(value);
+                }
+                break;
+            }
+        }
+        if (quoteValues) {
+            logMessage.append(QUOTE);
+        }
+    }
+
+    public static void writeLong(StringBuilder logMessage, PrimitiveNamesValues values, int start, int index, char[] name, boolean quoteValues, int valueFormat, boolean skipNullValues) {
+        if (values.nthValueType(index) == ValueType.OBJECT) {   // not set or a specialized value
+            writeObject(logMessage, values, start, index, name, quoteValues, valueFormat, skipNullValues);
+            return;
+        }
+        writeName(logMessage, start, name, quoteValues);
+        logMessage.append(values.nthLong(index));
+        if (quoteValues) {
+            logMessage.append(QUOTE);
+        }
+    }
+
+    public static void writeFloat(StringBuilder logMessage, PrimitiveNamesValues values, int start, int index, char[] name, boolean quoteValues, int valueFormat, boolean skipNullValues) {
+        if (values.nthValueType(index) == ValueType.OBJECT) {   // not set or a specialized value
+            writeObject(logMessage, values, start, index, name, quoteValues, valueFormat, skipNullValues);
+            return;
+        }
+        writeName(logMessage, start, name, quoteValues);
+        logMessage.append((float) values.nthDouble(index));
+        if (quoteValues) {
+            logMessage.append(QUOTE);
+        }
+    }
+
+    public static void writeDouble(StringBuilder logMessage, PrimitiveNamesValues values, int start, int index, char[] name, boolean quoteValues, int valueFormat, boolean skipNullValues) {
+        if (values.nthValueType(index) == ValueType.OBJECT) {   // not set or a specialized value
+            writeObject(logMessage, values, start, index, name, quoteValues, valueFormat, skipNullValues);
+            return;
+        }
+        writeName(logMessage, start, name, quoteValues);
+        logMessage.append(values.nthDouble(index));
+        if (quoteValues) {
+            logMessage.append(QUOTE);
+        }
+    }
+
+    public static void writeBoolean(StringBuilder logMessage, PrimitiveNamesValues values, int start, int index, char[] name, boolean quoteValues, int valueFormat, boolean skipNullValues) {
+        if (values.nthValueType(index) == ValueType.OBJECT) {   // not set or a specialized value
+            writeObject(logMessage, values, start, index, name, quoteValues, valueFormat, skipNullValues);
+            return;
+        }
+        writeName(logMessage, start, name, quoteValues);
+        logMessage.append(values.nthBoolean(index));
+        if (quoteValues) {
+            logMessage.append(QUOTE);
+        }
+    }
+
+    private static void writeName(StringBuilder logMessage, int start, char[] name, boolean quoteValues) {
+        if (logMessage.length() > start) {
+            logMessage.append(SPACE);
+        }
+        logMessage.append(name);
+        if (quoteValues) {
+            logMessage.append(QUOTE);
+        }
+    }
+
+    private static Method slotWriterMethod(Class<?> type) {
+        Method method = writerMethod(type);
+        if (method == writeLongMethod) {
+            return writeSlotLongMethod;
+        }
+        if (method == writeFloatMethod) {
+            return writeSlotFloatMethod;
+        }
+        if (method == writeDoubleMethod) {
+            return writeSlotDoubleMethod;
+        }
+        if (method == writeBooleanMethod) {
+            return writeSlotBooleanMethod;
+        }
+        return writeSlotObjectMethod;
+    }
+
+    private static Method writerMethod(Class<?> type) {
+        if ((type == Byte.TYPE) || (type == Short.TYPE) || (type == Integer.TYPE) || (type == Long.TYPE) || (type == IntSupplier.class) || (type == LongSupplier.class)) {
+            return writeLongMethod;
+        }
+        if (type == Float.TYPE) {
+            return writeFloatMethod;
+        }
+        if (type == Double.TYPE) {
+            return writeDoubleMethod;
+        }
+        if (type == Boolean.TYPE) {
+            return writeBooleanMethod;
+        }
+        return writeObjectMethod;   // note: char values are boxed by the generated schema instance
+    }
+
+    private CompiledFields() {
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.formatters;
+
+import io.soabase.maple.api.MapleFormatter;
+import io.soabase.maple.api.Names;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.PrimitiveNamesValues;
+import io.soabase.maple.core.ArgumentSlots;
+
+import static io.soabase.maple.formatters.StandardFormatter.SPACE;
+
+/**
+ * A {@link StandardFormatter} specialized for a single schema. Values of other schemas (or values without
+ * fixed schema names) are formatted by the standard implementation.
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+class CompiledStandardFormatter extends StandardFormatter {
+    private final Names names;
+    private final CompiledFields.Format format;
+
+    CompiledStandardFormatter(StandardFormatter formatter, Names names, CompiledFields.Format format) {
+        super(formatter);
+        this.names = names;
+        this.format = format;
+    }
+
+    @Override
+    public MapleFormatter specialize(Class<?> schemaClass, Names names) {
+        return this;
+    }
+
+    @Override
+    public void formatTo(StringBuilder logMessage, NamesValues namesValues, String mainMessage) {
+        if ((namesValues.schemaNames() != names) || !(namesValues instanceof PrimitiveNamesValues)) {
+            super.formatTo(logMessage, namesValues, mainMessage);
+            return;
+        }
+
+        int start = logMessage.length();
+        boolean hasMainMessage = !mainMessage.isEmpty();
+        if (hasMainMessage && !mainMessageIsLast) {
+            logMessage.append(mainMessage);
+        }
+        format.formatTo(logMessage, (PrimitiveNamesValues) namesValues, ArgumentSlots.arguments(namesValues), ArgumentSlots.primitives(namesValues), start);
+        if (hasMainMessage && mainMessageIsLast) {
+            if (names.qty() > 0) {
+                logMessage.append(SPACE);
+            }
+            logMessage.append(mainMessage);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.formatters;
+
+import io.soabase.maple.api.LevelLogger;
+import io.soabase.maple.api.LoggingLevel;
+import io.soabase.maple.api.MapleFormatter;
+import io.soabase.maple.api.Names;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.PrimitiveNamesValues;
+import io.soabase.maple.api.StructuredMessage;
+import io.soabase.maple.api.ValueType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+
+import static io.soabase.maple.formatters.StandardFormatter.Option.*;
+
+/**
+ * <p>
+ * Formats the log as a single JSON object. Field names are rendered/escaped once per schema and
+ * values are written directly to the log message (no intermediate trees or Strings). Jackson is not required.
+ * </p>
+ *
+ * <p>
+ * Supports the {@link StandardFormatter.Option}s {@code MAIN_MESSAGE_IS_LAST}, {@code SNAKE_CASE},
+ * {@code SKIP_NULL_VALUES} and {@code STRUCTURED_MESSAGE}. The quoting/escaping options do not apply to JSON and are ignored. The main
+ * message, when provided, is written as a field named {@link #DEFAULT_MAIN_MESSAGE_FIELD} (or the name passed to the constructor). A schema
+ * field with the same name is written with leading underscores (e.g. {@code "_message"}) so that keys are never duplicated. E.g.
+ * </p>
+ *
+ * <pre>
+ * {"message":"the message","first_name":"Hay","age":10}
+ * </pre>
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+public class JsonFormatter implements MapleFormatter {
+    private final boolean mainMessageIsLast;
+    private final boolean snakeCase;
+    private final boolean skipNullValues;
+    private final boolean structuredMessage;
+    private final String mainMessageFieldName;
+    private final char[] mainMessageField;
+    private final RenderedNames renderedNames = new RenderedNames(this::renderName);
+    private final StructuredMessage.Renderer renderer = this::formatTo;
+
+    public static final String DEFAULT_MAIN_MESSAGE_FIELD = "message";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public JsonFormatter(StandardFormatter.Option... options) {
+        this(DEFAULT_MAIN_MESSAGE_FIELD, options);
+    }
+
+    public JsonFormatter(String mainMessageField, StandardFormatter.Option... options) {
+        Collection<StandardFormatter.Option> optionsSet = new HashSet<>(Arrays.asList(options));
+
+        this.mainMessageIsLast = optionsSet.contains(MAIN_MESSAGE_IS_LAST);
+        this.snakeCase = optionsSet.contains(SNAKE_CASE);
+        this.skipNullValues = optionsSet.contains(SKIP_NULL_VALUES);
+        this.structuredMessage = optionsSet.contains(STRUCTURED_MESSAGE);
+        this.mainMessageFieldName = mainMessageField;
+        this.mainMessageField = renderField(mainMessageField);
+    }
+
+    @Override
+    public void apply(LevelLogger logger, LoggingLevel loggingLevel, String loggerName, NamesValues namesValues, String mainMessage, Throwable t) {
+        if (structuredMessage) {
+            StructuredMessage message = new StructuredMessage(renderer, namesValues, mainMessage);
+            logger.logStructured(message, t);
+            message.detach();
+        } else {
+            StringBuilder logMessage = new StringBuilder(StandardFormatter.STRING_BUILDER_CAPACITY);
+            formatTo(logMessage, namesValues, mainMessage);
+            logger.log(logMessage.toString(), t);
+        }
+    }
+
+    /**
+     * Format the names/values and main message as a JSON object into the given builder
+     *
+     * @param logMessage target
+     * @param namesValues name/value pairs
+     * @param mainMessage the main message to output or {@code ""}
+     */
+    public void formatTo(StringBuilder logMessage, NamesValues namesValues, String mainMessage) {
+        logMessage.append('{');
+        boolean needsComma = false;
+        boolean hasMainMessage = !mainMessage.isEmpty();
+        if (hasMainMessage && !mainMessageIsLast) {
+            logMessage.append(mainMessageField);
+            addJsonString(logMessage, mainMessage);
+            needsComma = true;
+        }
+
+        char[][] renderedNames = this.renderedNames.get(namesValues);
+        PrimitiveNamesValues primitiveValues = (namesValues instanceof PrimitiveNamesValues) ? (PrimitiveNamesValues) namesValues : null;
+        for (int i = 0; i < namesValues.qty(); ++i) {
+            ValueType valueType = (primitiveValues != null) ? primitiveValues.nthValueType(i) : ValueType.OBJECT;
+            Object value = (valueType == ValueType.OBJECT) ? namesValues.nthValue(i) : null;
+            if (skipNullValues && (valueType == ValueType.OBJECT) && (value == null)) {
+                continue;
+            }
+            if (needsComma) {
+                logMessage.append(',');
+            } else {
+                needsComma = true;
+            }
+            if (renderedNames != null) {
+                logMessage.append(renderedNames[i]);
+            } else {
+                logMessage.append(renderName(namesValues, i));
+            }
+            if (valueType != ValueType.OBJECT) {
+                addJsonPrimitive(logMessage, primitiveValues, i, valueType);
+            } else {
+                addJsonValue(logMessage, value);
+            }
+        }
+
+        if (hasMainMessage && mainMessageIsLast) {
+            if (needsComma) {
+                logMessage.append(',');
+            }
+            logMessage.append(mainMessageField);
+            addJsonString(logMessage, mainMessage);
+        }
+        logMessage.append('}');
+    }
+
+    /**
+     * Append the value as JSON. Nulls, booleans and finite numbers are written as JSON literals. All other
+     * values are written as JSON strings.
+     *
+     * @param logMessage target
+     * @param value value to append
+     */
+    public static void addJsonValue(StringBuilder logMessage, Object value) {
+        if (value == null) {
+            logMessage.append("null");
+        } else if ((value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+            logMessage.append(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            logMessage.append(((Long) value).longValue());
+        } else if (value instanceof Double) {
+            addJsonDouble(logMessage, (Double) value);
+        } else if (value instanceof Float) {
+            addJsonFloat(logMessage, (Float) value);
+        } else if (value instanceof Boolean) {
+            logMessage.append(((Boolean) value).booleanValue());
+        } else if ((value instanceof BigInteger) || (value instanceof BigDecimal)) {
+            logMessage.append(value);
+        } else {
+            addJsonString(logMessage, (value instanceof CharSequence) ? (CharSequence) value : String.valueOf(value));
+        }
+    }
+
+    /**
+     * Append the value as a quoted and escaped JSON string
+     *
+     * @param logMessage target
+     * @param str value to append
+     */
+    public static void addJsonString(StringBuilder logMessage, CharSequence str) {
+        logMessage.append('"');
+        int length = str.length();
+        int currentStart = 0;
+        for (int i = 0; i < length; ++i) {
+            char c = str.charAt(i);
+            if ((c >= 0x20) && (c != '"') && (c != '\\')) {
+                continue;
+            }
+            logMessage.append(str, currentStart, i);
+            currentStart = i + 1;
+            switch (c) {
+                case '"': {
+                    logMessage.append("\\\"");
+                    break;
+                }
+
+                case '\\': {
+                    logMessage.append("\\\\");
+                    break;
+                }
+
+                case '\n': {
+                    logMessage.append("\\n");
+                    break;
+                }
+
+                case '\r': {
+                    logMessage.append("\\r");
+                    break;
+                }
+
+                case '\t': {
+                    logMessage.append("\\t");
+                    break;
+                }
+
+                default: {
+                    logMessage.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+                    break;
+                }
+            }
+        }
+        logMessage.append(str, currentStart, length).append('"');
+    }
+
+    /**
+     * Append the nth primitive value as JSON without boxing it
+     *
+     * @param logMessage target
+     * @param primitiveValues names/values
+     * @param n index
+     * @param valueType the value's type as returned by {@link PrimitiveNamesValues#nthValueType(int)}
+     */
+    public static void addJsonPrimitive(StringBuilder logMessage, PrimitiveNamesValues primitiveValues, int n, ValueType valueType) {
+        switch (valueType) {
+            case INT:
+            case LONG: {
+                logMessage.append(primitiveValues.nthLong(n));
+                break;
+            }
+
+            case FLOAT: {
+                addJsonFloat(logMessage, (float) primitiveValues.nthDouble(n));
+                break;
+            }
+
+            case DOUBLE: {
+                addJsonDouble(logMessage, primitiveValues.nthDouble(n));
+                break;
+            }
+
+            case BOOLEAN: {
+                logMessage.append(primitiveValues.nthBoolean(n));
+                break;
+            }
+
+            default: {
+                addJsonValue(logMessage, primitiveValues.nthValue(n));
+                break;
+            }
+        }
+    }
+
+    // NaN and infinities are not valid JSON numbers
+    private static void addJsonDouble(StringBuilder logMessage, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            logMessage.append('"').append(value).append('"');
+        } else {
+            logMessage.append(value);
+        }
+    }
+
+    private static void addJsonFloat(StringBuilder logMessage, float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            logMessage.append('"').append(value).append('"');
+        } else {
+            logMessage.append(value);
+        }
+    }
+
+    private char[] renderName(Names names, int n) {
+        String name = formatName(names.nthName(n));
+        if (name.equals(mainMessageFieldName)) {
+            // prefix until the name is unique, e.g. "_message" or "__message" if the schema also has "_message"
+            do {
+                name = "_" + name;
+            } while (isOtherName(names, n, name));
+        }
+        return renderField(name);
+    }
+
+    private boolean isOtherName(Names names, int n, String name) {
+        for (int i = 0; i < names.qty(); ++i) {
+            if ((i != n) && name.equals(formatName(names.nthName(i)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String formatName(String name) {
+        if (snakeCase) {
+            StringBuilder formattedName = new StringBuilder(name.length() + 8);
+            StandardFormatter.toSnakeCase(formattedName, name);
+            return formattedName.toString();
+        }
+        return name;
+    }
+
+    private static char[] renderField(String name) {
+        StringBuilder rendered = new StringBuilder(name.length() + 4);
+        addJsonString(rendered, name);
+        rendered.append(':');
+        char[] chars = new char[rendered.length()];
+        rendered.getChars(0, rendered.length(), chars, 0);
+        return chars;
+    }
+}
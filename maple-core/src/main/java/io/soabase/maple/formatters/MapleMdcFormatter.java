@@ -0,0 +1,46 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.formatters;
+
+import io.soabase.maple.core.MapleMdc;
+
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * A java.util.logging formatter (e.g. for Airlift or maple-jul handlers) that appends the current thread's
+ * {@link MapleMdc} values to each record's message as {@code name=value} pairs. The values are read when the record is
+ * formatted so the handler must format on the logging thread (as the JDK's handlers do).
+ *
+ * <pre>
+ * handler.setFormatter(new MapleMdcFormatter());
+ * </pre>
+ */
+public class MapleMdcFormatter extends SimpleFormatter {
+    @Override
+    public String formatMessage(LogRecord record) {
+        String message = super.formatMessage(record);
+        StringBuilder formatted = new StringBuilder(message.length() + StandardFormatter.STRING_BUILDER_CAPACITY).append(message);
+        MapleMdc.forEach((name, value) -> {
+            if (formatted.length() > 0) {
+                formatted.append(StandardFormatter.SPACE);
+            }
+            formatted.append(name).append('=');
+            StandardFormatter.addEscapedValueQuotedIfNeeded(formatted, value);
+        });
+        return (formatted.length() == message.length()) ? message : formatted.toString();
+    }
+}
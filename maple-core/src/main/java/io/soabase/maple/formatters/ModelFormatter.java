@@ -15,12 +15,26 @@
  */
 package io.soabase.maple.formatters;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
 import com.fasterxml.jackson.databind.node.*;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializer;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.util.ClassUtil;
 import io.soabase.maple.api.*;
 
+import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import static com.fasterxml.jackson.databind.node.JsonNodeType.*;
@@ -64,13 +78,48 @@ import static com.fasterxml.jackson.databind.node.JsonNodeType.*;
  * <pre>
  * code="123" model.name="Joe" model.values.0="one" model.values.1="two" model.values.2="three" model.qty="100"
  * </pre>
+ *
+ * <p>
+ * When constructed with an {@link ObjectMapper} (instead of a {@link NodeMapper}) each argument's class is
+ * introspected once via the mapper's bean serializer and a plan of property accessors (and flattened names) is cached.
+ * Logging then only reads leaf values. Values that the plan can't reproduce exactly (collections, maps, custom
+ * serializers, etc.) are still serialized to a tree.
+ * </p>
  */
-@SuppressWarnings("PMD.UnusedFormalParameter")
+@SuppressWarnings({"PMD.UnusedFormalParameter", "PMD.UselessParentheses"})
 public class ModelFormatter implements MapleFormatter {
     private final MapleFormatter formatter;
     private final NodeMapper mapper;
     private final Map<JsonNodeType, Handler> handlers;
     private final String separator;
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, Plan> plans = new ConcurrentHashMap<>();
+
+    private static final int MAX_PLAN_DEPTH = 100;
+
+    @FunctionalInterface
+    private interface Plan {
+        void apply(String name, Object value, int depth, List<String> appliedNames, List<Object> appliedValues);
+    }
+
+    private static class PlanProperty {
+        private final BeanPropertyWriter writer;
+        private final String name;
+        private final Map<String, String> names = new ConcurrentHashMap<>();
+
+        private PlanProperty(BeanPropertyWriter writer) {
+            this.writer = writer;
+            this.name = writer.getName();
+        }
+
+        private String name(String prefix, String separator) {
+            String qualifiedName = names.get(prefix);
+            if (qualifiedName == null) {
+                qualifiedName = names.computeIfAbsent(prefix, p -> p + separator + name);
+            }
+            return qualifiedName;
+        }
+    }
 
     @FunctionalInterface
     private interface Handler {
@@ -99,8 +148,34 @@ public class ModelFormatter implements MapleFormatter {
     }
 
     public ModelFormatter(NodeMapper mapper, String separator, MapleFormatter formatter) {
+        this(mapper, null, separator, formatter);
+    }
+
+    /**
+     * Use cached accessor plans - see class comment
+     *
+     * @param mapper mapper used to introspect classes (and to serialize values that can't be planned)
+     * @param options options for the {@link StandardFormatter} that will format the flattened values
+     */
+    public ModelFormatter(ObjectMapper mapper, StandardFormatter.Option... options) {
+        this(mapper, ".", new StandardFormatter(options));
+    }
+
+    /**
+     * Use cached accessor plans - see class comment
+     *
+     * @param mapper mapper used to introspect classes (and to serialize values that can't be planned)
+     * @param separator separator for flattened names
+     * @param formatter formatter for the flattened values
+     */
+    public ModelFormatter(ObjectMapper mapper, String separator, MapleFormatter formatter) {
+        this(NodeMapper.forMapper(mapper), mapper, separator, formatter);
+    }
+
+    private ModelFormatter(NodeMapper mapper, ObjectMapper objectMapper, String separator, MapleFormatter formatter) {
         this.formatter = formatter;
         this.mapper = mapper;
+        this.objectMapper = objectMapper;
         this.separator = separator;
 
         Map<JsonNodeType, Handler> map = new HashMap<>();
@@ -120,8 +195,11 @@ public class ModelFormatter implements MapleFormatter {
         for (int i = 0; i < namesValues.qty(); ++i) {
             String schemaName = namesValues.nthName(i);
             Object argument = namesValues.nthValue(i);
-            JsonNode node = mapper.valueToTree(argument);
-            getHandler(node).handle(schemaName, node, appliedNames, appliedValues);
+            if (objectMapper != null) {
+                applyPlan(schemaName, argument, 0, appliedNames, appliedValues);
+            } else {
+                applyTree(schemaName, argument, 0, appliedNames, appliedValues);
+            }
         }
         NamesValues applied = new NamesValues() {
             @Override
@@ -157,6 +235,118 @@ public class ModelFormatter implements MapleFormatter {
         formatter.apply(logger, loggingLevel, loggerName, applied, mainMessage, t);
     }
 
+    private void applyTree(String name, Object value, int depth, List<String> appliedNames, List<Object> appliedValues) {
+        JsonNode node = mapper.valueToTree(value);
+        getHandler(node).handle(name, node, appliedNames, appliedValues);
+    }
+
+    private void applyPlan(String name, Object value, int depth, List<String> appliedNames, List<Object> appliedValues) {
+        if (value == null) {
+            appliedNames.add(name);
+            appliedValues.add(null);
+        } else if (depth > MAX_PLAN_DEPTH) {
+            applyTree(name, value, depth, appliedNames, appliedValues);   // let Jackson deal with (probably) cyclic models
+        } else {
+            Plan plan = plans.get(value.getClass());
+            if (plan == null) {
+                plan = plans.computeIfAbsent(value.getClass(), this::buildPlan);
+            }
+            plan.apply(name, value, depth, appliedNames, appliedValues);
+        }
+    }
+
+    private Plan buildPlan(Class<?> clazz) {
+        JsonSerializer<Object> serializer;
+        try {
+            serializer = objectMapper.getSerializerProviderInstance().findTypedValueSerializer(clazz, true, null);
+        } catch (JsonMappingException e) {
+            return this::applyTree;
+        }
+
+        if (isScalar(clazz)) {
+            return isJacksonSerializer(serializer) ? ModelFormatter::applyScalar : this::applyTree;
+        }
+
+        if (serializer.getClass() != BeanSerializer.class) {
+            return this::applyTree;
+        }
+        BeanSerializer beanSerializer = (BeanSerializer) serializer;
+        SerializationConfig config = objectMapper.getSerializationConfig();
+        BeanDescription beanDescription = config.introspect(config.constructType(clazz));
+        boolean isPlannable = !beanSerializer.usesObjectId()
+                && (config.getActiveView() == null)
+                && (beanDescription.findAnyGetter() == null)
+                && (config.getAnnotationIntrospector().findFilterId(beanDescription.getClassInfo()) == null)
+                && isPlannableInclusion(beanDescription.findPropertyInclusion(config.getDefaultPropertyInclusion(clazz)));
+        Map<String, BeanPropertyDefinition> definitions = new HashMap<>();
+        beanDescription.findProperties().forEach(definition -> definitions.put(definition.getName(), definition));
+        List<PlanProperty> properties = new ArrayList<>();
+        Iterator<PropertyWriter> iterator = beanSerializer.properties();
+        while (isPlannable && iterator.hasNext()) {
+            PropertyWriter propertyWriter = iterator.next();
+            if (propertyWriter.getClass() != BeanPropertyWriter.class) {
+                isPlannable = false;
+            } else {
+                BeanPropertyWriter writer = (BeanPropertyWriter) propertyWriter;
+                BeanPropertyDefinition definition = definitions.get(writer.getName());
+                // annotations from the field/getter/mixins are merged into the writer's member
+                isPlannable = (!writer.hasSerializer() || isJacksonSerializer(writer.getSerializer()))
+                        && (writer.getTypeSerializer() == null)
+                        && (writer.getAnnotation(JsonSerialize.class) == null)
+                        && (writer.getAnnotation(JsonFormat.class) == null)
+                        && ((definition == null) || isPlannableInclusion(definition.findInclusion()));
+                properties.add(new PlanProperty(writer));
+            }
+        }
+        if (!isPlannable) {
+            return this::applyTree;
+        }
+
+        PlanProperty[] planProperties = properties.toArray(new PlanProperty[0]);
+        return (name, value, depth, appliedNames, appliedValues) -> {
+            for (PlanProperty property : planProperties) {
+                Object propertyValue;
+                try {
+                    propertyValue = property.writer.get(value);
+                } catch (Exception e) {
+                    throw new IllegalArgumentException("Could not read property " + property.name + " of " + clazz.getName(), e);
+                }
+                if ((propertyValue == null) && property.writer.willSuppressNulls()) {
+                    continue;
+                }
+                applyPlan(property.name(name, separator), propertyValue, depth + 1, appliedNames, appliedValues);
+            }
+        };
+    }
+
+    private static void applyScalar(String name, Object value, int depth, List<String> appliedNames, List<Object> appliedValues) {
+        appliedNames.add(name);
+        appliedValues.add(value);
+    }
+
+    // i.e. not a custom serializer (not all of Jackson's serializers are annotated with @JacksonStdImpl)
+    private static boolean isJacksonSerializer(JsonSerializer<?> serializer) {
+        return ClassUtil.isJacksonStdImpl(serializer) || serializer.getClass().getName().startsWith("com.fasterxml.jackson.databind.");
+    }
+
+    private static boolean isScalar(Class<?> clazz) {
+        return (clazz == String.class)
+                || (clazz == Integer.class)
+                || (clazz == Long.class)
+                || (clazz == Short.class)
+                || (clazz == Byte.class)
+                || (clazz == Double.class)
+                || (clazz == Float.class)
+                || (clazz == Boolean.class)
+                || (clazz == BigInteger.class); // note: BigDecimal is not included as the tree normalizes it
+    }
+
+    // plans can only skip nulls - other inclusion rules (e.g. NON_EMPTY) need the tree
+    private static boolean isPlannableInclusion(JsonInclude.Value inclusion) {
+        JsonInclude.Include include = (inclusion != null) ? inclusion.getValueInclusion() : JsonInclude.Include.USE_DEFAULTS;
+        return (include == JsonInclude.Include.ALWAYS) || (include == JsonInclude.Include.NON_NULL) || (include == JsonInclude.Include.USE_DEFAULTS);
+    }
+
     private Handler getHandler(JsonNode node) {
         JsonNodeType nodeType = (node != null) ? node.getNodeType() : NULL;
         return handlers.getOrDefault(nodeType, this::handleString);
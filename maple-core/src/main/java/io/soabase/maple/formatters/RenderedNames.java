@@ -0,0 +1,74 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.formatters;
+
+import io.soabase.maple.api.Names;
+import io.soabase.maple.api.NamesValues;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Schema names never change once built. Formatters use this to render each name once
+ * per schema (e.g. {@code full_name=}) so that the hot path is a single array copy.
+ */
+class RenderedNames {
+    private final Map<Names, char[][]> cache = new ConcurrentHashMap<>();
+    private final NameRenderer renderer;
+
+    @FunctionalInterface
+    interface NameRenderer {
+        /**
+         * Render the nth name. The other names are available for renderers that must keep names unique.
+         *
+         * @param names the schema names
+         * @param n index of the name to render
+         * @return rendered name
+         */
+        char[] render(Names names, int n);
+    }
+
+    RenderedNames(NameRenderer renderer) {
+        this.renderer = renderer;
+    }
+
+    /**
+     * Return the rendered names for the given values or {@code null} if the values
+     * do not have fixed schema names
+     *
+     * @param namesValues names/values being formatted
+     * @return rendered names indexed the same as the names/values or {@code null}
+     */
+    char[][] get(NamesValues namesValues) {
+        Names names = namesValues.schemaNames();
+        if (names == null) {
+            return null;
+        }
+        char[][] rendered = cache.get(names);
+        if (rendered == null) {
+            rendered = cache.computeIfAbsent(names, this::render);
+        }
+        return rendered;
+    }
+
+    private char[][] render(Names names) {
+        char[][] rendered = new char[names.qty()][];
+        for (int i = 0; i < names.qty(); ++i) {
+            rendered[i] = renderer.render(names, i);
+        }
+        return rendered;
+    }
+}
@@ -17,8 +17,12 @@ package io.soabase.maple.formatters;
 
 import io.soabase.maple.api.LoggingLevel;
 import io.soabase.maple.api.MapleFormatter;
+import io.soabase.maple.api.Names;
 import io.soabase.maple.api.NamesValues;
 import io.soabase.maple.api.LevelLogger;
+import io.soabase.maple.api.PrimitiveNamesValues;
+import io.soabase.maple.api.StructuredMessage;
+import io.soabase.maple.api.ValueType;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -28,12 +32,16 @@ import static io.soabase.maple.formatters.StandardFormatter.Option.*;
 
 @SuppressWarnings({"PMD.CollapsibleIfStatements", "PMD.UselessParentheses"})
 public class StandardFormatter implements MapleFormatter {
-    private final boolean mainMessageIsLast;
-    private final boolean quoteValues;
-    private final boolean quoteValuesOnlyIfNeeded;
-    private final boolean escapeValues;
-    private final boolean snakeCase;
-    private final boolean skipNullValues;
+    final boolean mainMessageIsLast;
+    final boolean quoteValues;
+    final boolean quoteValuesOnlyIfNeeded;
+    final boolean escapeValues;
+    final boolean snakeCase;
+    final boolean skipNullValues;
+    final boolean structuredMessage;
+    final boolean compiled;
+    private final RenderedNames renderedNames = new RenderedNames((names, n) -> renderName(names.nthName(n)));
+    private final StructuredMessage.Renderer renderer = this::formatTo;
 
     public static final char SPACE = ' ';
     public static final char QUOTE = '"';
@@ -54,7 +62,9 @@ public class StandardFormatter implements MapleFormatter {
         ESCAPE_VALUES,              // special characters in values are escaped
         SNAKE_CASE,                 // names are reformatted to snake case
         QUOTE_VALUES_IF_NEEDED,    // quote values only if the contain spaces, special characters, etc.
-        SKIP_NULL_VALUES           // if a value is null for a given name don't output anything
+        SKIP_NULL_VALUES,          // if a value is null for a given name don't output anything
+        STRUCTURED_MESSAGE,        // pass a StructuredMessage to the logger instead of a String - see LevelLogger#logStructured()
+        COMPILED                   // generate a formatter per schema with the fields unrolled - see CompiledFields
     }
 
     public StandardFormatter(Option... options) {
@@ -66,6 +76,8 @@ public class StandardFormatter implements MapleFormatter {
         this.escapeValues = optionsSet.contains(ESCAPE_VALUES);
         this.snakeCase = optionsSet.contains(SNAKE_CASE);
         this.skipNullValues = optionsSet.contains(SKIP_NULL_VALUES);
+        this.structuredMessage = optionsSet.contains(STRUCTURED_MESSAGE);
+        this.compiled = optionsSet.contains(COMPILED);
         if (quoteValuesOnlyIfNeeded && quoteValues) {
             throw new IllegalArgumentException("QUOTE_VALUES and QUOTE_VALUES_IF_NEEDED cannot be combined");
         }
@@ -74,9 +86,46 @@ public class StandardFormatter implements MapleFormatter {
         }
     }
 
+    StandardFormatter(StandardFormatter formatter) {
+        this.mainMessageIsLast = formatter.mainMessageIsLast;
+        this.quoteValuesOnlyIfNeeded = formatter.quoteValuesOnlyIfNeeded;
+        this.quoteValues = formatter.quoteValues;
+        this.escapeValues = formatter.escapeValues;
+        this.snakeCase = formatter.snakeCase;
+        this.skipNullValues = formatter.skipNullValues;
+        this.structuredMessage = formatter.structuredMessage;
+        this.compiled = formatter.compiled;
+    }
+
+    @Override
+    public MapleFormatter specialize(Class<?> schemaClass, Names names) {
+        if (compiled) {
+            return new CompiledStandardFormatter(this, names, CompiledFields.compile(schemaClass, names, this));
+        }
+        return this;
+    }
+
     @Override
     public void apply(LevelLogger logger, LoggingLevel loggingLevel, String loggerName, NamesValues namesValues, String mainMessage, Throwable t) {
-        StringBuilder logMessage = new StringBuilder(STRING_BUILDER_CAPACITY);
+        if (structuredMessage) {
+            StructuredMessage message = new StructuredMessage(renderer, namesValues, mainMessage);
+            logger.logStructured(message, t);
+            message.detach();
+        } else {
+            StringBuilder logMessage = new StringBuilder(STRING_BUILDER_CAPACITY);
+            formatTo(logMessage, namesValues, mainMessage);
+            logger.log(logMessage.toString(), t);
+        }
+    }
+
+    /**
+     * Format the names/values and main message into the given builder
+     *
+     * @param logMessage target
+     * @param namesValues name/value pairs
+     * @param mainMessage the main message to output or {@code ""}
+     */
+    public void formatTo(StringBuilder logMessage, NamesValues namesValues, String mainMessage) {
         boolean needsSpace = false;
         boolean hasMainMessage = !mainMessage.isEmpty();
         if (hasMainMessage) {
@@ -86,9 +135,12 @@ public class StandardFormatter implements MapleFormatter {
             }
         }
 
+        char[][] renderedNames = this.renderedNames.get(namesValues);
+        PrimitiveNamesValues primitiveValues = (namesValues instanceof PrimitiveNamesValues) ? (PrimitiveNamesValues) namesValues : null;
         for (int i = 0; i < namesValues.qty(); ++i) {
-            Object value = namesValues.nthValue(i);
-            if (skipNullValues && (value == null)) {
+            ValueType valueType = (primitiveValues != null) ? primitiveValues.nthValueType(i) : ValueType.OBJECT;
+            Object value = (valueType == ValueType.OBJECT) ? namesValues.nthValue(i) : null;
+            if (skipNullValues && (valueType == ValueType.OBJECT) && (value == null)) {
                 continue;
             }
             if (needsSpace) {
@@ -96,23 +148,24 @@ public class StandardFormatter implements MapleFormatter {
             } else {
                 needsSpace = true;
             }
-            formatSchemaName(logMessage, namesValues.nthName(i));
-            logMessage.append('=');
+            if (renderedNames != null) {
+                logMessage.append(renderedNames[i]);
+            } else {
+                formatSchemaName(logMessage, namesValues.nthName(i));
+                logMessage.append('=');
+            }
             if (quoteValues) {
                 logMessage.append(QUOTE);
             }
-            if (escapeValues) {
+            if (valueType != ValueType.OBJECT) {
+                addPrimitiveValue(logMessage, primitiveValues, i, valueType);
+            } else if (escapeValues) {
                 if (quoteValuesOnlyIfNeeded) {
-                    StringBuilder escapedValue = new StringBuilder(STRING_BUILDER_CAPACITY);
-                    if (addEscapedValue(escapedValue, value, false)) {
-                        logMessage.append(QUOTE).append(escapedValue).append(QUOTE);
-                    } else {
-                        logMessage.append(escapedValue);
-                    }
+                    addEscapedValueQuotedIfNeeded(logMessage, value);
                 } else {
                     addEscapedValue(logMessage, value, !quoteValues);
                 }
-            } else {
+            } else if (!addNumericValue(logMessage, value)) {
                 logMessage.append(value);
             }
             if (quoteValues) {
@@ -126,7 +179,6 @@ public class StandardFormatter implements MapleFormatter {
             }
             logMessage.append(mainMessage);
         }
-        logger.log(logMessage.toString(), t);
     }
 
     // mostly copied from PropertyNamingStrategy#SnakeCaseStrategy#translate()
@@ -160,25 +212,160 @@ public class StandardFormatter implements MapleFormatter {
         }
     }
 
-    // note: this method has been manually optimized after profiling
+    char[] renderName(String name) {
+        StringBuilder rendered = new StringBuilder(name.length() + 8);
+        formatSchemaName(rendered, name);
+        rendered.append('=');
+        char[] chars = new char[rendered.length()];
+        rendered.getChars(0, rendered.length(), chars, 0);
+        return chars;
+    }
+
+    /**
+     * Append the value escaping quotes, escapes and whitespace. Numbers and booleans are appended
+     * directly and {@link CharSequence}s are scanned in place.
+     *
+     * @param logMessage target
+     * @param value value to append
+     * @param escapeSpaces if true, whitespace is escaped. Otherwise, whitespace is converted to spaces
+     * @return true if the value contained quotes, escapes or whitespace
+     */
     public static boolean addEscapedValue(StringBuilder logMessage, Object value, boolean escapeSpaces) {
-        boolean hasEscapes = false;
-        char[] str = String.valueOf(value).toCharArray();
-        int currentStart = 0;
-        for (int i = 0; i < str.length; ++i) {
-            char c = str[i];
-            switch (str[i]) {
+        if (addNumericValue(logMessage, value)) {
+            return false;
+        }
+        CharSequence str = toCharSequence(value);
+        int length = str.length();
+        int firstSpecial = indexOfSpecial(str, length);
+        if (firstSpecial == length) {
+            logMessage.append(str);
+            return false;
+        }
+        addEscapedChars(logMessage, str, firstSpecial, length, escapeSpaces);
+        return true;
+    }
+
+    /**
+     * Append the value escaping quotes, escapes and whitespace. If the value contains any of these
+     * it is surrounded by quotes. Whitespace is converted to spaces.
+     *
+     * @param logMessage target
+     * @param value value to append
+     */
+    public static void addEscapedValueQuotedIfNeeded(StringBuilder logMessage, Object value) {
+        if (addNumericValue(logMessage, value)) {
+            return;
+        }
+        CharSequence str = toCharSequence(value);
+        int length = str.length();
+        int firstSpecial = indexOfSpecial(str, length);
+        if (firstSpecial == length) {
+            logMessage.append(str);
+        } else {
+            logMessage.append(QUOTE);
+            addEscapedChars(logMessage, str, firstSpecial, length, false);
+            logMessage.append(QUOTE);
+        }
+    }
+
+    /**
+     * If the value is a boxed primitive number or boolean append it without converting it to a String
+     *
+     * @param logMessage target
+     * @param value value to append
+     * @return true if the value was appended
+     */
+    public static boolean addNumericValue(StringBuilder logMessage, Object value) {
+        if ((value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+            logMessage.append(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            logMessage.append(((Long) value).longValue());
+        } else if (value instanceof Double) {
+            logMessage.append(((Double) value).doubleValue());
+        } else if (value instanceof Float) {
+            logMessage.append(((Float) value).floatValue());
+        } else if (value instanceof Boolean) {
+            logMessage.append(((Boolean) value).booleanValue());
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Append the nth primitive value without boxing it
+     *
+     * @param logMessage target
+     * @param primitiveValues names/values
+     * @param n index
+     * @param valueType the value's type as returned by {@link PrimitiveNamesValues#nthValueType(int)}
+     */
+    public static void addPrimitiveValue(StringBuilder logMessage, PrimitiveNamesValues primitiveValues, int n, ValueType valueType) {
+        switch (valueType) {
+            case INT:
+            case LONG: {
+                logMessage.append(primitiveValues.nthLong(n));
+                break;
+            }
+
+            case FLOAT: {
+                logMessage.append((float) primitiveValues.nthDouble(n));
+                break;
+            }
+
+            case DOUBLE: {
+                logMessage.append(primitiveValues.nthDouble(n));
+                break;
+            }
+
+            case BOOLEAN: {
+                logMessage.append(primitiveValues.nthBoolean(n));
+                break;
+            }
+
+            default: {
+                logMessage.append(primitiveValues.nthValue(n));
+                break;
+            }
+        }
+    }
+
+    private static CharSequence toCharSequence(Object value) {
+        return (value instanceof CharSequence) ? (CharSequence) value : String.valueOf(value);
+    }
+
+    private static int indexOfSpecial(CharSequence str, int length) {
+        for (int i = 0; i < length; ++i) {
+            switch (str.charAt(i)) {
+                case QUOTE:
+                case ESCAPE:
+                case SPACE:
+                case RETURN:
+                case NEWLINE:
+                case TAB: {
+                    return i;
+                }
+            }
+        }
+        return length;
+    }
+
+    // note: this method has been manually optimized after profiling
+    private static void addEscapedChars(StringBuilder logMessage, CharSequence str, int firstSpecial, int length, boolean escapeSpaces) {
+        logMessage.append(str, 0, firstSpecial);
+        int currentStart = firstSpecial;
+        for (int i = firstSpecial; i < length; ++i) {
+            char c = str.charAt(i);
+            switch (c) {
                 case QUOTE: {
-                    hasEscapes = true;
-                    logMessage.append(str, currentStart, i - currentStart);
+                    logMessage.append(str, currentStart, i);
                     currentStart = i + 1;
                     logMessage.append(ESCAPED_QUOTE);
                     break;
                 }
 
                 case ESCAPE: {
-                    hasEscapes = true;
-                    logMessage.append(str, currentStart, i - currentStart);
+                    logMessage.append(str, currentStart, i);
                     currentStart = i + 1;
                     logMessage.append(ESCAPED_ESCAPE);
                     break;
@@ -188,13 +375,12 @@ public class StandardFormatter implements MapleFormatter {
                 case RETURN:
                 case NEWLINE:
                 case TAB: {
-                    hasEscapes = true;
                     if (escapeSpaces) {
-                        logMessage.append(str, currentStart, i - currentStart);
+                        logMessage.append(str, currentStart, i);
                         currentStart = i + 1;
                         logMessage.append(ESCAPED_SPACE);
                     } else if (c != SPACE) {
-                        logMessage.append(str, currentStart, i - currentStart);
+                        logMessage.append(str, currentStart, i);
                         currentStart = i + 1;
                         logMessage.append(SPACE);
                     }
@@ -202,7 +388,6 @@ public class StandardFormatter implements MapleFormatter {
                 }
             }
         }
-        logMessage.append(str, currentStart, str.length - currentStart);
-        return hasEscapes;
+        logMessage.append(str, currentStart, length);
     }
 }
@@ -24,4 +24,5 @@ class Loaders {
     // must be defined before mapleSpiLoader
     static final Loader<MapleFormatter> mapleFormatterLoader = new Loader<>(MapleFormatter.class, new StandardFormatter(MAIN_MESSAGE_IS_LAST, SNAKE_CASE, ESCAPE_VALUES, QUOTE_VALUES_IF_NEEDED, SKIP_NULL_VALUES));
     static final Loader<MapleSpi> mapleSpiLoader = new Loader<>(MapleSpi.class, new StandardMapleSpi());
+    static final Loader<MapleContextBinding> mapleContextBindingLoader = new Loader<>(MapleContextBinding.class, () -> null);
 }
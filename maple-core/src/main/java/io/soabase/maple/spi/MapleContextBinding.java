@@ -0,0 +1,34 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.spi;
+
+import io.soabase.maple.core.MapleContext;
+
+/**
+ * Allows the current {@link MapleContext} to be bound by something other than a thread local - e.g. a
+ * {@code ScopedValue}. Loaded via {@link java.util.ServiceLoader}. By default nothing is bound.
+ */
+@FunctionalInterface
+public interface MapleContextBinding {
+    static MapleContextBinding instance() {
+        return Loaders.mapleContextBindingLoader.instance();
+    }
+
+    /**
+     * @return the currently bound context or {@code null}
+     */
+    MapleContext boundContext();
+}
@@ -30,14 +30,31 @@ public interface MapleSpi {
 
     boolean getProductionMode();
 
+    default void setReuseSchemaInstances(boolean newValue) {
+        // NOP
+    }
+
+    default boolean getReuseSchemaInstances() {
+        return false;
+    }
+
     void setFormatter(MapleFormatter formatter);
 
     MapleFormatter getFormatter();
 
+    default void setFilter(MapleFilter filter) {
+        // NOP
+    }
+
+    default MapleFilter getFilter() {
+        return null;
+    }
+
     NamesValues applySpecializations(NamesValues namesValues);
 
     default void reset() {
         setFormatter(null);
+        setFilter(null);
     }
 
     default Object getMdcValue(String name) {
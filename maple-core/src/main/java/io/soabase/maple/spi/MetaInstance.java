@@ -22,6 +22,27 @@ import io.soabase.maple.api.NamesValues;
 public interface MetaInstance<T> {
     T newSchemaInstance();
 
+    /**
+     * Return a schema instance that may be recycled from a previous statement on the
+     * current thread. The instance (and any {@link NamesValues} obtained from it) is only
+     * valid until it's passed to {@link #releaseSchemaInstance(Object)}.
+     *
+     * @return schema instance
+     */
+    default T acquireSchemaInstance() {
+        return newSchemaInstance();
+    }
+
+    /**
+     * Release a schema instance obtained from {@link #acquireSchemaInstance()}. Its values are
+     * cleared so that it can be recycled.
+     *
+     * @param instance the instance to release
+     */
+    default void releaseSchemaInstance(T instance) {
+        // NOP
+    }
+
     Names schemaNames();
 
     MapleFormatter formatter();
@@ -18,13 +18,17 @@ package io.soabase.maple.spi;
 import io.soabase.maple.api.*;
 import io.soabase.maple.api.exceptions.MissingSchemaValueException;
 import io.soabase.maple.core.Generator;
+import io.soabase.maple.core.MapleContext;
 import io.soabase.maple.core.SpecializedNamesValues;
 
 @SuppressWarnings({"PMD.CollapsibleIfStatements", "PMD.UselessParentheses"})
 public class StandardMapleSpi implements MapleSpi {
     private final Generator generator = new Generator();
     private volatile boolean productionMode = false;
+    private volatile boolean reuseSchemaInstances = false;
     private volatile MapleFormatter formatter = Loaders.mapleFormatterLoader.instance();
+    private volatile MapleFilter filter = null;
+    private final ThreadLocal<SpecializedNamesValues> recycledNamesValues = ThreadLocal.withInitial(() -> new SpecializedNamesValues(this::getSpecializedValue));
 
     @Override
     public <T> MetaInstance<T> generate(Class<T> schemaClass) {
@@ -34,8 +38,35 @@ public class StandardMapleSpi implements MapleSpi {
 
     @Override
     public <T> void consume(LevelLogger levelLogger, LoggingLevel loggingLevel, String loggerName, String mainMessage, Throwable t, Statement<T> statement, MetaInstance<T> metaInstance) {
-        NamesValues namesValues = applySpecializations(statement.toNamesValues(metaInstance));
-        metaInstance.formatter().apply(levelLogger, loggingLevel, loggerName, namesValues, mainMessage, t);
+        // the filter is applied before the statement is evaluated
+        MapleFilter filter = this.filter;
+        if ((filter != null) && !filter.isLoggable(loggingLevel, loggerName, mainMessage)) {
+            return;
+        }
+
+        if (!reuseSchemaInstances) {
+            NamesValues namesValues = applySpecializations(statement.toNamesValues(metaInstance));
+            metaInstance.formatter().apply(levelLogger, loggingLevel, loggerName, namesValues, mainMessage, t);
+            return;
+        }
+
+        T instance = metaInstance.acquireSchemaInstance();
+        SpecializedNamesValues recycled = null;
+        try {
+            statement.handle(instance);
+            NamesValues namesValues = metaInstance.toNamesValues(instance);
+            if (checkSpecializations(namesValues)) {
+                // the values of a reused instance are only valid during this call so the wrapper can be recycled too
+                recycled = recycledNamesValues.get().acquire(namesValues);
+                namesValues = (recycled != null) ? recycled : wrapSpecializations(namesValues);
+            }
+            metaInstance.formatter().apply(levelLogger, loggingLevel, loggerName, namesValues, mainMessage, t);
+        } finally {
+            if (recycled != null) {
+                recycled.release();
+            }
+            metaInstance.releaseSchemaInstance(instance);
+        }
     }
 
     @Override
@@ -48,6 +79,16 @@ public class StandardMapleSpi implements MapleSpi {
         return productionMode;
     }
 
+    @Override
+    public void setReuseSchemaInstances(boolean newValue) {
+        reuseSchemaInstances = newValue;
+    }
+
+    @Override
+    public boolean getReuseSchemaInstances() {
+        return reuseSchemaInstances;
+    }
+
     @Override
     public void setFormatter(MapleFormatter formatter) {
         this.formatter = (formatter != null) ? formatter : Loaders.mapleFormatterLoader.instance();
@@ -58,26 +99,57 @@ public class StandardMapleSpi implements MapleSpi {
         return formatter;
     }
 
+    @Override
+    public void setFilter(MapleFilter filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    public MapleFilter getFilter() {
+        return filter;
+    }
+
     @Override
     public NamesValues applySpecializations(NamesValues namesValues) {
-        NamesValues specializedNamesValues = null;
-        for (int i = 0; i < namesValues.qty(); ++i) {
-            if (!productionMode && namesValues.nthSpecializations(i).contains(Specialization.REQUIRED)) {
-                if (namesValues.nthValue(i) == null) {
+        return checkSpecializations(namesValues) ? wrapSpecializations(namesValues) : namesValues;
+    }
+
+    // checks required values - returns true if the values must be wrapped for MDC defaults
+    private boolean checkSpecializations(NamesValues namesValues) {
+        boolean checkRequired = !productionMode && namesValues.hasSpecialization(Specialization.REQUIRED);
+        boolean hasMdcDefaults = namesValues.hasSpecialization(Specialization.DEFAULT_FROM_MDC);
+        if (checkRequired) {
+            for (int i = 0; i < namesValues.qty(); ++i) {
+                if (namesValues.nthHasSpecialization(i, Specialization.REQUIRED) && (namesValues.nthValue(i) == null)) {
                     throw new MissingSchemaValueException("Entire schema must be specified. Missing: " + namesValues.nthName(i));
                 }
-            } else if ((specializedNamesValues == null) && namesValues.nthSpecializations(i).contains(Specialization.DEFAULT_FROM_MDC)) {
-                specializedNamesValues = new SpecializedNamesValues(namesValues, index -> getSpecializedValue(namesValues, index));
             }
         }
-        return (specializedNamesValues != null) ? specializedNamesValues : namesValues;
+        return hasMdcDefaults;
+    }
+
+    private NamesValues wrapSpecializations(NamesValues namesValues) {
+        return new SpecializedNamesValues(namesValues, index -> getSpecializedValue(namesValues, index));
     }
 
     private Object getSpecializedValue(NamesValues namesValues, int index) {
         Object value = namesValues.nthValue(index);
-        if ((value == null) && namesValues.nthSpecializations(index).contains(Specialization.DEFAULT_FROM_MDC)) {
-            return getMdcValue(namesValues.nthName(index));
+        if ((value == null) && namesValues.nthHasSpecialization(index, Specialization.DEFAULT_FROM_MDC)) {
+            String contextValue = MapleContext.current().get(namesValues.nthName(index));
+            return (contextValue != null) ? contextValue : getMdcValue(namesValues, index);
         }
         return value;
     }
+
+    /**
+     * Return the MDC value for the nth field of the given names/values. The default calls {@link #getMdcValue(String)}
+     * with the field's name. SPIs that can look values up by schema field can override this.
+     *
+     * @param namesValues names/values
+     * @param n field index
+     * @return value or {@code null}
+     */
+    protected Object getMdcValue(NamesValues namesValues, int n) {
+        return getMdcValue(namesValues.nthName(n));
+    }
 }
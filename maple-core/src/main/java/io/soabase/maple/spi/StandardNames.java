@@ -0,0 +1,96 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.spi;
+
+import io.soabase.maple.api.Names;
+import io.soabase.maple.api.Specialization;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Array backed names. Specializations are stored as a bitmask per name (bit = {@link Specialization#ordinal()})
+ * along with the union of all of them so that schemas without specializations can be skipped quickly.
+ */
+final class StandardNames implements Names {
+    private final String[] names;
+    private final String[] rawNames;
+    private final int[] specializationMasks;
+    private final Set<Specialization>[] specializations;
+    private final int schemaSpecializationMask;
+
+    @SuppressWarnings("unchecked")
+    StandardNames(String[] names, String[] rawNames, int[] specializationMasks) {
+        this.names = names;
+        this.rawNames = rawNames;
+        this.specializationMasks = specializationMasks;
+        specializations = new Set[names.length];
+        int schemaSpecializationMask = 0;
+        for (int i = 0; i < names.length; ++i) {
+            specializations[i] = toSet(specializationMasks[i]);
+            schemaSpecializationMask |= specializationMasks[i];
+        }
+        this.schemaSpecializationMask = schemaSpecializationMask;
+    }
+
+    static int mask(Specialization specialization) {
+        return 1 << specialization.ordinal();
+    }
+
+    @Override
+    public int qty() {
+        return names.length;
+    }
+
+    @Override
+    public String nthName(int n) {
+        return names[n];
+    }
+
+    @Override
+    public String nthRawName(int n) {
+        return rawNames[n];
+    }
+
+    @Override
+    public Set<Specialization> nthSpecializations(int n) {
+        return specializations[n];
+    }
+
+    @Override
+    public boolean nthHasSpecialization(int n, Specialization specialization) {
+        return (specializationMasks[n] & mask(specialization)) != 0;
+    }
+
+    @Override
+    public boolean hasSpecialization(Specialization specialization) {
+        return (schemaSpecializationMask & mask(specialization)) != 0;
+    }
+
+    private static Set<Specialization> toSet(int mask) {
+        if (mask == 0) {
+            return Collections.emptySet();
+        }
+        EnumSet<Specialization> set = EnumSet.noneOf(Specialization.class);
+        for (Specialization specialization : Specialization.values()) {
+            if ((mask & mask(specialization)) != 0) {
+                set.add(specialization);
+            }
+        }
+        return Collections.unmodifiableSet(set);
+    }
+}
@@ -35,13 +35,13 @@ public class StandardNamesBuilder {
         class Entry implements Comparable<Entry> {
             private final String name;
             private final String rawName;
-            private final Set<Specialization> specializations;
+            private final int specializationMask;
             private final int sortValue;
 
-            private Entry(String name, String rawName, Set<Specialization> specializations, int sortValue) {
+            private Entry(String name, String rawName, int specializationMask, int sortValue) {
                 this.name = name;
                 this.rawName = rawName;
-                this.specializations = Collections.unmodifiableSet(specializations);
+                this.specializationMask = specializationMask;
                 this.sortValue = sortValue;
             }
 
@@ -71,40 +71,29 @@ public class StandardNamesBuilder {
                 throw new InvalidSchemaException("Schema method name is reserved for internal use. Name: " + method.getName());
             }
 
-            Set<Specialization> specializations = new HashSet<>();
+            int specializationMask = 0;
             if (method.getAnnotation(Required.class) != null) {
-                specializations.add(Specialization.REQUIRED);
+                specializationMask |= StandardNames.mask(Specialization.REQUIRED);
             }
             if (method.getAnnotation(MdcDefaultValue.class) != null) {
-                specializations.add(Specialization.DEFAULT_FROM_MDC);
+                specializationMask |= StandardNames.mask(Specialization.DEFAULT_FROM_MDC);
             }
 
             SortOrder sortOrder = method.getAnnotation(SortOrder.class);
             int sortOrderValue = (sortOrder != null) ? sortOrder.value() : Short.MAX_VALUE;
-            entries.add(new Entry(method.getName(), method.toGenericString(), specializations, sortOrderValue));
+            entries.add(new Entry(method.getName(), method.toGenericString(), specializationMask, sortOrderValue));
         }
         Collections.sort(entries);
-        return new Names() {
-            @Override
-            public String nthName(int n) {
-                return entries.get(n).name;
-            }
-
-            @Override
-            public String nthRawName(int n) {
-                return entries.get(n).rawName;
-            }
-
-            @Override
-            public int qty() {
-                return entries.size();
-            }
-
-            @Override
-            public Set<Specialization> nthSpecializations(int n) {
-                return entries.get(n).specializations;
-            }
-        };
+        String[] names = new String[entries.size()];
+        String[] rawNames = new String[entries.size()];
+        int[] specializationMasks = new int[entries.size()];
+        for (int i = 0; i < entries.size(); ++i) {
+            Entry entry = entries.get(i);
+            names[i] = entry.name;
+            rawNames[i] = entry.rawName;
+            specializationMasks[i] = entry.specializationMask;
+        }
+        return new StandardNames(names, rawNames, specializationMasks);
     }
 
     private StandardNamesBuilder() {
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.soabase.maple.api.LoggingLevel;
+import io.soabase.maple.api.annotations.DoNotLog;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class Customer {
+    private final String name;
+    private final Address address;
+    private final List<String> tags;
+    private final Map<String, Integer> counts;
+    private final LoggingLevel level;
+    private final UUID id;
+    private final Integer rank;
+    private final int qty;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String nickname;
+    @JsonIgnore
+    private final String ignored = "ignored";
+    @DoNotLog
+    private final String password = "password";
+
+    public Customer(String name, Address address, List<String> tags, Map<String, Integer> counts, LoggingLevel level, UUID id, Integer rank, int qty, String nickname) {
+        this.name = name;
+        this.address = address;
+        this.tags = tags;
+        this.counts = counts;
+        this.level = level;
+        this.id = id;
+        this.rank = rank;
+        this.qty = qty;
+        this.nickname = nickname;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Address getAddress() {
+        return address;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public Map<String, Integer> getCounts() {
+        return counts;
+    }
+
+    public LoggingLevel getLevel() {
+        return level;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public Integer getRank() {
+        return rank;
+    }
+
+    public int getQty() {
+        return qty;
+    }
+
+    public String getNickname() {
+        return nickname;
+    }
+
+    public String getIgnored() {
+        return ignored;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+}
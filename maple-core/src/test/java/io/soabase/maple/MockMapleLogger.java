@@ -15,32 +15,49 @@
  */
 package io.soabase.maple;
 
+import io.soabase.maple.api.Sampler;
+import io.soabase.maple.core.EventCollapser;
 import io.soabase.maple.core.StandardMapleLogger;
 import io.soabase.maple.spi.MapleSpi;
 import io.soabase.maple.spi.MetaInstance;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 class MockMapleLogger<T> extends StandardMapleLogger<T, Object> {
     private final List<LogEvent> logging;
 
     static <T> MockMapleLogger<T> get(Class<T> schemaClass) {
+        return get(schemaClass, null);
+    }
+
+    static <T> MockMapleLogger<T> get(Class<T> schemaClass, Sampler sampler) {
+        return get(schemaClass, sampler, null);
+    }
+
+    static <T> MockMapleLogger<T> get(Class<T> schemaClass, Sampler sampler, EventCollapser collapser) {
         MetaInstance<T> metaInstance = MapleSpi.instance().generate(schemaClass);
-        final List<LogEvent> logging = new ArrayList<>();
-        return new MockMapleLogger<>(metaInstance, logging);
+        if (collapser != null) {
+            metaInstance = collapser.wrap(metaInstance);
+        }
+        // summaries can be logged by the summary flusher thread
+        final List<LogEvent> logging = Collections.synchronizedList(new ArrayList<>());
+        return new MockMapleLogger<>(metaInstance, logging, sampler);
     }
 
     List<LogEvent> logging() {
-        return new ArrayList<>(logging);
+        synchronized (logging) {
+            return new ArrayList<>(logging);
+        }
     }
 
     void clear() {
         logging.clear();
     }
 
-    private MockMapleLogger(MetaInstance<T> metaInstance, List<LogEvent> logging) {
-        super(metaInstance, new Object(), (level, o) -> "dummy", (level, o) -> (msg, t) -> logging.add(new LogEvent(level, msg, t)));
+    private MockMapleLogger(MetaInstance<T> metaInstance, List<LogEvent> logging, Sampler sampler) {
+        super(metaInstance, new Object(), "dummy", (level, o) -> true, (level, o) -> (msg, t) -> logging.add(new LogEvent(level, msg, t)), sampler);
         this.logging = logging;
     }
 }
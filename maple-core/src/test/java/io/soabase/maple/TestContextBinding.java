@@ -0,0 +1,38 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple;
+
+import io.soabase.maple.core.MapleContext;
+import io.soabase.maple.spi.MapleContextBinding;
+
+public class TestContextBinding implements MapleContextBinding {
+    private static final ThreadLocal<MapleContext> bound = new ThreadLocal<>();
+
+    static void runBound(MapleContext context, Runnable runnable) {
+        MapleContext previous = bound.get();
+        bound.set(context);
+        try {
+            runnable.run();
+        } finally {
+            bound.set(previous);
+        }
+    }
+
+    @Override
+    public MapleContext boundContext() {
+        return bound.get();
+    }
+}
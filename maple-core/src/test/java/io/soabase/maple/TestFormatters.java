@@ -15,15 +15,48 @@
  */
 package io.soabase.maple;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.soabase.maple.api.LoggingLevel;
+import io.soabase.maple.api.MapleFormatter;
+import io.soabase.maple.api.MdcCloseable;
+import io.soabase.maple.api.exceptions.MissingSchemaValueException;
+import io.soabase.maple.core.SnapshotNamesValues;
+import io.soabase.maple.formatters.AsyncFormatter;
+import io.soabase.maple.formatters.BatchingFormatter;
+import io.soabase.maple.formatters.JsonFormatter;
 import io.soabase.maple.formatters.ModelFormatter;
 import io.soabase.maple.formatters.StandardFormatter;
+import io.soabase.maple.api.Statement;
+import io.soabase.maple.api.StructuredMessage;
+import io.soabase.maple.schema.BasicSchema;
+import io.soabase.maple.schema.Deferred;
+import io.soabase.maple.schema.HasMdcDefault;
+import io.soabase.maple.schema.HasRequired;
+import io.soabase.maple.schema.ModelSchema;
+import io.soabase.maple.schema.Primitives;
+import io.soabase.maple.schema.ReservedNames;
 import io.soabase.maple.schema.Schema;
 import io.soabase.maple.spi.MapleSpi;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static io.soabase.maple.formatters.ModelFormatter.NodeMapper.forMapper;
 import static io.soabase.maple.formatters.StandardFormatter.Option.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -63,6 +96,22 @@ class TestFormatters {
         assertThat(toEscapedValue("one\ttwo\rthree\nfour", true)).isEqualTo("one\\ two\\ three\\ four");
     }
 
+    @Test
+    void testToEscapedValueQuotedIfNeeded() {
+        assertThat(toEscapedValueQuotedIfNeeded("one")).isEqualTo("one");
+        assertThat(toEscapedValueQuotedIfNeeded("")).isEqualTo("");
+        assertThat(toEscapedValueQuotedIfNeeded("one two")).isEqualTo("\"one two\"");
+        assertThat(toEscapedValueQuotedIfNeeded("\"one\"")).isEqualTo("\"\\\"one\\\"\"");
+        assertThat(toEscapedValueQuotedIfNeeded("one\ttwo")).isEqualTo("\"one two\"");
+        assertThat(toEscapedValueQuotedIfNeeded(new StringBuilder("a b"))).isEqualTo("\"a b\"");
+        assertThat(toEscapedValueQuotedIfNeeded(null)).isEqualTo("null");
+        assertThat(toEscapedValueQuotedIfNeeded(-12)).isEqualTo("-12");
+        assertThat(toEscapedValueQuotedIfNeeded(12L)).isEqualTo("12");
+        assertThat(toEscapedValueQuotedIfNeeded(1.5)).isEqualTo("1.5");
+        assertThat(toEscapedValueQuotedIfNeeded(1.1f)).isEqualTo("1.1");
+        assertThat(toEscapedValueQuotedIfNeeded(true)).isEqualTo("true");
+    }
+
     @Test
     void testIllegalOptions() {
         assertThatThrownBy(() -> new StandardFormatter(QUOTE_VALUES_IF_NEEDED, QUOTE_VALUES)).isInstanceOf(IllegalArgumentException.class);
@@ -118,6 +167,61 @@ class TestFormatters {
         assertThat(logger.logging()).containsExactly(new LogEvent(LoggingLevel.INFO, "the message first_name=first name last_name=last \"name\" address=null age=100", null));
     }
 
+    @Test
+    void testSnakeCaseRepeated() {
+        MapleSpi.instance().setFormatter(new StandardFormatter(SNAKE_CASE, MAIN_MESSAGE_IS_LAST));
+        MockMapleLogger<Schema> logger = MockMapleLogger.get(Schema.class);
+        logger.info(s -> s.firstName("a").lastName("b"));
+        logger.info("again", s -> s.firstName("c").lastName("d").age(1));
+        assertThat(logger.logging()).containsExactly(
+                new LogEvent(LoggingLevel.INFO, "first_name=a last_name=b address=null age=null", null),
+                new LogEvent(LoggingLevel.INFO, "first_name=c last_name=d address=null age=1 again", null)
+        );
+    }
+
+    @Test
+    void testPrimitives() {
+        MapleSpi.instance().setFormatter(new StandardFormatter(QUOTE_VALUES));
+        MockMapleLogger<Primitives> logger = MockMapleLogger.get(Primitives.class);
+        logger.info(s -> s.aBoolean(false).aByte((byte) -1).aChar('x').aDouble(-1.25).aFloat(1.1f).aLong(-2).aShort((short) 7).anInt(42).anInteger(43));
+        assertThat(logger.logging()).containsExactly(new LogEvent(LoggingLevel.INFO, "aBoolean=\"false\" aByte=\"-1\" aChar=\"x\" aDouble=\"-1.25\" aFloat=\"1.1\" aLong=\"-2\" aShort=\"7\" anInt=\"42\" anInteger=\"43\"", null));
+    }
+
+    @Test
+    void testCompiled() {
+        List<StandardFormatter.Option[]> optionSets = Arrays.asList(
+                new StandardFormatter.Option[]{},
+                new StandardFormatter.Option[]{MAIN_MESSAGE_IS_LAST},
+                new StandardFormatter.Option[]{SKIP_NULL_VALUES},
+                new StandardFormatter.Option[]{QUOTE_VALUES},
+                new StandardFormatter.Option[]{QUOTE_VALUES, ESCAPE_VALUES},
+                new StandardFormatter.Option[]{QUOTE_VALUES_IF_NEEDED, ESCAPE_VALUES},
+                new StandardFormatter.Option[]{ESCAPE_VALUES, SNAKE_CASE},
+                new StandardFormatter.Option[]{MAIN_MESSAGE_IS_LAST, SNAKE_CASE, ESCAPE_VALUES, QUOTE_VALUES_IF_NEEDED, SKIP_NULL_VALUES}
+        );
+        for (StandardFormatter.Option[] options : optionSets) {
+            StandardFormatter.Option[] compiledOptions = Arrays.copyOf(options, options.length + 1);
+            compiledOptions[options.length] = COMPILED;
+            assertThat(doAllLogging(compiledOptions)).isEqualTo(doAllLogging(options));
+        }
+
+        MapleSpi.instance().setFormatter(new StandardFormatter(COMPILED));
+        MapleFormatter specialized = MapleSpi.instance().generate(Schema.class).formatter();
+        assertThat(specialized).isInstanceOf(StandardFormatter.class).isNotSameAs(MapleSpi.instance().getFormatter());
+        assertThat(specialized.getClass()).isNotEqualTo(StandardFormatter.class);
+
+        // values without argument slots (e.g. snapshots) are read via PrimitiveNamesValues
+        StandardFormatter compiledPrimitives = (StandardFormatter) MapleSpi.instance().generate(Primitives.class).formatter();
+        SnapshotNamesValues snapshot = new SnapshotNamesValues();
+        MapleSpi.instance().setFormatter((logger, loggingLevel, loggerName, namesValues, mainMessage, t) -> snapshot.capture(namesValues));
+        MockMapleLogger.get(Primitives.class).info(s -> s.aBoolean(true).aDouble(-1.25).aLong(-2).anInt(42).anInteger(43));
+        StringBuilder compiled = new StringBuilder();
+        compiledPrimitives.formatTo(compiled, snapshot, "message");
+        StringBuilder standard = new StringBuilder();
+        new StandardFormatter().formatTo(standard, snapshot, "message");
+        assertThat(compiled.toString()).isEqualTo(standard.toString()).contains("anInt=42");
+    }
+
     @Test
     void testModelFormatter() {
         ObjectMapper mapper = new ObjectMapper();
@@ -129,6 +233,411 @@ class TestFormatters {
         assertThat(logger.logging()).containsExactly(new LogEvent(LoggingLevel.INFO, "first_name=Hay last_name=You address.street=\"123 Main St\" address.city=Newtown address.state=\"New Fornia\" address.zip=12225 age=10", null));
     }
 
+    @Test
+    void testJsonFormatter() {
+        MapleSpi.instance().setFormatter(new JsonFormatter());
+        MockMapleLogger<Schema> logger = doLogging();
+        assertThat(logger.logging()).containsExactly(new LogEvent(LoggingLevel.INFO, "{\"message\":\"the message\",\"firstName\":\"first name\",\"lastName\":\"last \\\"name\\\"\",\"address\":null,\"age\":100}", null));
+
+        MapleSpi.instance().setFormatter(new JsonFormatter("msg", SNAKE_CASE, SKIP_NULL_VALUES, MAIN_MESSAGE_IS_LAST));
+        logger = doLogging();
+        assertThat(logger.logging()).containsExactly(new LogEvent(LoggingLevel.INFO, "{\"first_name\":\"first name\",\"last_name\":\"last \\\"name\\\"\",\"age\":100,\"msg\":\"the message\"}", null));
+
+        MockMapleLogger<Primitives> primitivesLogger = MockMapleLogger.get(Primitives.class);
+        primitivesLogger.info(s -> s.aBoolean(true).aByte((byte) -1).aChar('"').aDouble(Double.NaN).aFloat(1.5f).aLong(-2).aShort((short) 7).anInt(42));
+        assertThat(primitivesLogger.logging()).containsExactly(new LogEvent(LoggingLevel.INFO, "{\"a_boolean\":true,\"a_byte\":-1,\"a_char\":\"\\\"\",\"a_double\":\"NaN\",\"a_float\":1.5,\"a_long\":-2,\"a_short\":7,\"an_int\":42}", null));
+
+        // a field with the main message's name is renamed so that keys aren't duplicated
+        MapleSpi.instance().setFormatter(new JsonFormatter("name"));
+        MockMapleLogger<BasicSchema> basicLogger = MockMapleLogger.get(BasicSchema.class);
+        basicLogger.info("the message", s -> s.name("n").qty(1));
+        assertThat(basicLogger.logging()).containsExactly(new LogEvent(LoggingLevel.INFO, "{\"name\":\"the message\",\"_name\":\"n\",\"qty\":1}", null));
+
+        // the renamed field must not collide with the schema's other fields either
+        MapleSpi.instance().setFormatter(new JsonFormatter());
+        MockMapleLogger<ReservedNames> reservedLogger = MockMapleLogger.get(ReservedNames.class);
+        reservedLogger.info("the message", s -> s.message("a")._message("b"));
+        assertThat(reservedLogger.logging()).containsExactly(new LogEvent(LoggingLevel.INFO, "{\"message\":\"the message\",\"_message\":\"b\",\"__message\":\"a\"}", null));
+    }
+
+    @Test
+    void testToJsonString() {
+        assertThat(toJsonString("one")).isEqualTo("\"one\"");
+        assertThat(toJsonString("")).isEqualTo("\"\"");
+        assertThat(toJsonString("a \"b\" \\c")).isEqualTo("\"a \\\"b\\\" \\\\c\"");
+        assertThat(toJsonString("one\ttwo\rthree\nfour")).isEqualTo("\"one\\ttwo\\rthree\\nfour\"");
+        assertThat(toJsonString("\u0001\u001f")).isEqualTo("\"\\u0001\\u001f\"");
+    }
+
+    @Test
+    void testStructuredMessageRenderedBySink() {
+        AtomicInteger renderCount = new AtomicInteger();
+        StructuredMessage.Renderer renderer = (sink, namesValues, mainMessage) -> {
+            renderCount.incrementAndGet();
+            sink.append(mainMessage).append(' ').append(namesValues.nthValue(0));
+        };
+        SnapshotNamesValues namesValues = new SnapshotNamesValues();
+        MapleSpi.instance().setFormatter((logger, loggingLevel, loggerName, values, mainMessage, t) -> namesValues.capture(values));
+        MockMapleLogger.get(Schema.class).info(s -> s.name("first", "last"));
+        StructuredMessage message = new StructuredMessage(renderer, namesValues, "hello");
+        StringBuilder sink = new StringBuilder("prefix ");
+        message.formatTo(sink);
+        assertThat(message.toString()).isEqualTo("hello first");    // e.g. an appender that defers processing renders before the call returns
+        message.detach();
+        namesValues.clear();    // the logger call has returned - the original names/values are no longer valid
+        assertThat(sink.toString()).isEqualTo("prefix hello first");
+        assertThat(message.toString()).isEqualTo("hello first");
+        assertThat(renderCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testStructuredMessageDetach() {
+        AtomicInteger evaluations = new AtomicInteger();
+        List<StructuredMessage> messages = new ArrayList<>();
+        StructuredMessage.Renderer renderer = new JsonFormatter(SKIP_NULL_VALUES)::formatTo;
+        MapleSpi.instance().setFormatter((logger, loggingLevel, loggerName, namesValues, mainMessage, t) -> {
+            StructuredMessage message = new StructuredMessage(renderer, namesValues, mainMessage);
+            messages.add(message);
+            if (mainMessage.equals("consumed")) {
+                message.formatTo(new StringBuilder());
+            }
+            message.detach();
+        });
+        MockMapleLogger<Deferred> logger = MockMapleLogger.get(Deferred.class);
+        logger.info("kept", s -> s.name("a").description(() -> "d" + evaluations.incrementAndGet()).count(evaluations::incrementAndGet));
+        logger.info("consumed", s -> s.name("b").description(() -> "d" + evaluations.incrementAndGet()));
+        assertThat(evaluations.get()).isEqualTo(1);    // only the sink's rendering - detaching doesn't call suppliers
+
+        assertThat(messages.get(0).toString()).isEqualTo("{\"message\":\"kept\",\"count\":2,\"description\":\"d3\",\"name\":\"a\"}");
+        assertThat(messages.get(0).toString()).isEqualTo("{\"message\":\"kept\",\"count\":2,\"description\":\"d3\",\"name\":\"a\"}");
+        assertThat(messages.get(1).toString()).isEmpty();    // rendered by a sink during the call and not kept - nothing was copied
+        assertThat(evaluations.get()).isEqualTo(3);
+    }
+
+    @Test
+    void testAsyncFormatter() {
+        AsyncFormatter formatter = new AsyncFormatter(new StandardFormatter(SKIP_NULL_VALUES));
+        try {
+            MapleSpi.instance().setFormatter(formatter);
+            MockMapleLogger<Schema> logger = MockMapleLogger.get(Schema.class);
+            logger.info("the message", s -> s.firstName("first name").lastName("last \"name\"").age(100));
+            logger.warn(s -> s.name("a", "b"));
+            formatter.flush();
+            assertThat(logger.logging()).containsExactly(
+                    new LogEvent(LoggingLevel.INFO, "the message firstName=first name lastName=last \"name\" age=100", null),
+                    new LogEvent(LoggingLevel.WARN, "firstName=a lastName=b", null)
+            );
+
+            MockMapleLogger<HasRequired> required = MockMapleLogger.get(HasRequired.class);
+            assertThatThrownBy(() -> required.info(s -> {})).isInstanceOf(MissingSchemaValueException.class);
+        } finally {
+            formatter.close();
+        }
+
+        MockMapleLogger<Schema> logger = MockMapleLogger.get(Schema.class);
+        logger.info(s -> s.name("after", "close"));
+        assertThat(logger.logging()).containsExactly(new LogEvent(LoggingLevel.INFO, "firstName=after lastName=close", null));
+    }
+
+    @Test
+    void testAsyncFormatterFailure() {
+        List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        MapleFormatter failing = (logger, loggingLevel, loggerName, namesValues, mainMessage, t) -> {
+            if (mainMessage.equals("bad")) {
+                throw new IllegalStateException("test");
+            }
+            messages.add(mainMessage);
+        };
+        AsyncFormatter formatter = new AsyncFormatter(failing);
+        try {
+            SnapshotNamesValues empty = new SnapshotNamesValues();
+            formatter.apply((msg, t) -> {}, LoggingLevel.INFO, "test", empty, "bad", null);
+            formatter.apply((msg, t) -> {}, LoggingLevel.INFO, "test", empty, "good", null);
+            formatter.flush();
+            assertThat(messages).containsExactly("good");
+            assertThat(formatter.getFailedCount()).isEqualTo(1);
+        } finally {
+            formatter.close();
+        }
+    }
+
+    @Test
+    void testAsyncFormatterDrainsAfterError() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        MapleFormatter fatal = (logger, loggingLevel, loggerName, namesValues, mainMessage, t) -> {
+            if (mainMessage.equals("fatal")) {
+                started.countDown();
+                try {
+                    proceed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new AssertionError("test");
+            }
+            messages.add(mainMessage);
+        };
+        AsyncFormatter formatter = new AsyncFormatter(fatal);
+        try {
+            SnapshotNamesValues empty = new SnapshotNamesValues();
+            formatter.apply((msg, t) -> {}, LoggingLevel.INFO, "test", empty, "fatal", null);
+            started.await();    // consumer is now stuck formatting "fatal"
+            formatter.apply((msg, t) -> {}, LoggingLevel.INFO, "test", empty, "1", null);
+            formatter.apply((msg, t) -> {}, LoggingLevel.INFO, "test", empty, "2", null);
+            proceed.countDown();
+            formatter.flush();
+        } finally {
+            formatter.close();
+        }
+        assertThat(messages).containsExactly("1", "2");
+    }
+
+    @Test
+    void testAsyncFormatterDropOldest() throws InterruptedException {
+        List<String> messages = asyncWithBlockedConsumer(AsyncFormatter.BackpressurePolicy.DROP_OLDEST, 1);
+        assertThat(messages).containsExactly("1", "3", "4", "5", "6");
+    }
+
+    @Test
+    void testAsyncFormatterDropBelowWarn() throws InterruptedException {
+        List<String> messages = asyncWithBlockedConsumer(AsyncFormatter.BackpressurePolicy.DROP_BELOW_WARN, 1);
+        assertThat(messages).containsExactly("1", "2", "3", "4", "5");
+    }
+
+    private List<String> asyncWithBlockedConsumer(AsyncFormatter.BackpressurePolicy backpressurePolicy, long expectedDropped) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        MapleFormatter blocking = (logger, loggingLevel, loggerName, namesValues, mainMessage, t) -> {
+            messages.add(mainMessage);
+            started.countDown();
+            try {
+                proceed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        AsyncFormatter formatter = new AsyncFormatter(blocking, 4, AsyncFormatter.WaitStrategy.YIELD, backpressurePolicy);
+        try {
+            SnapshotNamesValues empty = new SnapshotNamesValues();
+            formatter.apply((msg, t) -> {}, LoggingLevel.INFO, "test", empty, "1", null);
+            started.await();    // consumer is now stuck formatting "1" - the ring has 4 free slots
+            for (int i = 2; i <= 6; ++i) {
+                formatter.apply((msg, t) -> {}, LoggingLevel.INFO, "test", empty, Integer.toString(i), null);
+            }
+            assertThat(formatter.getDroppedCount()).isEqualTo(expectedDropped);
+        } finally {
+            proceed.countDown();
+            formatter.close();
+        }
+        return messages;
+    }
+
+    @Test
+    void testBatchingFormatter() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WritableByteChannel outChannel = Channels.newChannel(out);
+        AtomicInteger writes = new AtomicInteger();
+        WritableByteChannel channel = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                writes.incrementAndGet();
+                return outChannel.write(src);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        BatchingFormatter formatter = new BatchingFormatter(new StandardFormatter(SKIP_NULL_VALUES), channel, BatchingFormatter.STANDARD_LAYOUT, 1024, Duration.ofMinutes(1));
+        MockMapleLogger<Schema> logger;
+        try {
+            MapleSpi.instance().setFormatter(formatter);
+            logger = MockMapleLogger.get(Schema.class);
+            for (int i = 0; i < 100; ++i) {
+                int age = i;
+                logger.info(s -> s.name("a", "b").age(age));
+            }
+            logger.error("failed", new IOException("boom"), s -> s.name("c", "\u00e9"));
+            assertThat(writes.get()).isBetween(1, 10);
+            formatter.flush();
+        } finally {
+            formatter.close();
+        }
+
+        assertThat(logger.logging()).isEmpty();
+        List<String> lines = Arrays.asList(new String(out.toByteArray(), StandardCharsets.UTF_8).split(System.lineSeparator()));
+        assertThat(lines.subList(0, 100)).allSatisfy(line -> assertThat(line).matches("\\S+ INFO  dummy - firstName=a lastName=b age=\\d+"));
+        assertThat(lines.get(99)).endsWith("age=99");
+        assertThat(lines.get(100)).endsWith(" ERROR dummy - failed firstName=c lastName=\u00e9");
+        assertThat(lines.get(101)).isEqualTo("java.io.IOException: boom");
+
+        logger.info(s -> s.name("after", "close"));
+        assertThat(logger.logging()).containsExactly(new LogEvent(LoggingLevel.INFO, "firstName=after lastName=close", null));
+    }
+
+    @Test
+    void testBatchingFormatterNestedLogging() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SnapshotNamesValues empty = new SnapshotNamesValues();
+        BatchingFormatter[] holder = new BatchingFormatter[1];
+        // formatting each "outer" event logs a nested event (e.g. from a value's toString())
+        MapleFormatter nesting = (logger, loggingLevel, loggerName, namesValues, mainMessage, t) -> {
+            if (mainMessage.equals("outer")) {
+                holder[0].apply(logger, LoggingLevel.WARN, "nested", empty, "inner", null);
+                logger.log(mainMessage, t);
+            } else if (mainMessage.equals("structured")) {
+                logger.logStructured(new StructuredMessage((sink, nv, message) -> {
+                    sink.append(message);
+                    holder[0].apply(logger, LoggingLevel.WARN, "nested", empty, "inner", null);
+                }, namesValues, mainMessage), t);
+            } else {
+                logger.log(mainMessage, t);
+            }
+        };
+        BatchingFormatter formatter = new BatchingFormatter(nesting, Channels.newChannel(out), BatchingFormatter.STANDARD_LAYOUT, 1024, Duration.ofMinutes(1));
+        holder[0] = formatter;
+        try {
+            formatter.apply((msg, t) -> {}, LoggingLevel.INFO, "outer.logger", empty, "outer", null);
+            formatter.apply((msg, t) -> {}, LoggingLevel.INFO, "outer.logger", empty, "structured", null);
+        } finally {
+            formatter.close();
+        }
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split(System.lineSeparator());
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).endsWith(" WARN  nested - inner");
+        assertThat(lines[1]).endsWith(" INFO  outer.logger - outer");
+        assertThat(lines[2]).endsWith(" INFO  outer.logger - structured");
+        assertThat(lines[3]).endsWith(" WARN  nested - inner");
+    }
+
+    @Test
+    void testBatchingFormatterReleasesIdleBatches() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchingFormatter formatter = new BatchingFormatter(new StandardFormatter(), Channels.newChannel(out), BatchingFormatter.STANDARD_LAYOUT, 16, Duration.ofMinutes(1));
+        try {
+            SnapshotNamesValues empty = new SnapshotNamesValues();
+            formatter.apply((msg, t) -> {}, LoggingLevel.INFO, "test", empty, "a message longer than the batch size", null);
+            formatter.flush();
+            formatter.flush();  // idle since the last flush - the batch's buffers are released
+            formatter.apply((msg, t) -> {}, LoggingLevel.INFO, "test", empty, "again", null);
+            formatter.flush();
+        } finally {
+            formatter.close();
+        }
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split(System.lineSeparator());
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).endsWith(" INFO  test - a message longer than the batch size");
+        assertThat(lines[1]).endsWith(" INFO  test - again");
+    }
+
+    @Test
+    void testBatchingFormatterFailure() {
+        AtomicInteger writes = new AtomicInteger();
+        WritableByteChannel channel = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                if (writes.incrementAndGet() == 1) {
+                    throw new IOException("test");
+                }
+                int remaining = src.remaining();
+                src.position(src.limit());
+                return remaining;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        BatchingFormatter formatter = new BatchingFormatter(new StandardFormatter(), channel, BatchingFormatter.STANDARD_LAYOUT, 1024, Duration.ofMinutes(1));
+        try {
+            SnapshotNamesValues empty = new SnapshotNamesValues();
+            formatter.apply((msg, t) -> {}, LoggingLevel.INFO, "test", empty, "lost", null);
+            formatter.flush();
+            formatter.apply((msg, t) -> {}, LoggingLevel.INFO, "test", empty, "written", null);
+            formatter.flush();
+            assertThat(writes.get()).isEqualTo(2);
+            assertThat(formatter.getFailedCount()).isEqualTo(1);
+        } finally {
+            formatter.close();
+        }
+    }
+
+    @Test
+    void testModelFormatterAccessors() {
+        AtomicInteger treeCount = new AtomicInteger();
+        ObjectMapper mapper = new ObjectMapper() {
+            @Override
+            public <T extends JsonNode> T valueToTree(Object fromValue) {
+                treeCount.incrementAndGet();
+                return super.valueToTree(fromValue);
+            }
+        };
+        MapleSpi.instance().setFormatter(new ModelFormatter(forMapper(mapper), SNAKE_CASE, QUOTE_VALUES_IF_NEEDED, ESCAPE_VALUES));
+        MockMapleLogger<ModelSchema> treeLogger = MockMapleLogger.get(ModelSchema.class);
+        MapleSpi.instance().setFormatter(new ModelFormatter(mapper, SNAKE_CASE, QUOTE_VALUES_IF_NEEDED, ESCAPE_VALUES));
+        MockMapleLogger<ModelSchema> planLogger = MockMapleLogger.get(ModelSchema.class);
+
+        Address address = new Address("123 Main St", "Newtown", null, "12225", "do not show");
+        Customer customer = new Customer("Joe \"Q\"", address, Arrays.asList("a", "b c"), Collections.singletonMap("x", 1), LoggingLevel.WARN, new UUID(1, 2), null, 5, null);
+        planLogger.info(s -> s.code("abc").customer(customer).other(new BigDecimal("1.50")));
+        assertThat(planLogger.logging()).containsExactly(new LogEvent(LoggingLevel.INFO, "code=abc customer.name=\"Joe \\\"Q\\\"\" customer.address.street=\"123 Main St\" customer.address.city=Newtown customer.address.state=null customer.address.zip=12225 customer.tags.0=a customer.tags.1=\"b c\" customer.counts.x=1 customer.level=WARN customer.id=00000000-0000-0001-0000-000000000002 customer.rank=null customer.qty=5 other=1.5", null));
+        assertThat(treeCount.get()).isEqualTo(5);   // only tags, counts, level, id and other need a tree
+
+        List<Statement<ModelSchema>> statements = Arrays.asList(
+                s -> s.code("abc").customer(customer).other(new BigDecimal("1.50")),
+                s -> s.customer(new Customer("a", null, null, null, null, null, 1, 2, "nick")).other(customer),
+                s -> s.other(Arrays.asList(address, 1, 2.5, true, 'c')).code(null),
+                s -> s.other(Collections.singletonMap("address", address))
+        );
+        for (Statement<ModelSchema> statement : statements) {
+            treeLogger.clear();
+            planLogger.clear();
+            treeLogger.info(statement);
+            planLogger.info(statement);
+            assertThat(planLogger.logging()).isEqualTo(treeLogger.logging());
+        }
+    }
+
+    private List<LogEvent> doAllLogging(StandardFormatter.Option... options) {
+        MapleSpi.instance().setFormatter(new StandardFormatter(options));
+        MockMapleLogger<Schema> logger = MockMapleLogger.get(Schema.class);
+        logger.info("the message", s -> s.firstName("first name").lastName("last \"name\"").age(100));
+        logger.warn(s -> s.firstName("a\tb").lastName("c\\d").address(new Address("1 Main", "city", "state", "zip", "")));
+        logger.debug("just a message", s -> s.name("", "").age(-1));
+        MockMapleLogger<Primitives> primitivesLogger = MockMapleLogger.get(Primitives.class);
+        primitivesLogger.info(s -> s.aBoolean(true).aByte((byte) -1).aChar('"').aDouble(-1.25).aFloat(1.1f).aLong(Long.MAX_VALUE).aShort((short) 7).anInt(42).anInteger(43));
+        primitivesLogger.info("message", s -> s.anInt(1));
+        MockMapleLogger<Deferred> deferredLogger = MockMapleLogger.get(Deferred.class);
+        deferredLogger.info(s -> s.name("deferred").description(() -> "a description").count(() -> 10).total(() -> -1L));
+        deferredLogger.info(s -> s.description(() -> null));
+        MockMapleLogger<HasMdcDefault> mdcLogger = MockMapleLogger.get(HasMdcDefault.class);
+        mdcLogger.info(s -> s.name("no mdc"));
+        try (MdcCloseable ignore = mdcLogger.mdc(s -> s.mdcValue(10))) {
+            mdcLogger.info(s -> s.name("mdc"));
+        }
+        List<LogEvent> logging = new ArrayList<>(logger.logging());
+        logging.addAll(primitivesLogger.logging());
+        logging.addAll(deferredLogger.logging());
+        logging.addAll(mdcLogger.logging());
+        return logging;
+    }
+
     private MockMapleLogger<Schema> doLogging() {
         MockMapleLogger<Schema> logger = MockMapleLogger.get(Schema.class);
         logger.info("the message", s -> s.firstName("first name").lastName("last \"name\"").age(100));
@@ -141,6 +650,18 @@ class TestFormatters {
         return str.toString();
     }
 
+    private String toJsonString(String value) {
+        StringBuilder str = new StringBuilder();
+        JsonFormatter.addJsonString(str, value);
+        return str.toString();
+    }
+
+    private String toEscapedValueQuotedIfNeeded(Object value) {
+        StringBuilder str = new StringBuilder();
+        StandardFormatter.addEscapedValueQuotedIfNeeded(str, value);
+        return str.toString();
+    }
+
     private String toEscapedValue(String value, boolean escapeSpaces) {
         StringBuilder str = new StringBuilder();
         StandardFormatter.addEscapedValue(str, value, escapeSpaces);
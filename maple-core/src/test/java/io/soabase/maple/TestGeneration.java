@@ -52,6 +52,67 @@ class TestGeneration {
         assertThat(namesValues.nthName(1)).isEqualTo("qty");
         assertThat(namesValues.nthValue(0)).isEqualTo("test");
         assertThat(namesValues.nthValue(1)).isEqualTo(10);
+        assertThat(namesValues.schemaNames()).isSameAs(names);
+    }
+
+    @Test
+    void testRecycledInstances() {
+        Names names = buildNames(BasicSchema.class);
+        MetaInstance<BasicSchema> metaInstance = generate(names, BasicSchema.class);
+
+        BasicSchema instance = metaInstance.acquireSchemaInstance();
+        instance.name("test").qty(10);
+        NamesValues namesValues = metaInstance.toNamesValues(instance);
+        assertThat(namesValues.nthValue(0)).isEqualTo("test");
+        assertThat(namesValues.nthValue(1)).isEqualTo(10);
+
+        BasicSchema reentrant = metaInstance.acquireSchemaInstance();
+        assertThat(reentrant).isNotSameAs(instance);
+        metaInstance.releaseSchemaInstance(reentrant);
+
+        metaInstance.releaseSchemaInstance(instance);
+        assertThat(namesValues.nthValue(0)).isNull();
+        assertThat(namesValues.nthValue(1)).isNull();
+
+        BasicSchema recycled = metaInstance.acquireSchemaInstance();
+        assertThat(recycled).isSameAs(instance);
+        assertThat(metaInstance.toNamesValues(recycled)).isSameAs(namesValues);
+        metaInstance.releaseSchemaInstance(recycled);
+    }
+
+    @Test
+    void testPrimitives() {
+        Names names = buildNames(Primitives.class);
+        MetaInstance<Primitives> metaInstance = generate(names, Primitives.class);
+
+        Primitives instance = metaInstance.newSchemaInstance();
+        instance.aBoolean(true).aByte((byte) 1).aChar('c').aDouble(1.5).aFloat(2.5f).aLong(Long.MAX_VALUE).aShort((short) 3).anInt(4);
+        PrimitiveNamesValues namesValues = (PrimitiveNamesValues) metaInstance.toNamesValues(instance);
+        assertThat(namesValues.nthValueType(0)).isEqualTo(ValueType.BOOLEAN);
+        assertThat(namesValues.nthBoolean(0)).isTrue();
+        assertThat(namesValues.nthValueType(1)).isEqualTo(ValueType.INT);
+        assertThat(namesValues.nthLong(1)).isEqualTo(1);
+        assertThat(namesValues.nthValueType(2)).isEqualTo(ValueType.OBJECT);
+        assertThat(namesValues.nthValue(2)).isEqualTo('c');
+        assertThat(namesValues.nthValueType(3)).isEqualTo(ValueType.DOUBLE);
+        assertThat(namesValues.nthDouble(3)).isEqualTo(1.5);
+        assertThat(namesValues.nthValueType(4)).isEqualTo(ValueType.FLOAT);
+        assertThat(namesValues.nthDouble(4)).isEqualTo(2.5);
+        assertThat(namesValues.nthValueType(5)).isEqualTo(ValueType.LONG);
+        assertThat(namesValues.nthLong(5)).isEqualTo(Long.MAX_VALUE);
+        assertThat(namesValues.nthValueType(6)).isEqualTo(ValueType.INT);
+        assertThat(namesValues.nthLong(6)).isEqualTo(3);
+        assertThat(namesValues.nthValueType(7)).isEqualTo(ValueType.INT);
+        assertThat(namesValues.nthLong(7)).isEqualTo(4);
+        assertThat(namesValues.nthValueType(8)).isEqualTo(ValueType.OBJECT);
+        assertThat(namesValues.nthValue(8)).isNull();
+
+        // boxed access still works
+        assertThat(namesValues.nthValue(0)).isEqualTo(true);
+        assertThat(namesValues.nthValue(3)).isEqualTo(1.5);
+        assertThat(namesValues.nthValue(4)).isEqualTo(2.5f);
+        assertThat(namesValues.nthValue(5)).isEqualTo(Long.MAX_VALUE);
+        assertThat(namesValues.nthValue(7)).isEqualTo(4);
     }
 
     @Test
@@ -88,6 +149,10 @@ class TestGeneration {
     void testRequired() {
         Names names = buildNames(HasRequired.class);
         assertThat(names.nthSpecializations(1).contains(Specialization.REQUIRED)).isTrue();
+        assertThat(names.nthHasSpecialization(1, Specialization.REQUIRED)).isTrue();
+        assertThat(names.nthHasSpecialization(0, Specialization.REQUIRED)).isFalse();
+        assertThat(names.hasSpecialization(Specialization.REQUIRED)).isTrue();
+        assertThat(names.hasSpecialization(Specialization.DEFAULT_FROM_MDC)).isFalse();
 
         MetaInstance<HasRequired> metaInstance = generate(names, HasRequired.class);
         HasRequired instance = metaInstance.newSchemaInstance();
@@ -107,6 +172,21 @@ class TestGeneration {
     void testMdcDefaultValue() {
         Names names = buildNames(HasMdcDefault.class);
         assertThat(names.nthSpecializations(0).contains(Specialization.DEFAULT_FROM_MDC)).isTrue();
+        assertThat(names.nthHasSpecialization(0, Specialization.DEFAULT_FROM_MDC)).isTrue();
+        assertThat(names.hasSpecialization(Specialization.DEFAULT_FROM_MDC)).isTrue();
+        assertThat(names.hasSpecialization(Specialization.REQUIRED)).isFalse();
+    }
+
+    @Test
+    void testNoSpecializations() {
+        Names names = buildNames(BasicSchema.class);
+        assertThat(names.nthSpecializations(0)).isEmpty();
+        assertThat(names.hasSpecialization(Specialization.REQUIRED)).isFalse();
+        assertThat(names.hasSpecialization(Specialization.DEFAULT_FROM_MDC)).isFalse();
+
+        MetaInstance<BasicSchema> metaInstance = generate(names, BasicSchema.class);
+        NamesValues namesValues = metaInstance.toNamesValues(metaInstance.newSchemaInstance().name("test"));
+        assertThat(MapleSpi.instance().applySpecializations(namesValues)).isSameAs(namesValues);
     }
 
     @Test
@@ -16,12 +16,40 @@
 package io.soabase.maple;
 
 import io.soabase.maple.api.LoggingLevel;
+import io.soabase.maple.api.MdcCloseable;
+import io.soabase.maple.api.NamesValues;
 import io.soabase.maple.api.Statement;
 import io.soabase.maple.api.exceptions.InvalidSchemaException;
+import io.soabase.maple.core.EventCollapser;
+import io.soabase.maple.core.MapleContext;
+import io.soabase.maple.core.MapleMdc;
+import io.soabase.maple.core.Samplers;
+import io.soabase.maple.formatters.MapleMdcFormatter;
 import io.soabase.maple.schema.BasicSchema;
+import io.soabase.maple.schema.CollapsedSchema;
+import io.soabase.maple.schema.Deferred;
+import io.soabase.maple.schema.HasMdcDefault;
+import io.soabase.maple.schema.SampledSchema;
 import io.soabase.maple.schema.invalid.*;
+import io.soabase.maple.spi.MapleSpi;
+import io.soabase.maple.spi.MetaInstance;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -103,6 +131,278 @@ class TestLogging {
         );
     }
 
+    @Test
+    void testReuseSchemaInstances() {
+        MockMapleLogger<BasicSchema> logger = MockMapleLogger.get(BasicSchema.class);
+        MapleSpi.instance().setReuseSchemaInstances(true);
+        try {
+            logger.info(s -> s.qty(1).name("1"));
+            logger.info(s -> s.qty(2));
+            logger.info(s -> {
+                logger.warn(inner -> inner.name("inner"));
+                s.name("outer");
+            });
+        } finally {
+            MapleSpi.instance().setReuseSchemaInstances(false);
+        }
+        assertThat(logger.logging()).containsExactly(
+                new LogEvent(LoggingLevel.INFO, "name=1 qty=1", null),
+                new LogEvent(LoggingLevel.INFO, "qty=2", null),
+                new LogEvent(LoggingLevel.WARN, "name=inner", null),
+                new LogEvent(LoggingLevel.INFO, "name=outer", null)
+        );
+    }
+
+    @Test
+    void testReuseSchemaInstancesWithMdcDefaults() {
+        // the wrapper for MDC defaults is recycled with the instance - a nested call while formatting gets its own
+        List<String> values = new ArrayList<>();
+        List<NamesValues> wrappers = new ArrayList<>();
+        AtomicReference<MockMapleLogger<HasMdcDefault>> loggerRef = new AtomicReference<>();
+        MapleSpi.instance().setFormatter((levelLogger, loggingLevel, loggerName, namesValues, mainMessage, t) -> {
+            if (mainMessage.equals("outer")) {
+                loggerRef.get().info("inner", s -> s.name("inner"));   // e.g. a value's toString() logs
+            }
+            values.add(namesValues.nthValue(0) + " " + namesValues.nthValue(1));
+            wrappers.add(namesValues);
+        });
+        MockMapleLogger<HasMdcDefault> logger = MockMapleLogger.get(HasMdcDefault.class);
+        loggerRef.set(logger);
+        MapleSpi.instance().setReuseSchemaInstances(true);
+        try (MdcCloseable ignore = logger.mdc(s -> s.mdcValue(10))) {
+            logger.info("outer", s -> s.name("outer"));
+            logger.info("again", s -> s.name("again"));
+        } finally {
+            MapleSpi.instance().setReuseSchemaInstances(false);
+            MapleSpi.instance().setFormatter(null);
+        }
+        assertThat(values).containsExactly("10 inner", "10 outer", "10 again");
+        assertThat(wrappers.get(1)).isSameAs(wrappers.get(2)).isNotSameAs(wrappers.get(0));
+    }
+
+    @Test
+    void testContextPropagation() throws Exception {
+        MockMapleLogger<HasMdcDefault> logger = MockMapleLogger.get(HasMdcDefault.class);
+        ExecutorService executorService = MapleContext.wrapExecutorService(Executors.newSingleThreadExecutor());
+        try {
+            try (MdcCloseable ignore = logger.mdc(s -> s.mdcValue(10))) {
+                assertThat(MapleContext.current().get("mdcValue")).isEqualTo("10");
+                logger.info(s -> s.name("caller"));
+                executorService.submit(() -> logger.info(s -> s.name("executor"))).get();
+
+                CompletableFuture<String> future = new CompletableFuture<>();
+                CompletionStage<Void> dependent = MapleContext.current().wrap(future).thenAccept(name -> logger.info(s -> s.name(name)));
+                CompletableFuture.runAsync(() -> future.complete("stage")).get();   // completed (and dependent run) in a thread without the context
+                dependent.toCompletableFuture().get();
+
+                try (MdcCloseable nested = logger.mdc(s -> s.mdcValue(20))) {
+                    logger.info(s -> s.name("nested"));
+                }
+                logger.info(s -> s.name("restored"));
+            }
+            assertThat(MapleContext.current().size()).isEqualTo(0);
+            logger.info(s -> s.name("after"));
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertThat(logger.logging()).containsExactly(
+                new LogEvent(LoggingLevel.INFO, "mdc_value=10 name=caller", null),
+                new LogEvent(LoggingLevel.INFO, "mdc_value=10 name=executor", null),
+                new LogEvent(LoggingLevel.INFO, "mdc_value=10 name=stage", null),
+                new LogEvent(LoggingLevel.INFO, "mdc_value=20 name=nested", null),
+                new LogEvent(LoggingLevel.INFO, "mdc_value=10 name=restored", null),
+                new LogEvent(LoggingLevel.INFO, "name=after", null)
+        );
+    }
+
+    @Test
+    void testContextBinding() {
+        MockMapleLogger<HasMdcDefault> logger = MockMapleLogger.get(HasMdcDefault.class);
+        MetaInstance<HasMdcDefault> metaInstance = MapleSpi.instance().generate(HasMdcDefault.class);
+        HasMdcDefault instance = metaInstance.newSchemaInstance();
+        MapleContext context = MapleContext.empty().with(metaInstance.toNamesValues(instance.mdcValue(10)));
+        assertThat(context.get("mdcValue")).isEqualTo("10");
+
+        TestContextBinding.runBound(context, () -> {
+            logger.info(s -> s.name("bound"));
+            try (MdcCloseable ignore = logger.mdc(s -> s.name("inner"))) {
+                assertThat(MapleContext.current().get("mdcValue")).isEqualTo("10");   // derived from the bound context
+                assertThat(MapleContext.current().get("name")).isEqualTo("inner");
+                logger.info(s -> s.mdcValue(20));
+            }
+            logger.info(s -> s.name("restored"));
+        });
+        logger.info(s -> s.name("unbound"));
+        assertThat(logger.logging()).containsExactly(
+                new LogEvent(LoggingLevel.INFO, "mdc_value=10 name=bound", null),
+                new LogEvent(LoggingLevel.INFO, "mdc_value=20", null),
+                new LogEvent(LoggingLevel.INFO, "mdc_value=10 name=restored", null),
+                new LogEvent(LoggingLevel.INFO, "name=unbound", null)
+        );
+    }
+
+    @Test
+    void testFilter() {
+        MockMapleLogger<BasicSchema> logger = MockMapleLogger.get(BasicSchema.class);
+        AtomicInteger evaluations = new AtomicInteger();
+        MapleSpi.instance().setFilter((loggingLevel, loggerName, mainMessage) -> loggingLevel != LoggingLevel.DEBUG);
+        MapleSpi.instance().setFilter(MapleSpi.instance().getFilter().and((loggingLevel, loggerName, mainMessage) -> !mainMessage.startsWith("noisy")));
+        try {
+            logger.info("kept", s -> s.qty(evaluations.incrementAndGet()));
+            logger.debug("filtered by level", s -> s.qty(evaluations.incrementAndGet()));
+            logger.warn("noisy message", s -> s.qty(evaluations.incrementAndGet()));
+        } finally {
+            MapleSpi.instance().reset();
+        }
+        logger.debug("after reset", s -> s.qty(evaluations.incrementAndGet()));
+
+        assertThat(evaluations.get()).isEqualTo(2);
+        assertThat(logger.logging()).containsExactly(
+                new LogEvent(LoggingLevel.INFO, "qty=1 kept", null),
+                new LogEvent(LoggingLevel.DEBUG, "qty=2 after reset", null)
+        );
+    }
+
+    @Test
+    void testDeferredValues() {
+        MockMapleLogger<Deferred> logger = MockMapleLogger.get(Deferred.class);
+        AtomicInteger evaluations = new AtomicInteger();
+        MapleSpi.instance().setFilter((loggingLevel, loggerName, mainMessage) -> loggingLevel != LoggingLevel.DEBUG);
+        try {
+            logger.debug(s -> s.name("filtered").description(() -> "d" + evaluations.incrementAndGet()).count(evaluations::incrementAndGet));
+            logger.info(s -> s.name("logged").description(() -> "d" + evaluations.incrementAndGet()).count(evaluations::incrementAndGet).total(() -> Long.MAX_VALUE));
+            logger.info(s -> s.name("nulls").description(() -> null).count(null));
+        } finally {
+            MapleSpi.instance().reset();
+        }
+        assertThat(evaluations.get()).isEqualTo(2);
+        assertThat(logger.logging()).containsExactly(
+                new LogEvent(LoggingLevel.INFO, "count=1 description=d2 name=logged total=9223372036854775807", null),
+                new LogEvent(LoggingLevel.INFO, "name=nulls", null)
+        );
+    }
+
+    @Test
+    void testSampling() throws InterruptedException {
+        AtomicInteger evaluations = new AtomicInteger();
+        MockMapleLogger<BasicSchema> logger = MockMapleLogger.get(BasicSchema.class, Samplers.ratio(3));
+        for (int i = 1; i <= 7; ++i) {
+            int qty = i;
+            logger.info(s -> s.qty(qty).name(Integer.toString(evaluations.incrementAndGet())));
+        }
+        assertThat(evaluations.get()).isEqualTo(3);
+        assertThat(logger.logging()).containsExactly(
+                new LogEvent(LoggingLevel.INFO, "name=1 qty=1", null),
+                new LogEvent(LoggingLevel.INFO, "name=2 qty=4", null),
+                new LogEvent(LoggingLevel.INFO, "name=3 qty=7", null)
+        );
+
+        logger = MockMapleLogger.get(BasicSchema.class, Samplers.ratio(2).withSummaryInterval(Duration.ZERO));
+        for (int i = 1; i <= 3; ++i) {
+            int qty = i;
+            logger.warn(s -> s.qty(qty));
+        }
+        assertThat(logger.logging()).containsExactly(
+                new LogEvent(LoggingLevel.WARN, "qty=1", null),
+                new LogEvent(LoggingLevel.WARN, "suppressed=1 sampled events suppressed", null),
+                new LogEvent(LoggingLevel.WARN, "qty=3", null)
+        );
+
+        logger = MockMapleLogger.get(BasicSchema.class, Samplers.keyed("name", () -> Samplers.ratio(2)));
+        for (String name : Arrays.asList("a", "a", "b", "a", "b")) {
+            logger.info(s -> s.name(name));
+        }
+        assertThat(logger.logging()).containsExactly(
+                new LogEvent(LoggingLevel.INFO, "name=a", null),
+                new LogEvent(LoggingLevel.INFO, "name=b", null),
+                new LogEvent(LoggingLevel.INFO, "name=a", null)
+        );
+
+        logger = MockMapleLogger.get(BasicSchema.class, Samplers.rateLimit(5));
+        long startNanos = System.nanoTime();
+        for (int i = 1; i <= 6; ++i) {
+            int qty = i;
+            logger.error(s -> s.qty(qty));
+        }
+        // the burst allows 5 events and a token is added every 200ms - slow machines can earn the 6th token
+        long earned = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) / 200;
+        assertThat(logger.logging()).hasSizeBetween(5, (int) Math.min(6, 5 + earned));
+
+        // the summary is logged even though nothing else is logged after the burst
+        logger = MockMapleLogger.get(BasicSchema.class, Samplers.ratio(2).withSummaryInterval(Duration.ofMillis(100)));
+        for (int i = 1; i <= 4; ++i) {
+            int qty = i;
+            logger.info(s -> s.qty(qty));
+        }
+        MockMapleLogger<BasicSchema> quietLogger = logger;
+        await(() -> quietLogger.logging().size() > 2);
+        assertThat(logger.logging()).containsExactly(
+                new LogEvent(LoggingLevel.INFO, "qty=1", null),
+                new LogEvent(LoggingLevel.INFO, "qty=3", null),
+                new LogEvent(LoggingLevel.INFO, "suppressed=2 sampled events suppressed", null)
+        );
+
+        assertThat(Samplers.forSchema(BasicSchema.class)).isNull();
+        assertThat(Samplers.forSchema(SampledSchema.class)).isNotNull().isSameAs(Samplers.forSchema(SampledSchema.class));
+        MockMapleLogger<SampledSchema> sampledLogger = MockMapleLogger.get(SampledSchema.class, Samplers.forSchema(SampledSchema.class));
+        for (int i = 1; i <= 4; ++i) {
+            int value = i;
+            sampledLogger.info(s -> s.value(value));
+            sampledLogger.debug(s -> s.value(value));
+        }
+        assertThat(sampledLogger.logging()).containsExactly(
+                new LogEvent(LoggingLevel.INFO, "value=1", null),
+                new LogEvent(LoggingLevel.DEBUG, "value=1", null),
+                new LogEvent(LoggingLevel.INFO, "value=3", null),
+                new LogEvent(LoggingLevel.DEBUG, "value=3", null)
+        );
+    }
+
+    @Test
+    void testCollapsing() throws InterruptedException {
+        MockMapleLogger<BasicSchema> logger = MockMapleLogger.get(BasicSchema.class, null, new EventCollapser(Duration.ofMinutes(1), 1, "name"));
+        logger.info(s -> s.name("a").qty(1));
+        logger.info(s -> s.name("a").qty(2));
+        logger.info(s -> s.name("a").qty(3));
+        logger.info(s -> s.name("b").qty(4));
+        logger.error(s -> s.name("b").qty(5));
+        assertThat(logger.logging()).containsExactly(
+                new LogEvent(LoggingLevel.INFO, "name=a qty=1", null),
+                new LogEvent(LoggingLevel.INFO, "name=a repeated=2 duplicate events collapsed", null),
+                new LogEvent(LoggingLevel.INFO, "name=b qty=4", null),
+                new LogEvent(LoggingLevel.ERROR, "name=b qty=5", null)
+        );
+
+        assertThat(EventCollapser.forSchema(BasicSchema.class)).isNull();
+        EventCollapser collapser = EventCollapser.forSchema(CollapsedSchema.class);
+        assertThat(collapser).isNotNull().isSameAs(EventCollapser.forSchema(CollapsedSchema.class));
+        MockMapleLogger<CollapsedSchema> collapsedLogger = MockMapleLogger.get(CollapsedSchema.class, null, collapser);
+        for (int i = 0; i < 3; ++i) {
+            collapsedLogger.warn(s -> s.code(1).detail("x"));
+        }
+        collapsedLogger.warn("different message", s -> s.code(1).detail("x"));
+        collapsedLogger.warn(new IOException(), s -> s.code(1).detail("x"));
+        Thread.sleep(500);
+        collapsedLogger.warn(s -> s.code(1).detail("y"));  // the expired entries have been swept by now
+        Thread.sleep(500);
+        collapsedLogger.warn(s -> s.code(2).detail("z"));
+        assertThat(collapser.size()).isEqualTo(1);
+        collapsedLogger.warn(s -> s.code(2).detail("z"));
+
+        // the summary is logged even though nothing else is logged after the storm
+        await(() -> collapsedLogger.logging().size() > 6);
+        assertThat(collapsedLogger.logging()).extracting(e -> e.message).containsExactly(
+                "code=1 detail=x",
+                "code=1 detail=x different message",
+                "code=1 detail=x",
+                "code=1 repeated=2 duplicate events collapsed",
+                "code=1 detail=y",
+                "code=2 detail=z",
+                "code=2 repeated=1 duplicate events collapsed"
+        );
+        assertThat(collapser.size()).isEqualTo(0);
+    }
+
     @Test
     void testInvalidSchema() {
         Stream.of(BadReturnType.class,
@@ -125,4 +425,38 @@ class TestLogging {
                 new LogEvent(LoggingLevel.WARN, "id=42", null)
         );
     }
+
+    @Test
+    void testMapleMdc() {
+        MapleMdc.clear();
+        MetaInstance<HasMdcDefault> metaInstance = MapleSpi.instance().generate(HasMdcDefault.class);
+        NamesValues namesValues = metaInstance.toNamesValues(metaInstance.newSchemaInstance());
+        int mdcIndex = namesValues.nthName(0).equals("mdcValue") ? 0 : 1;
+        try {
+            assertThat(MapleMdc.get(namesValues, mdcIndex)).isNull();
+            MapleMdc.put("mdcValue", 10);
+            MapleMdc.put("other", "a b");
+            assertThat(MapleMdc.get("mdcValue")).isEqualTo(10);
+            assertThat(MapleMdc.get(namesValues, mdcIndex)).isEqualTo(10);
+            assertThat(MapleMdc.get(namesValues, 1 - mdcIndex)).isNull();  // not an MDC default field
+
+            String formatted = new MapleMdcFormatter().formatMessage(new LogRecord(Level.INFO, "hello"));
+            assertThat(formatted).isEqualTo("hello mdcValue=10 other=\"a b\"");
+
+            MapleMdc.remove("mdcValue");
+            assertThat(MapleMdc.get(namesValues, mdcIndex)).isNull();
+            assertThat(MapleMdc.get("other")).isEqualTo("a b");
+            assertThat(CompletableFuture.supplyAsync(() -> MapleMdc.get("other")).join()).isNull();  // per-thread
+        } finally {
+            MapleMdc.clear();
+        }
+        assertThat(MapleMdc.get("other")).isNull();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && (System.nanoTime() - deadline) < 0) {
+            Thread.sleep(10);
+        }
+    }
 }
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.schema;
+
+public interface Primitives {
+    Primitives aBoolean(boolean b);
+
+    Primitives aByte(byte b);
+
+    Primitives aChar(char c);
+
+    Primitives aDouble(double d);
+
+    Primitives aFloat(float f);
+
+    Primitives aLong(long l);
+
+    Primitives aShort(short s);
+
+    Primitives anInt(int i);
+
+    Primitives anInteger(Integer i);
+}
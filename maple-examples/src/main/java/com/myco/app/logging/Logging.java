@@ -36,7 +36,8 @@ public class Logging {
         ObjectMapper mapper = new ObjectMapper();
 
         // use the ModelFormatter instead of the default StandardFormatter
-        MapleFormatter loggingFormatter = new ModelFormatter(ModelFormatter.NodeMapper.forMapper(mapper),
+        // passing the ObjectMapper directly causes model classes to be introspected once and cached
+        MapleFormatter loggingFormatter = new ModelFormatter(mapper,
                 SNAKE_CASE,              // outputs field names in snake_case_format
                 QUOTE_VALUES_IF_NEEDED, // quotes values only if they have a space
                 ESCAPE_VALUES,           // escapes quotes, backslashes, etc.
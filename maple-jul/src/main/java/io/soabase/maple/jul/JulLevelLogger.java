@@ -0,0 +1,69 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.jul;
+
+import io.soabase.maple.api.LevelLogger;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.StructuredMessage;
+
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+class JulLevelLogger implements LevelLogger {
+    private final Logger logger;
+    private final Level level;
+
+    JulLevelLogger(Logger logger, Level level) {
+        this.logger = logger;
+        this.level = level;
+    }
+
+    @Override
+    public void log(String msg, Throwable t) {
+        log(new MapleLogRecord(level, msg, logger.getName(), t));
+    }
+
+    @Override
+    public void logStructured(StructuredMessage message, Throwable t) {
+        log(new MapleLogRecord(level, message, logger.getName(), t));
+    }
+
+    void logRendered(StructuredMessage.Renderer renderer, NamesValues namesValues, String mainMessage, Throwable t) {
+        log(new MapleLogRecord(level, renderer, namesValues, mainMessage, logger.getName(), t));
+    }
+
+    private void log(MapleLogRecord record) {
+        try {
+            logger.log(record);
+        } finally {
+            record.detach(record.needsDetachedValues() && mayBeRetained());
+        }
+    }
+
+    // handlers only keep records that their level accepts (e.g. MemoryHandler) - records that are dropped by every handler need no snapshot
+    private boolean mayBeRetained() {
+        int levelValue = level.intValue();
+        for (Logger current = logger; current != null; current = current.getUseParentHandlers() ? current.getParent() : null) {
+            for (Handler handler : current.getHandlers()) {
+                if (levelValue >= handler.getLevel().intValue()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
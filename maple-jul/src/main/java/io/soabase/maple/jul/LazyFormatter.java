@@ -0,0 +1,74 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.jul;
+
+import io.soabase.maple.api.LevelLogger;
+import io.soabase.maple.api.LoggingLevel;
+import io.soabase.maple.api.MapleFormatter;
+import io.soabase.maple.api.Names;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.StructuredMessage;
+import io.soabase.maple.formatters.StandardFormatter;
+
+/**
+ * <p>
+ * Passes Maple events to java.util.logging as records whose message is rendered (with the given {@link StandardFormatter})
+ * only when a filter, handler or formatter asks for it. Events that are dropped by handler levels/filters are never formatted.
+ * </p>
+ *
+ * <p>
+ * Loggers that were not created by this module's {@link MapleFactory} are formatted with the standard formatter.
+ * </p>
+ *
+ * <pre>
+ * MapleFactory.setFormatter(new LazyFormatter(SNAKE_CASE, SKIP_NULL_VALUES));
+ * </pre>
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+public class LazyFormatter implements MapleFormatter {
+    private final StandardFormatter formatter;
+    private final StructuredMessage.Renderer renderer;
+
+    public LazyFormatter(StandardFormatter.Option... options) {
+        this(new StandardFormatter(options));
+    }
+
+    /**
+     * @param formatter renders the record message
+     */
+    public LazyFormatter(StandardFormatter formatter) {
+        this.formatter = formatter;
+        renderer = formatter::formatTo;
+    }
+
+    @Override
+    public MapleFormatter specialize(Class<?> schemaClass, Names names) {
+        MapleFormatter specialized = formatter.specialize(schemaClass, names);
+        if ((specialized != formatter) && (specialized instanceof StandardFormatter)) {
+            return new LazyFormatter((StandardFormatter) specialized);
+        }
+        return this;
+    }
+
+    @Override
+    public void apply(LevelLogger logger, LoggingLevel loggingLevel, String loggerName, NamesValues namesValues, String mainMessage, Throwable t) {
+        if (logger instanceof JulLevelLogger) {
+            ((JulLevelLogger) logger).logRendered(renderer, namesValues, mainMessage, t);
+        } else {
+            formatter.apply(logger, loggingLevel, loggerName, namesValues, mainMessage, t);
+        }
+    }
+}
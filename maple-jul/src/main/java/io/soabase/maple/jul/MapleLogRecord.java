@@ -0,0 +1,166 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.jul;
+
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.StructuredMessage;
+import io.soabase.maple.core.MapleLoggerBase;
+import io.soabase.maple.core.SnapshotNamesValues;
+import io.soabase.maple.formatters.StandardFormatter;
+
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * A record whose message is rendered the first time a filter, handler or formatter asks for it. While the
+ * logger call is in progress the record refers to the event's values. When the call returns, a record that has
+ * not been rendered keeps a snapshot of the values so that handlers that retain records (e.g. {@link java.util.logging.MemoryHandler})
+ * can still format it later. The snapshot does not call deferred value suppliers and is skipped when no handler's
+ * level accepted the record. The caller is inferred lazily as well - as with {@link LogRecord}, handlers that pass
+ * the record to another thread must request the source class/method first.
+ */
+class MapleLogRecord extends LogRecord {
+    private static final long serialVersionUID = 1L;
+
+    // records report the Maple caller as the caller
+    private static final String FQCN = MapleLoggerBase.class.getName();
+
+    private transient StructuredMessage structuredMessage;
+    private transient StructuredMessage.Renderer renderer;
+    private transient NamesValues namesValues;
+    private transient String mainMessage;
+    private transient boolean attached = true;
+    private transient boolean callerInferred;
+
+    MapleLogRecord(Level level, String msg, String loggerName, Throwable t) {
+        super(level, msg);
+        setLoggerName(loggerName);
+        setThrown(t);
+    }
+
+    MapleLogRecord(Level level, StructuredMessage structuredMessage, String loggerName, Throwable t) {
+        this(level, (String) null, loggerName, t);
+        this.structuredMessage = structuredMessage;
+    }
+
+    MapleLogRecord(Level level, StructuredMessage.Renderer renderer, NamesValues namesValues, String mainMessage, String loggerName, Throwable t) {
+        this(level, (String) null, loggerName, t);
+        this.renderer = renderer;
+        this.namesValues = namesValues;
+        this.mainMessage = mainMessage;
+    }
+
+    /**
+     * Called when the logger call has returned
+     *
+     * @param mayBeRetained false if no handler can have kept the record
+     */
+    void detach(boolean mayBeRetained) {
+        if (namesValues != null) {
+            if (mayBeRetained) {
+                SnapshotNamesValues snapshot = new SnapshotNamesValues();
+                snapshot.captureDeferred(namesValues);
+                namesValues = snapshot;
+            } else {
+                namesValues = null;
+            }
+        }
+        attached = false;
+    }
+
+    boolean needsDetachedValues() {
+        return namesValues != null;
+    }
+
+    @Override
+    public String getMessage() {
+        String message = super.getMessage();
+        if (message == null) {
+            if (structuredMessage != null) {
+                message = structuredMessage.toString();
+            } else if (namesValues != null) {
+                StringBuilder sink = new StringBuilder(StandardFormatter.STRING_BUILDER_CAPACITY);
+                renderer.render(sink, namesValues, mainMessage);
+                message = sink.toString();
+            }
+            setMessage(message);
+        }
+        return message;
+    }
+
+    @Override
+    public void setMessage(String message) {
+        structuredMessage = null;
+        renderer = null;
+        namesValues = null;
+        mainMessage = null;
+        super.setMessage(message);
+    }
+
+    @Override
+    public String getSourceClassName() {
+        if (!callerInferred) {
+            inferCaller();
+        }
+        return super.getSourceClassName();
+    }
+
+    @Override
+    public void setSourceClassName(String sourceClassName) {
+        callerInferred = true;
+        super.setSourceClassName(sourceClassName);
+    }
+
+    @Override
+    public String getSourceMethodName() {
+        if (!callerInferred) {
+            inferCaller();
+        }
+        return super.getSourceMethodName();
+    }
+
+    @Override
+    public void setSourceMethodName(String sourceMethodName) {
+        callerInferred = true;
+        super.setSourceMethodName(sourceMethodName);
+    }
+
+    private void inferCaller() {
+        StackTraceElement caller = null;
+        if (attached) {
+            // the caller is the first frame after the (innermost) Maple logger frames
+            boolean inMaple = false;
+            for (StackTraceElement element : new Throwable().getStackTrace()) {
+                boolean isMaple = FQCN.equals(element.getClassName());
+                if (inMaple && !isMaple) {
+                    caller = element;
+                    break;
+                }
+                inMaple = isMaple;
+            }
+        }
+        // always set - otherwise LogRecord infers the caller from the current stack
+        setSourceClassName((caller != null) ? caller.getClassName() : null);
+        setSourceMethodName((caller != null) ? caller.getMethodName() : null);
+    }
+
+    private Object writeReplace() {
+        // serialized records carry the rendered message and caller
+        getMessage();
+        getSourceClassName();
+        return this;
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.jul;
+
+import io.soabase.maple.api.LevelLogger;
+import io.soabase.maple.api.LoggingLevel;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+class Utils {
+    private static final Level[] levels = {Level.SEVERE, Level.WARNING, Level.INFO, Level.FINE, Level.FINEST};   // indexed by LoggingLevel ordinal
+
+    static boolean isEnabled(LoggingLevel level, Logger logger) {
+        return logger.isLoggable(levels[level.ordinal()]);
+    }
+
+    static LevelLogger levelLogger(LoggingLevel level, Logger logger) {
+        return new JulLevelLogger(logger, levels[level.ordinal()]);
+    }
+
+    private Utils() {
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.jul;
+
+import io.soabase.maple.api.MdcCloseable;
+import io.soabase.maple.spi.MapleSpi;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.logging.MemoryHandler;
+
+import static io.soabase.maple.formatters.StandardFormatter.Option.SKIP_NULL_VALUES;
+import static io.soabase.maple.formatters.StandardFormatter.Option.SNAKE_CASE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestLogging {
+    private static final String LOGGER_NAME = "maple.jul.test";
+
+    private final Logger julLogger = Logger.getLogger(LOGGER_NAME);
+    private final List<String> lines = new ArrayList<>();
+    private final List<String> callers = new ArrayList<>();
+    private final List<LogRecord> records = new ArrayList<>();
+    private final Handler handler = new Handler() {
+        @Override
+        public void publish(LogRecord record) {
+            records.add(record);
+            if (isLoggable(record)) {
+                lines.add(record.getLevel() + " " + record.getMessage());
+                callers.add(record.getSourceClassName() + "." + record.getSourceMethodName());
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @BeforeEach
+    void setup() {
+        julLogger.setLevel(Level.FINE);
+        julLogger.setUseParentHandlers(false);
+        julLogger.addHandler(handler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        julLogger.removeHandler(handler);
+        julLogger.setUseParentHandlers(true);
+        julLogger.setLevel(null);
+        MapleSpi.instance().reset();
+    }
+
+    @Test
+    void testStandardFormatter() {
+        MapleLogger<Schema> logger = MapleFactory.getLogger(LOGGER_NAME, Schema.class);
+        logger.info("hello", s -> s.firstName("first").age(42));
+        logger.error(new IOException("boom"), s -> s.age(1));
+        logger.warn(s -> s.age(2));
+        logger.debug(s -> s.age(3));
+        logger.trace(s -> s.age(4));    // not enabled
+
+        assertThat(lines).containsExactly("INFO age=42 first_name=first hello", "SEVERE age=1", "WARNING age=2", "FINE age=3");
+        assertThat(callers).containsOnly(TestLogging.class.getName() + ".testStandardFormatter");
+        assertThat(records.get(1).getThrown()).hasMessage("boom");
+        assertThat(records).allMatch(record -> record.getLoggerName().equals(LOGGER_NAME));
+    }
+
+    @Test
+    void testLazyFormatter() {
+        AtomicInteger renderCount = new AtomicInteger();
+        Object value = new Object() {
+            @Override
+            public String toString() {
+                return "value" + renderCount.incrementAndGet();
+            }
+        };
+
+        handler.setLevel(Level.INFO);
+        MapleFactory.setFormatter(new LazyFormatter(SNAKE_CASE, SKIP_NULL_VALUES));
+        MapleLogger<Schema> logger = MapleFactory.getLogger(LOGGER_NAME, Schema.class);
+        logger.debug(s -> s.value(value));  // dropped by the handler
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getMessage()).isNull();   // no handler's level accepted it so the values weren't copied
+        assertThat(renderCount.get()).isZero();
+
+        logger.info("hello", s -> s.firstName("first").value(value));
+        assertThat(lines).containsExactly("INFO hello first_name=first value=value1");
+        assertThat(callers).containsExactly(TestLogging.class.getName() + ".testLazyFormatter");
+        assertThat(records.get(1).getMessage()).isEqualTo("hello first_name=first value=value1");  // rendered once
+        assertThat(renderCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testRetainedRecords() {
+        // records are formatted after the logging call returned
+        MemoryHandler memoryHandler = new MemoryHandler(handler, 10, Level.OFF);
+        julLogger.removeHandler(handler);
+        julLogger.addHandler(memoryHandler);
+        try {
+            MapleFactory.setReuseSchemaInstances(true);
+            MapleFactory.setFormatter(new LazyFormatter(SNAKE_CASE, SKIP_NULL_VALUES));
+            MapleLogger<Schema> logger = MapleFactory.getLogger(LOGGER_NAME, Schema.class);
+            logger.info(s -> s.firstName("first").age(1));
+            logger.info(s -> s.firstName("second").age(2));
+            assertThat(records).isEmpty();
+            memoryHandler.push();
+        } finally {
+            julLogger.removeHandler(memoryHandler);
+        }
+
+        assertThat(lines).containsExactly("INFO age=1 first_name=first", "INFO age=2 first_name=second");
+        assertThat(records.get(0).getSourceClassName()).isNull();   // as with LogRecord, the caller must be requested before the call returns
+    }
+
+    @Test
+    void testMdc() {
+        MapleLogger<MdcSchema> logger = MapleFactory.getLogger(LOGGER_NAME, MdcSchema.class);
+        try {
+            MapleSpi.instance().putMdcValue("requestId", "r1");
+            logger.info(s -> s.name("a"));
+            try (MdcCloseable ignore = logger.mdc(s -> s.requestId("r2"))) {
+                assertThat(MapleSpi.instance().getMdcValue("requestId")).isEqualTo("r2");
+                logger.info(s -> s.name("b"));
+            }
+            logger.info(s -> s.name("c"));
+        } finally {
+            MapleSpi.instance().removeMdcValue("requestId");
+        }
+
+        assertThat(lines).containsExactly("INFO name=a request_id=r1", "INFO name=b request_id=r2", "INFO name=c request_id=r1");
+    }
+}
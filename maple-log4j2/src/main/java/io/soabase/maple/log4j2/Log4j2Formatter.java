@@ -0,0 +1,82 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.log4j2;
+
+import io.soabase.maple.api.LevelLogger;
+import io.soabase.maple.api.LoggingLevel;
+import io.soabase.maple.api.MapleFormatter;
+import io.soabase.maple.api.Names;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.StructuredMessage;
+import io.soabase.maple.formatters.JsonFormatter;
+import io.soabase.maple.formatters.StandardFormatter;
+
+/**
+ * <p>
+ * Passes Maple events to Log4j 2 as a reusable message that renders the values directly into Log4j 2's own
+ * (reusable) buffers - no intermediate String or message object is created per event. The text is rendered with
+ * the given {@link StandardFormatter}. The message also supports the {@code JSON} format (e.g. the pattern {@code %m{json}})
+ * which is rendered with the given {@link JsonFormatter}.
+ * </p>
+ *
+ * <p>
+ * Loggers that were not created by this module's {@link MapleFactory} are formatted with the text formatter.
+ * </p>
+ *
+ * <pre>
+ * MapleFactory.setFormatter(new Log4j2Formatter(SNAKE_CASE, SKIP_NULL_VALUES));
+ * </pre>
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+public class Log4j2Formatter implements MapleFormatter {
+    private final StandardFormatter textFormatter;
+    private final JsonFormatter jsonFormatter;
+    private final StructuredMessage.Renderer textRenderer;
+    private final StructuredMessage.Renderer jsonRenderer;
+
+    public Log4j2Formatter(StandardFormatter.Option... options) {
+        this(new StandardFormatter(options), new JsonFormatter(options));
+    }
+
+    /**
+     * @param textFormatter renders the message text
+     * @param jsonFormatter renders the message when the {@code JSON} format is requested or {@code null}
+     */
+    public Log4j2Formatter(StandardFormatter textFormatter, JsonFormatter jsonFormatter) {
+        this.textFormatter = textFormatter;
+        this.jsonFormatter = jsonFormatter;
+        textRenderer = textFormatter::formatTo;
+        jsonRenderer = (jsonFormatter != null) ? jsonFormatter::formatTo : null;
+    }
+
+    @Override
+    public MapleFormatter specialize(Class<?> schemaClass, Names names) {
+        MapleFormatter specialized = textFormatter.specialize(schemaClass, names);
+        if ((specialized != textFormatter) && (specialized instanceof StandardFormatter)) {
+            return new Log4j2Formatter((StandardFormatter) specialized, jsonFormatter);
+        }
+        return this;
+    }
+
+    @Override
+    public void apply(LevelLogger logger, LoggingLevel loggingLevel, String loggerName, NamesValues namesValues, String mainMessage, Throwable t) {
+        if (logger instanceof Log4j2LevelLogger) {
+            ((Log4j2LevelLogger) logger).logRendered(textRenderer, jsonRenderer, namesValues, mainMessage, t);
+        } else {
+            textFormatter.apply(logger, loggingLevel, loggerName, namesValues, mainMessage, t);
+        }
+    }
+}
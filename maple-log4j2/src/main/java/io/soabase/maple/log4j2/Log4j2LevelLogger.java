@@ -0,0 +1,77 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.log4j2;
+
+import io.soabase.maple.api.LevelLogger;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.StructuredMessage;
+import io.soabase.maple.core.MapleLoggerBase;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.spi.ExtendedLogger;
+
+class Log4j2LevelLogger implements LevelLogger {
+    // logging events report the Maple caller as the caller
+    static final String FQCN = MapleLoggerBase.class.getName();
+
+    private final Logger logger;
+    private final Level level;
+
+    Log4j2LevelLogger(Logger logger, Level level) {
+        this.logger = logger;
+        this.level = level;
+    }
+
+    @Override
+    public void log(String msg, Throwable t) {
+        if (logger instanceof ExtendedLogger) {
+            ((ExtendedLogger) logger).logIfEnabled(FQCN, level, null, msg, t);
+        } else {
+            logger.log(level, msg, t);
+        }
+    }
+
+    @Override
+    public void logStructured(StructuredMessage message, Throwable t) {
+        MapleMessage mapleMessage = MapleMessage.acquire();
+        try {
+            mapleMessage.set(message);
+            log(mapleMessage, t);
+        } finally {
+            mapleMessage.release();
+        }
+    }
+
+    void logRendered(StructuredMessage.Renderer textRenderer, StructuredMessage.Renderer jsonRenderer, NamesValues namesValues, String mainMessage, Throwable t) {
+        MapleMessage mapleMessage = MapleMessage.acquire();
+        try {
+            mapleMessage.set(textRenderer, jsonRenderer, namesValues, mainMessage);
+            log(mapleMessage, t);
+        } finally {
+            mapleMessage.release();
+        }
+    }
+
+    private void log(Message message, Throwable t) {
+        if (logger instanceof ExtendedLogger) {
+            // not logMessage() - logIfEnabled() uses the logger's cached decision about whether location is needed
+            ((ExtendedLogger) logger).logIfEnabled(FQCN, level, null, message, t);
+        } else {
+            logger.log(level, message, t);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.log4j2;
+
+import io.soabase.maple.api.MapleFilter;
+import io.soabase.maple.api.MapleFormatter;
+import io.soabase.maple.api.Sampler;
+import io.soabase.maple.core.EventCollapser;
+import io.soabase.maple.core.Samplers;
+import io.soabase.maple.spi.MapleSpi;
+import io.soabase.maple.spi.MetaInstance;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Main accessor for structured logging instances. Set the formatter to a {@link Log4j2Formatter}
+ * to render schema values directly into Log4j 2's reusable buffers.
+ */
+public class MapleFactory {
+    /**
+     * Return a structured logger by first calling {@link LogManager#getLogger(String)} and
+     * then wrapping it in a {@link MapleLogger}
+     *
+     * @param name the name to use to get the logger
+     * @param schemaClass logging schema
+     * @return {@link MapleLogger}
+     */
+    public static <T> MapleLogger<T> getLogger(String name, Class<T> schemaClass) {
+        return getLogger(LogManager.getLogger(name), schemaClass);
+    }
+
+    /**
+     * Return a structured logger by first calling {@link LogManager#getLogger(Class)} and
+     * then wrapping it in a {@link MapleLogger}
+     *
+     * @param clazz the class to use to get the logger
+     * @param schemaClass logging schema
+     * @return {@link MapleLogger}
+     */
+    public static <T> MapleLogger<T> getLogger(Class<?> clazz, Class<T> schemaClass) {
+        return getLogger(LogManager.getLogger(clazz), schemaClass);
+    }
+
+    /**
+     * Return a {@link MapleLogger} that wraps the given logger. If the schema is annotated with
+     * {@link io.soabase.maple.api.annotations.Sampled} and/or {@link io.soabase.maple.api.annotations.RateLimited}
+     * the logger is sampled accordingly. If the schema is annotated with {@link io.soabase.maple.api.annotations.Collapsed}
+     * duplicate events are collapsed.
+     *
+     * @param logger logger to wrap
+     * @param schemaClass logging schema
+     * @return {@link MapleLogger}
+     */
+    public static <T> MapleLogger<T> getLogger(Logger logger, Class<T> schemaClass) {
+        return getLogger(logger, schemaClass, Samplers.forSchema(schemaClass));
+    }
+
+    /**
+     * Return a {@link MapleLogger} that wraps the given logger and is sampled/rate limited
+     * by the given sampler (e.g. one of the {@link Samplers}). If the schema is annotated with
+     * {@link io.soabase.maple.api.annotations.Collapsed} duplicate events are collapsed.
+     *
+     * @param logger logger to wrap
+     * @param schemaClass logging schema
+     * @param sampler sampler or {@code null}
+     * @return {@link MapleLogger}
+     */
+    public static <T> MapleLogger<T> getLogger(Logger logger, Class<T> schemaClass, Sampler sampler) {
+        return getLogger(logger, schemaClass, sampler, EventCollapser.forSchema(schemaClass));
+    }
+
+    /**
+     * Return a {@link MapleLogger} that wraps the given logger, is sampled/rate limited
+     * by the given sampler and collapses duplicate events with the given collapser
+     *
+     * @param logger logger to wrap
+     * @param schemaClass logging schema
+     * @param sampler sampler or {@code null}
+     * @param collapser collapser or {@code null}
+     * @return {@link MapleLogger}
+     */
+    public static <T> MapleLogger<T> getLogger(Logger logger, Class<T> schemaClass, Sampler sampler, EventCollapser collapser) {
+        MetaInstance<T> metaInstance = MapleSpi.instance().generate(schemaClass);
+        if (collapser != null) {
+            metaInstance = collapser.wrap(metaInstance);
+        }
+        return new MapleLoggerImpl<>(metaInstance, logger, sampler);
+    }
+
+    /**
+     * Change the global production mode value. When production mode is {@code false}, schema methods
+     * annotation with {@link io.soabase.maple.api.annotations.Required} with throw an exception
+     * when they are {@code null}. When production mode is {@code true} this doesn't occur.
+     *
+     * @param newValue new production mode value
+     */
+    public static void setProductionMode(boolean newValue) {
+        MapleSpi.instance().setProductionMode(newValue);
+    }
+
+    /**
+     * Return the current value of production mode
+     *
+     * @return true/false
+     */
+    public static boolean getProductionMode() {
+        return MapleSpi.instance().getProductionMode();
+    }
+
+    /**
+     * Change whether schema instances are recycled. When {@code true}, each thread re-uses
+     * its schema instances between log statements instead of allocating new ones. Only enable this
+     * if your logging formatter does not retain the name/values it is passed after it returns.
+     *
+     * @param newValue new value
+     */
+    public static void setReuseSchemaInstances(boolean newValue) {
+        MapleSpi.instance().setReuseSchemaInstances(newValue);
+    }
+
+    /**
+     * Return whether schema instances are recycled
+     *
+     * @return true/false
+     */
+    public static boolean getReuseSchemaInstances() {
+        return MapleSpi.instance().getReuseSchemaInstances();
+    }
+
+    /**
+     * Change the logging formatter in use.
+     *
+     * @param formatter new formatter. Pass {@code null} to use the default formatter
+     */
+    public static void setFormatter(MapleFormatter formatter) {
+        MapleSpi.instance().setFormatter(formatter);
+    }
+
+    /**
+     * Return the current logging formatter
+     *
+     * @return logging formatter
+     */
+    public static MapleFormatter getFormatter() {
+        return MapleSpi.instance().getFormatter();
+    }
+
+    /**
+     * Change the filter that is applied to log statements for enabled levels before they are evaluated.
+     *
+     * @param filter new filter. Pass {@code null} to log all statements
+     */
+    public static void setFilter(MapleFilter filter) {
+        MapleSpi.instance().setFilter(filter);
+    }
+
+    /**
+     * Return the current filter
+     *
+     * @return filter or {@code null}
+     */
+    public static MapleFilter getFilter() {
+        return MapleSpi.instance().getFilter();
+    }
+}
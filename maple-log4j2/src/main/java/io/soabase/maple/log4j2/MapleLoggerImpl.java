@@ -0,0 +1,27 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.log4j2;
+
+import io.soabase.maple.api.Sampler;
+import io.soabase.maple.core.StandardMapleLogger;
+import io.soabase.maple.spi.MetaInstance;
+import org.apache.logging.log4j.Logger;
+
+class MapleLoggerImpl<T> extends StandardMapleLogger<T, Logger> implements MapleLogger<T> {
+    MapleLoggerImpl(MetaInstance<T> metaInstance, Logger logger, Sampler sampler) {
+        super(metaInstance, logger, logger.getName(), Utils::isEnabled, Utils::levelLogger, sampler);
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.log4j2;
+
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.StructuredMessage;
+import org.apache.logging.log4j.message.ReusableMessage;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.util.Constants;
+import org.apache.logging.log4j.util.MultiFormatStringBuilderFormattable;
+
+/**
+ * A Log4j 2 message that renders Maple values directly into the buffer that Log4j 2 passes to
+ * {@link #formatTo(StringBuilder)}. As with Log4j 2's own reusable messages, each thread re-uses a single instance
+ * (unless thread locals are disabled via {@code log4j2.enableThreadlocals}). The values are only valid while the logger
+ * call is in progress - Log4j 2 renders reusable messages before the call returns or, if it needs to keep the message,
+ * calls {@link #memento()}.
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+class MapleMessage implements ReusableMessage, MultiFormatStringBuilderFormattable {
+    private static final String JSON_FORMAT = "JSON";
+    private static final String[] FORMATS = {JSON_FORMAT};
+    private static final String[] NO_FORMATS = {};
+    private static final ThreadLocal<MapleMessage> threadMessage = Constants.ENABLE_THREADLOCALS ? ThreadLocal.withInitial(MapleMessage::new) : null;
+
+    private StructuredMessage.Renderer textRenderer;
+    private StructuredMessage.Renderer jsonRenderer;
+    private NamesValues namesValues;
+    private String mainMessage;
+    private StructuredMessage structuredMessage;
+    private boolean inUse;
+
+    static MapleMessage acquire() {
+        MapleMessage message = (threadMessage != null) ? threadMessage.get() : null;
+        if ((message == null) || message.inUse) {
+            // thread locals are disabled or this is a nested log call (e.g. a value's toString() logs)
+            message = new MapleMessage();
+        }
+        message.inUse = true;
+        return message;
+    }
+
+    void set(StructuredMessage.Renderer textRenderer, StructuredMessage.Renderer jsonRenderer, NamesValues namesValues, String mainMessage) {
+        this.textRenderer = textRenderer;
+        this.jsonRenderer = jsonRenderer;
+        this.namesValues = namesValues;
+        this.mainMessage = mainMessage;
+    }
+
+    void set(StructuredMessage structuredMessage) {
+        this.structuredMessage = structuredMessage;
+    }
+
+    void release() {
+        textRenderer = null;
+        jsonRenderer = null;
+        namesValues = null;
+        mainMessage = null;
+        structuredMessage = null;
+        inUse = false;
+    }
+
+    @Override
+    public void formatTo(StringBuilder buffer) {
+        if (structuredMessage != null) {
+            structuredMessage.formatTo(buffer);
+        } else if (namesValues != null) {
+            textRenderer.render(buffer, namesValues, mainMessage);
+        }
+    }
+
+    @Override
+    public void formatTo(String[] formats, StringBuilder buffer) {
+        if ((jsonRenderer != null) && (namesValues != null) && isJson(formats)) {
+            jsonRenderer.render(buffer, namesValues, mainMessage);
+        } else {
+            formatTo(buffer);
+        }
+    }
+
+    @Override
+    public String getFormattedMessage() {
+        StringBuilder buffer = new StringBuilder();
+        formatTo(buffer);
+        return buffer.toString();
+    }
+
+    @Override
+    public String getFormattedMessage(String[] formats) {
+        StringBuilder buffer = new StringBuilder();
+        formatTo(formats, buffer);
+        return buffer.toString();
+    }
+
+    @Override
+    public String[] getFormats() {
+        return (jsonRenderer != null) ? FORMATS.clone() : NO_FORMATS;
+    }
+
+    @Override
+    public String getFormat() {
+        return (mainMessage != null) ? mainMessage : "";
+    }
+
+    @Override
+    public Object[] getParameters() {
+        return null;
+    }
+
+    @Override
+    public Throwable getThrowable() {
+        return null;
+    }
+
+    @Override
+    public Object[] swapParameters(Object[] emptyReplacement) {
+        return emptyReplacement;
+    }
+
+    @Override
+    public short getParameterCount() {
+        return 0;
+    }
+
+    @Override
+    public SimpleMessage memento() {
+        return new SimpleMessage(getFormattedMessage());
+    }
+
+    private static boolean isJson(String[] formats) {
+        if (formats != null) {
+            for (String format : formats) {
+                if (JSON_FORMAT.equalsIgnoreCase(format)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.log4j2;
+
+import io.soabase.maple.api.LevelLogger;
+import io.soabase.maple.api.LoggingLevel;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+
+class Utils {
+    private static final Level[] levels = {Level.ERROR, Level.WARN, Level.INFO, Level.DEBUG, Level.TRACE};   // indexed by LoggingLevel ordinal
+
+    static boolean isEnabled(LoggingLevel level, Logger logger) {
+        return logger.isEnabled(levels[level.ordinal()]);
+    }
+
+    static LevelLogger levelLogger(LoggingLevel level, Logger logger) {
+        return new Log4j2LevelLogger(logger, levels[level.ordinal()]);
+    }
+
+    private Utils() {
+    }
+}
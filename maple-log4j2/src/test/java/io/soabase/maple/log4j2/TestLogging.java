@@ -0,0 +1,145 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.log4j2;
+
+import io.soabase.maple.api.MdcCloseable;
+import io.soabase.maple.spi.MapleSpi;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.config.Property;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.MultiformatMessage;
+import org.apache.logging.log4j.spi.ExtendedLogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.soabase.maple.formatters.StandardFormatter.Option.SKIP_NULL_VALUES;
+import static io.soabase.maple.formatters.StandardFormatter.Option.SNAKE_CASE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestLogging {
+    private static final String LOGGER_NAME = "maple.log4j2.test";
+
+    private final List<String> lines = new ArrayList<>();
+    private final List<String> callers = new ArrayList<>();
+    private final List<Throwable> exceptions = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        LoggerContext context = (LoggerContext) LogManager.getContext(false);
+        Configuration configuration = context.getConfiguration();
+        PatternLayout layout = PatternLayout.newBuilder().withConfiguration(configuration).withPattern("%level %m").withAlwaysWriteExceptions(false).build();
+        AbstractAppender appender = new AbstractAppender("test", null, layout, true, Property.EMPTY_ARRAY) {
+            @Override
+            public void append(LogEvent event) {
+                // as an appender would - the message is only valid while logging
+                lines.add(layout.toSerializable(event));
+                callers.add(event.getSource().getClassName());
+                exceptions.add(event.getThrown());
+            }
+        };
+        appender.start();
+        LoggerConfig loggerConfig = new LoggerConfig(LOGGER_NAME, Level.DEBUG, false);
+        loggerConfig.addAppender(appender, null, null);
+        configuration.addLogger(LOGGER_NAME, loggerConfig);
+        context.updateLoggers();
+    }
+
+    @AfterEach
+    void tearDown() {
+        LoggerContext context = (LoggerContext) LogManager.getContext(false);
+        context.getConfiguration().removeLogger(LOGGER_NAME);
+        context.updateLoggers();
+        ThreadContext.clearMap();
+        MapleSpi.instance().reset();
+    }
+
+    @Test
+    void testFormatter() {
+        MapleFactory.setFormatter(new Log4j2Formatter(SNAKE_CASE, SKIP_NULL_VALUES));
+        MapleLogger<Schema> logger = MapleFactory.getLogger(LOGGER_NAME, Schema.class);
+        logger.info("hello", s -> s.firstName("first").age(42));
+        logger.error(new IOException("boom"), s -> s.age(1));
+        logger.trace(s -> s.age(2));    // not enabled
+
+        assertThat(lines).containsExactly("INFO hello age=42 first_name=first", "ERROR age=1");
+        assertThat(callers).containsOnly(TestLogging.class.getName());
+        assertThat(exceptions.get(1)).hasMessage("boom");
+    }
+
+    @Test
+    void testMessage() {
+        // loggers/events that keep the message (i.e. not garbage-free mode where the text is copied into the event) can request JSON
+        List<Message> messages = new ArrayList<>();
+        List<String> json = new ArrayList<>();
+        ExtendedLogger target = (ExtendedLogger) LogManager.getLogger(LOGGER_NAME);
+        ExtendedLogger jsonLogger = (ExtendedLogger) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ExtendedLogger.class}, (proxy, method, args) -> {
+            if (method.getName().equals("logIfEnabled") && (args[3] instanceof Message)) {
+                messages.add((Message) args[3]);
+                json.add(((MultiformatMessage) args[3]).getFormattedMessage(new String[]{"json"}));
+                return null;
+            }
+            return method.invoke(target, args);
+        });
+        MapleFactory.setFormatter(new Log4j2Formatter(SNAKE_CASE, SKIP_NULL_VALUES));
+        MapleLogger<Schema> logger = MapleFactory.getLogger(jsonLogger, Schema.class);
+        logger.warn("hello", s -> s.firstName("first").age(42));
+        logger.warn(s -> s.age(1));
+
+        assertThat(json).containsExactly("{\"message\":\"hello\",\"age\":42,\"first_name\":\"first\"}", "{\"age\":1}");
+        assertThat(messages.get(0)).isInstanceOf(MapleMessage.class).isSameAs(messages.get(1));   // the thread's message is re-used
+        assertThat(messages.get(0).getFormattedMessage()).isEmpty();    // values are released when the call returns
+    }
+
+    @Test
+    void testMdc() {
+        MapleFactory.setFormatter(new Log4j2Formatter(SNAKE_CASE, SKIP_NULL_VALUES));
+        MapleLogger<Schema> logger = MapleFactory.getLogger(LOGGER_NAME, Schema.class);
+        ThreadContext.put("requestId", "r1");
+        logger.info(s -> s.age(1));
+        try (MdcCloseable ignore = logger.mdc(s -> s.requestId("r2").firstName("first"))) {
+            assertThat(ThreadContext.get("firstName")).isEqualTo("first");
+            logger.info(s -> s.age(2));
+        }
+        logger.info(s -> s.age(3).requestId("r3"));
+
+        assertThat(lines).containsExactly("INFO age=1 request_id=r1", "INFO age=2 request_id=r2", "INFO age=3 request_id=r3");
+        assertThat(ThreadContext.get("requestId")).isEqualTo("r1");
+        assertThat(ThreadContext.containsKey("firstName")).isFalse();
+    }
+
+    @Test
+    void testStandardFormatter() {
+        MapleLogger<Schema> logger = MapleFactory.getLogger(LOGGER_NAME, Schema.class);
+        logger.debug("hello", s -> s.firstName("first").age(42));
+
+        assertThat(lines).containsExactly("DEBUG age=42 first_name=first hello");
+        assertThat(callers).containsOnly(TestLogging.class.getName());
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import io.soabase.maple.api.LevelLogger;
+import io.soabase.maple.api.LoggingLevel;
+import io.soabase.maple.api.MapleFormatter;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.core.MapleLoggerBase;
+import io.soabase.maple.formatters.StandardFormatter;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Passes Maple events to logback without rendering them. Each event is created with a {@link MapleValues} as its single
+ * argument (message format {@code "{}"}) and sent directly to the logger's appenders. Encoders that understand
+ * {@link MapleValues} (e.g. {@link MapleJsonEncoder}) serialize the values directly. For all others the formatted message is
+ * rendered with the text formatter (a {@link StandardFormatter} by default) the first time it's needed.
+ * </p>
+ *
+ * <p>
+ * The level check has already been done by the Maple logger (including logback's turbo filters) so the events go straight
+ * to the appenders. If the SLF4J binding is not logback, events are formatted with the text formatter and logged normally.
+ * </p>
+ *
+ * <pre>
+ * MapleFactory.setFormatter(new LogbackFormatter());
+ * </pre>
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+public class LogbackFormatter implements MapleFormatter {
+    private static final String FQCN = MapleLoggerBase.class.getName();
+    private static final Level[] levels = {Level.ERROR, Level.WARN, Level.INFO, Level.DEBUG, Level.TRACE};   // indexed by LoggingLevel ordinal
+
+    private final MapleFormatter textFormatter;
+
+    public static final String MESSAGE_FORMAT = "{}";
+
+    public LogbackFormatter() {
+        this(new StandardFormatter());
+    }
+
+    /**
+     * @param textFormatter used to render the values when an encoder/layout needs the formatted message
+     */
+    public LogbackFormatter(MapleFormatter textFormatter) {
+        this.textFormatter = textFormatter;
+    }
+
+    @Override
+    public void apply(LevelLogger logger, LoggingLevel loggingLevel, String loggerName, NamesValues namesValues, String mainMessage, Throwable t) {
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (!(loggerFactory instanceof LoggerContext)) {
+            textFormatter.apply(logger, loggingLevel, loggerName, namesValues, mainMessage, t);
+            return;
+        }
+        Logger target = ((LoggerContext) loggerFactory).getLogger(loggerName);
+        MapleValues values = new MapleValues(namesValues, mainMessage, textFormatter);
+        target.callAppenders(new LoggingEvent(FQCN, target, levels[loggingLevel.ordinal()], MESSAGE_FORMAT, t, new Object[]{values}));
+    }
+
+    /**
+     * Return the Maple values of the given event or {@code null} if it wasn't created by a {@link LogbackFormatter}
+     *
+     * @param event logging event
+     * @return values or {@code null}
+     */
+    public static MapleValues getValues(ILoggingEvent event) {
+        Object[] arguments = event.getArgumentArray();
+        if ((arguments != null) && (arguments.length == 1) && (arguments[0] instanceof MapleValues) && MESSAGE_FORMAT.equals(event.getMessage())) {
+            return (MapleValues) arguments[0];
+        }
+        return null;
+    }
+}
@@ -0,0 +1,276 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.logback;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+import io.soabase.maple.api.Names;
+import io.soabase.maple.formatters.JsonFormatter;
+import io.soabase.maple.formatters.StandardFormatter;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * A logback encoder that writes each event as a single line JSON object. The values of events created by
+ * {@link LogbackFormatter} are written as top level fields directly from the {@link MapleValues} - the message is
+ * never rendered as text. Other events are written with their formatted message. E.g.
+ * </p>
+ *
+ * <pre>
+ * {"timestamp":"2019-01-01T12:00:00.000Z","level":"INFO","thread":"main","logger":"com.company.Service","message":"the message","first_name":"Hay","age":10}
+ * </pre>
+ *
+ * <pre>
+ * &lt;encoder class="io.soabase.maple.logback.MapleJsonEncoder"&gt;
+ *     &lt;snakeCase&gt;true&lt;/snakeCase&gt;
+ * &lt;/encoder&gt;
+ * </pre>
+ *
+ * <p>
+ * MDC values are written as a nested {@code "mdc"} object and exceptions as an {@code "exception"} string. Output is always UTF-8.
+ * Maple fields named the same as one of the fixed fields ({@code timestamp}, {@code level}, {@code thread}, {@code logger},
+ * {@code message}, {@code mdc} or {@code exception}) are written with a leading underscore (e.g. {@code "_message"}) so that
+ * keys are never duplicated.
+ * </p>
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+public class MapleJsonEncoder extends EncoderBase<ILoggingEvent> {
+    private static final int INITIAL_CAPACITY = 512;
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+    private static final char[] TIMESTAMP_FIELD = "{\"timestamp\":\"".toCharArray();
+    private static final char[] LEVEL_FIELD = "\",\"level\":\"".toCharArray();
+    private static final char[] THREAD_FIELD = ",\"thread\":".toCharArray();
+    private static final char[] LOGGER_FIELD = ",\"logger\":".toCharArray();
+    private static final char[] MESSAGE_FIELD = ",\"message\":".toCharArray();
+    private static final char[] MDC_FIELD = ",\"mdc\":{".toCharArray();
+    private static final char[] EXCEPTION_FIELD = ",\"exception\":".toCharArray();
+    private static final Set<String> FIXED_FIELDS = new HashSet<>(Arrays.asList("timestamp", "level", "thread", "logger", "message", "mdc", "exception"));
+
+    private final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+    private final Map<Names, char[][]> renderedNames = new ConcurrentHashMap<>();
+    private boolean snakeCase;
+    private boolean includeMdc = true;
+
+    private static class Buffers {
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private StringBuilder builder = new StringBuilder(INITIAL_CAPACITY);
+        private ByteBuffer bytes = ByteBuffer.allocate(INITIAL_CAPACITY * 2);
+        private long second = Long.MIN_VALUE;
+        private String formattedSecond = "";
+
+        private byte[] toUtf8() {
+            CharBuffer chars = CharBuffer.wrap(builder);
+            bytes.clear();
+            encoder.reset();
+            while (encoder.encode(chars, bytes, true).isOverflow()) {
+                grow();
+            }
+            while (encoder.flush(bytes).isOverflow()) {
+                grow();
+            }
+            byte[] encoded = Arrays.copyOf(bytes.array(), bytes.position());
+
+            // don't retain buffers from unusually large messages
+            if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+                builder = new StringBuilder(INITIAL_CAPACITY);
+                bytes = ByteBuffer.allocate(INITIAL_CAPACITY * 2);
+            }
+            return encoded;
+        }
+
+        private void grow() {
+            ByteBuffer larger = ByteBuffer.allocate(bytes.capacity() * 2);
+            bytes.flip();
+            larger.put(bytes);
+            bytes = larger;
+        }
+
+        private void appendTimestamp(long timestamp) {
+            long second = Math.floorDiv(timestamp, 1000);
+            if (second != this.second) {
+                this.second = second;
+                formattedSecond = Instant.ofEpochSecond(second).toString().replace("Z", "");
+            }
+            int millis = (int) Math.floorMod(timestamp, 1000);
+            builder.append(formattedSecond).append('.');
+            if (millis < 100) {
+                builder.append('0');
+            }
+            if (millis < 10) {
+                builder.append('0');
+            }
+            builder.append(millis).append('Z');
+        }
+    }
+
+    public boolean isSnakeCase() {
+        return snakeCase;
+    }
+
+    /**
+     * @param snakeCase if true, Maple field names are written in snake case
+     */
+    public void setSnakeCase(boolean snakeCase) {
+        this.snakeCase = snakeCase;
+    }
+
+    public boolean isIncludeMdc() {
+        return includeMdc;
+    }
+
+    /**
+     * @param includeMdc if true (the default), MDC values are written as a nested {@code "mdc"} object
+     */
+    public void setIncludeMdc(boolean includeMdc) {
+        this.includeMdc = includeMdc;
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        Buffers buffers = this.buffers.get();
+        StringBuilder builder = buffers.builder;
+        builder.setLength(0);
+
+        builder.append(TIMESTAMP_FIELD);
+        buffers.appendTimestamp(event.getTimeStamp());
+        builder.append(LEVEL_FIELD).append(event.getLevel().levelStr).append('"');
+        builder.append(THREAD_FIELD);
+        JsonFormatter.addJsonString(builder, event.getThreadName());
+        builder.append(LOGGER_FIELD);
+        JsonFormatter.addJsonString(builder, event.getLoggerName());
+
+        MapleValues values = LogbackFormatter.getValues(event);
+        if (values != null) {
+            if (!values.mainMessage().isEmpty()) {
+                builder.append(MESSAGE_FIELD);
+                JsonFormatter.addJsonString(builder, values.mainMessage());
+            }
+            appendValues(builder, values);
+        } else {
+            builder.append(MESSAGE_FIELD);
+            JsonFormatter.addJsonString(builder, event.getFormattedMessage());
+        }
+
+        if (includeMdc) {
+            Map<String, String> mdc = event.getMDCPropertyMap();
+            if ((mdc != null) && !mdc.isEmpty()) {
+                builder.append(MDC_FIELD);
+                boolean needsComma = false;
+                for (Map.Entry<String, String> entry : mdc.entrySet()) {
+                    if (needsComma) {
+                        builder.append(',');
+                    } else {
+                        needsComma = true;
+                    }
+                    JsonFormatter.addJsonString(builder, entry.getKey());
+                    builder.append(':');
+                    JsonFormatter.addJsonString(builder, entry.getValue());
+                }
+                builder.append('}');
+            }
+        }
+
+        IThrowableProxy throwableProxy = event.getThrowableProxy();
+        if (throwableProxy != null) {
+            builder.append(EXCEPTION_FIELD);
+            JsonFormatter.addJsonString(builder, ThrowableProxyUtil.asString(throwableProxy));
+        }
+
+        builder.append('}').append('\n');
+        return buffers.toUtf8();
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    private void appendValues(StringBuilder builder, MapleValues values) {
+        Names schemaNames = values.schemaNames();
+        char[][] names = (schemaNames != null) ? renderedNames.computeIfAbsent(schemaNames, this::renderNames) : null;
+        for (int i = 0; i < values.qty(); ++i) {
+            builder.append(',');
+            if (names != null) {
+                builder.append(names[i]);
+            } else {
+                builder.append(renderName(values, i));
+            }
+            JsonFormatter.addJsonValue(builder, values.nthValue(i));
+        }
+    }
+
+    private char[][] renderNames(Names names) {
+        char[][] rendered = new char[names.qty()][];
+        for (int i = 0; i < names.qty(); ++i) {
+            rendered[i] = renderName(names, i);
+        }
+        return rendered;
+    }
+
+    private char[] renderName(Names names, int n) {
+        String name = formatName(names.nthName(n));
+        if (FIXED_FIELDS.contains(name)) {
+            // prefix until the name is unique, e.g. "_message" or "__message" if the schema also has "_message"
+            do {
+                name = "_" + name;
+            } while (isOtherName(names, n, name));
+        }
+        StringBuilder rendered = new StringBuilder(name.length() + 4);
+        JsonFormatter.addJsonString(rendered, name);
+        rendered.append(':');
+        char[] chars = new char[rendered.length()];
+        rendered.getChars(0, rendered.length(), chars, 0);
+        return chars;
+    }
+
+    private boolean isOtherName(Names names, int n, String name) {
+        for (int i = 0; i < names.qty(); ++i) {
+            if ((i != n) && name.equals(formatName(names.nthName(i)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String formatName(String name) {
+        if (snakeCase) {
+            StringBuilder formattedName = new StringBuilder(name.length() + 8);
+            StandardFormatter.toSnakeCase(formattedName, name);
+            return formattedName.toString();
+        }
+        return name;
+    }
+}
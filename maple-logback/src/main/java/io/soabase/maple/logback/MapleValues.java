@@ -0,0 +1,125 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.logback;
+
+import io.soabase.maple.api.LoggingLevel;
+import io.soabase.maple.api.MapleFormatter;
+import io.soabase.maple.api.NameValue;
+import io.soabase.maple.api.Names;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.api.Specialization;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * The structured values of a Maple event. {@link LogbackFormatter} attaches an instance as the single argument
+ * of each logging event. The values are copied when the event is created so they remain valid for deferred/async appenders.
+ * </p>
+ *
+ * <p>
+ * Encoders such as {@link MapleJsonEncoder} serialize the values directly. {@link #toString()} renders the values as text
+ * (once, on demand) so that the event's formatted message works with any other encoder or layout.
+ * </p>
+ */
+public final class MapleValues implements NamesValues {
+    private final Names schemaNames;
+    private final String[] names;
+    private final Object[] values;
+    private final String mainMessage;
+    private final MapleFormatter textFormatter;
+    private volatile String rendered;
+
+    MapleValues(NamesValues namesValues, String mainMessage, MapleFormatter textFormatter) {
+        int qty = namesValues.qty();
+        schemaNames = namesValues.schemaNames();
+        names = new String[qty];
+        values = new Object[qty];
+        for (int i = 0; i < qty; ++i) {
+            names[i] = namesValues.nthName(i);
+            values[i] = namesValues.nthValue(i);
+        }
+        this.mainMessage = mainMessage;
+        this.textFormatter = textFormatter;
+    }
+
+    /**
+     * @return the main message or {@code ""}
+     */
+    public String mainMessage() {
+        return mainMessage;
+    }
+
+    @Override
+    public int qty() {
+        return names.length;
+    }
+
+    @Override
+    public String nthName(int n) {
+        return names[n];
+    }
+
+    @Override
+    public String nthRawName(int n) {
+        return (schemaNames != null) ? schemaNames.nthRawName(n) : names[n];
+    }
+
+    @Override
+    public Set<Specialization> nthSpecializations(int n) {
+        return (schemaNames != null) ? schemaNames.nthSpecializations(n) : Collections.emptySet();
+    }
+
+    @Override
+    public Object nthValue(int n) {
+        return values[n];
+    }
+
+    @Override
+    public Stream<NameValue> stream() {
+        return IntStream.range(0, names.length).mapToObj(i -> new NameValue() {
+            @Override
+            public String name() {
+                return names[i];
+            }
+
+            @Override
+            public Object value() {
+                return values[i];
+            }
+        });
+    }
+
+    @Override
+    public Names schemaNames() {
+        return schemaNames;
+    }
+
+    @Override
+    public String toString() {
+        String localRendered = rendered;
+        if (localRendered == null) {
+            String[] holder = new String[1];
+            textFormatter.apply((msg, t) -> holder[0] = msg, LoggingLevel.INFO, "", this, mainMessage, null);
+            localRendered = (holder[0] != null) ? holder[0] : "";
+            rendered = localRendered;
+        }
+        return localRendered;
+    }
+}
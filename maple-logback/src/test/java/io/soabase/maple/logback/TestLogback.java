@@ -0,0 +1,130 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.soabase.maple.slf4j.MapleFactory;
+import io.soabase.maple.slf4j.MapleLogger;
+import io.soabase.maple.spi.MapleSpi;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestLogback {
+    private static final String LOGGER_NAME = "maple.logback.test";
+
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void setup() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        appender = new ListAppender<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                // as a layout would - caller data is only available while logging
+                event.getCallerData();
+                super.append(event);
+            }
+        };
+        appender.setContext(context);
+        appender.start();
+        Logger logger = context.getLogger(LOGGER_NAME);
+        logger.setAdditive(false);
+        logger.setLevel(Level.DEBUG);
+        logger.addAppender(appender);
+        MapleFactory.setFormatter(new LogbackFormatter());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(LOGGER_NAME).detachAndStopAllAppenders();
+        MapleSpi.instance().reset();
+    }
+
+    @Test
+    void testStructuredEvents() {
+        MapleLogger<Schema> logger = MapleFactory.getLogger(LOGGER_NAME, Schema.class);
+        logger.info("hello", s -> s.firstName("first \"name\"").age(42));
+        logger.trace(s -> s.age(1));    // not enabled
+
+        assertThat(appender.list).hasSize(1);
+        ILoggingEvent event = appender.list.get(0);
+        assertThat(event.getLevel()).isEqualTo(Level.INFO);
+        assertThat(event.getLoggerName()).isEqualTo(LOGGER_NAME);
+        MapleValues values = LogbackFormatter.getValues(event);
+        assertThat(values).isNotNull();
+        assertThat(values.mainMessage()).isEqualTo("hello");
+        assertThat(values.qty()).isEqualTo(2);
+        assertThat(values.nthName(0)).isEqualTo("age");
+        assertThat(values.nthValue(0)).isEqualTo(42);
+        assertThat(values.nthName(1)).isEqualTo("firstName");
+        assertThat(values.nthValue(1)).isEqualTo("first \"name\"");
+        assertThat(event.getCallerData()[0].getClassName()).isEqualTo(TestLogback.class.getName());
+
+        // rendered on demand for other encoders/layouts
+        assertThat(event.getFormattedMessage()).isEqualTo("hello age=42 firstName=first \"name\"");
+    }
+
+    @Test
+    void testJsonEncoder() {
+        MapleJsonEncoder encoder = new MapleJsonEncoder();
+        encoder.setContext((LoggerContext) LoggerFactory.getILoggerFactory());
+        encoder.setSnakeCase(true);
+        encoder.start();
+
+        MapleLogger<Schema> logger = MapleFactory.getLogger(LOGGER_NAME, Schema.class);
+        String json;
+        MDC.put("request", "r1");
+        try {
+            logger.warn(new IOException("boom"), s -> s.firstName("\u00e9").age(10));
+            json = new String(encoder.encode(appender.list.get(0)), StandardCharsets.UTF_8);
+        } finally {
+            MDC.remove("request");
+        }
+        LoggerFactory.getLogger(LOGGER_NAME).debug("plain {}", "message");
+
+        assertThat(appender.list).hasSize(2);
+        assertThat(json).matches("\\{\"timestamp\":\"\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.\\d{3}Z\",.*\\}\n");
+        assertThat(json).contains(",\"level\":\"WARN\",\"thread\":\"" + Thread.currentThread().getName() + "\",\"logger\":\"" + LOGGER_NAME + "\",\"age\":10,\"first_name\":\"\u00e9\",\"mdc\":{\"request\":\"r1\"},\"exception\":\"java.io.IOException: boom");
+        assertThat(json).doesNotContain("\"message\"");
+
+        json = new String(encoder.encode(appender.list.get(1)), StandardCharsets.UTF_8);
+        assertThat(json).endsWith(",\"level\":\"DEBUG\",\"thread\":\"" + Thread.currentThread().getName() + "\",\"logger\":\"" + LOGGER_NAME + "\",\"message\":\"plain message\"}\n");
+    }
+
+    @Test
+    void testJsonEncoderFixedFieldNames() {
+        MapleJsonEncoder encoder = new MapleJsonEncoder();
+        encoder.setContext((LoggerContext) LoggerFactory.getILoggerFactory());
+        encoder.start();
+
+        MapleLogger<FixedFieldsSchema> logger = MapleFactory.getLogger(LOGGER_NAME, FixedFieldsSchema.class);
+        logger.info("hello", s -> s.message("schema message").level(3)._level(4));
+        String json = new String(encoder.encode(appender.list.get(0)), StandardCharsets.UTF_8);
+        assertThat(json).endsWith(",\"level\":\"INFO\",\"thread\":\"" + Thread.currentThread().getName() + "\",\"logger\":\"" + LOGGER_NAME + "\",\"message\":\"hello\",\"_level\":4,\"__level\":3,\"_message\":\"schema message\"}\n");
+    }
+}
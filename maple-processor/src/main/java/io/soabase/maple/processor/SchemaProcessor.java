@@ -0,0 +1,226 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.processor;
+
+import io.soabase.maple.api.annotations.Precompiled;
+import io.soabase.maple.api.annotations.SortOrder;
+import io.soabase.maple.core.Generator;
+import io.soabase.maple.core.PrecompiledSchema;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Generates implementations of {@link Precompiled} schemas. See {@link PrecompiledSchema} for details.
+ * Schema methods are ordered the same way as {@link io.soabase.maple.spi.StandardNamesBuilder}
+ * orders them (sort order and then name).
+ */
+@SupportedAnnotationTypes("io.soabase.maple.api.annotations.Precompiled")
+@SuppressWarnings("PMD.UselessParentheses")
+public class SchemaProcessor extends AbstractProcessor {
+    private static final String INSTANCE_CLASS = "io.soabase.maple.core.Instance";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Precompiled.class)) {
+            if (element.getKind() != ElementKind.INTERFACE) {
+                error("Only schema interfaces can be precompiled", element);
+                continue;
+            }
+            TypeElement schema = (TypeElement) element;
+            if (!schema.getTypeParameters().isEmpty()) {
+                warning("Generic schemas cannot be precompiled - ByteBuddy will be used at runtime", schema);
+                continue;
+            }
+            if (schema.getModifiers().contains(Modifier.PRIVATE)) {
+                error("Precompiled schemas cannot be private", schema);
+                continue;
+            }
+
+            List<ExecutableElement> methods = schemaMethods(schema);
+            if (methods != null) {
+                try {
+                    generate(schema, methods);
+                } catch (IOException e) {
+                    error("Could not write precompiled schema: " + e.getMessage(), schema);
+                }
+            }
+        }
+        return true;
+    }
+
+    private List<ExecutableElement> schemaMethods(TypeElement schema) {
+        List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(schema)).stream()
+                .filter(method -> method.getEnclosingElement().getKind() == ElementKind.INTERFACE)
+                .filter(method -> !method.isDefault() && !method.getModifiers().contains(Modifier.STATIC))
+                .sorted(Comparator.comparingInt(SchemaProcessor::sortOrder).thenComparing(method -> method.getSimpleName().toString()))
+                .collect(Collectors.toList());
+        boolean isValid = true;
+        for (ExecutableElement method : methods) {
+            if (method.getParameters().size() != 1) {
+                error("Schema methods must take exactly 1 argument. Method: " + method.getSimpleName(), method);
+                isValid = false;
+            } else if (Generator.getReservedMethodNames().contains(method.getSimpleName().toString())) {
+                error("Schema method name is reserved for internal use. Name: " + method.getSimpleName(), method);
+                isValid = false;
+            } else if (!method.getTypeParameters().isEmpty()) {
+                warning("Schemas with generic methods cannot be precompiled - ByteBuddy will be used at runtime", schema);
+                return null;
+            }
+        }
+        return isValid ? methods : null;
+    }
+
+    private void generate(TypeElement schema, List<ExecutableElement> methods) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(schema).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(schema).toString();
+        String className = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + PrecompiledSchema.CLASS_NAME_SUFFIX;
+        String schemaName = schema.getQualifiedName().toString();
+        DeclaredType schemaType = (DeclaredType) schema.asType();
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("// generated by ").append(SchemaProcessor.class.getName()).append(" - do not edit\n");
+        source.append("public final class ").append(className).append(" implements ").append(PrecompiledSchema.class.getName()).append('<').append(schemaName).append("> {\n");
+
+        source.append("    private static final String[] SCHEMA_METHODS = {\n");
+        boolean hasPrimitives = false;
+        for (ExecutableElement method : methods) {
+            TypeMirror erasedParameterType = processingEnv.getTypeUtils().erasure(method.getParameters().get(0).asType());
+            source.append("        \"").append(method.getSimpleName()).append('(').append(erasedParameterType).append(")\",\n");
+            hasPrimitives |= (setAtIndexMethod(erasedParameterType) != null);
+        }
+        source.append("    };\n\n");
+
+        source.append("    private static final class Impl extends ").append(INSTANCE_CLASS).append(" implements ").append(schemaName).append(" {\n");
+        for (int index = 0; index < methods.size(); ++index) {
+            ExecutableElement method = methods.get(index);
+            ExecutableType methodType = (ExecutableType) processingEnv.getTypeUtils().asMemberOf(schemaType, method);
+            TypeMirror parameterType = methodType.getParameterTypes().get(0);
+            String setAtIndexMethod = setAtIndexMethod(parameterType);
+            if (setAtIndexMethod == null) {
+                setAtIndexMethod = setSupplierAtIndexMethod(processingEnv.getTypeUtils().erasure(parameterType));
+            }
+            source.append("        @Override\n");
+            source.append("        public ").append(methodType.getReturnType()).append(' ').append(method.getSimpleName()).append('(').append(parameterType).append(" value) {\n");
+            source.append("            ").append((setAtIndexMethod != null) ? setAtIndexMethod : "internalSetValueAtIndex").append('(').append(index).append(", value);\n");
+            source.append("            return this;\n");
+            source.append("        }\n\n");
+        }
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public ").append(schemaName).append(" newInstance() {\n");
+        source.append("        return new Impl();\n");
+        source.append("    }\n\n");
+        source.append("    @Override\n");
+        source.append("    public String[] schemaMethods() {\n");
+        source.append("        return SCHEMA_METHODS.clone();\n");
+        source.append("    }\n\n");
+        source.append("    @Override\n");
+        source.append("    public boolean hasPrimitives() {\n");
+        source.append("        return ").append(hasPrimitives).append(";\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        String qualifiedClassName = packageName.isEmpty() ? className : (packageName + "." + className);
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedClassName, schema).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    // must match the primitive handling in Generator
+    private static String setAtIndexMethod(TypeMirror type) {
+        TypeKind kind = type.getKind();
+        switch (kind) {
+            case BYTE:
+            case SHORT:
+            case INT:
+                return "internalSetIntAtIndex";
+
+            case LONG:
+                return "internalSetLongAtIndex";
+
+            case FLOAT:
+                return "internalSetFloatAtIndex";
+
+            case DOUBLE:
+                return "internalSetDoubleAtIndex";
+
+            case BOOLEAN:
+                return "internalSetBooleanAtIndex";
+
+            default:
+                return null;
+        }
+    }
+
+    // must match the supplier handling in Generator
+    private static String setSupplierAtIndexMethod(TypeMirror erasedType) {
+        switch (erasedType.toString()) {
+            case "java.util.function.Supplier":
+                return "internalSetSupplierAtIndex";
+
+            case "java.util.function.IntSupplier":
+                return "internalSetIntSupplierAtIndex";
+
+            case "java.util.function.LongSupplier":
+                return "internalSetLongSupplierAtIndex";
+
+            default:
+                return null;
+        }
+    }
+
+    private static int sortOrder(ExecutableElement method) {
+        SortOrder sortOrder = method.getAnnotation(SortOrder.class);
+        return (sortOrder != null) ? sortOrder.value() : Short.MAX_VALUE;
+    }
+
+    private void error(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void warning(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.processor;
+
+import io.soabase.maple.api.annotations.Precompiled;
+import io.soabase.maple.api.annotations.Required;
+import io.soabase.maple.api.annotations.SortOrder;
+
+import java.util.List;
+import java.util.function.IntSupplier;
+
+@Precompiled
+public interface ProcessedSchema {
+    ProcessedSchema name(String name);
+
+    @Required
+    @SortOrder(1)
+    ProcessedSchema id(String id);
+
+    @SortOrder(0)
+    ProcessedSchema qty(int qty);
+
+    ProcessedSchema big(long big);
+
+    ProcessedSchema ratio(double ratio);
+
+    ProcessedSchema flag(boolean flag);
+
+    ProcessedSchema initial(char initial);
+
+    ProcessedSchema tags(List<String> tags);
+
+    ProcessedSchema codes(int[] codes);
+
+    default ProcessedSchema nameAndId(String nameAndId) {
+        return name(nameAndId).id(nameAndId);
+    }
+
+    @Precompiled
+    interface Nested {
+        Nested value(String value);
+
+        Nested size(IntSupplier size);
+    }
+}
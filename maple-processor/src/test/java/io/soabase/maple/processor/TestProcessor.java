@@ -0,0 +1,80 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.processor;
+
+import io.soabase.maple.api.exceptions.MissingSchemaValueException;
+import io.soabase.maple.core.PrecompiledSchema;
+import io.soabase.maple.core.StandardMapleLogger;
+import io.soabase.maple.formatters.StandardFormatter;
+import io.soabase.maple.spi.MapleSpi;
+import io.soabase.maple.spi.MetaInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TestProcessor {
+    @AfterEach
+    void tearDown() {
+        MapleSpi.instance().reset();
+    }
+
+    @Test
+    void testGeneratedClass() {
+        PrecompiledSchema<ProcessedSchema> precompiled = new ProcessedSchema_MapleSchema();
+        assertThat(precompiled.hasPrimitives()).isTrue();
+        assertThat(precompiled.schemaMethods()).containsExactly(
+                "qty(int)",
+                "id(java.lang.String)",
+                "big(long)",
+                "codes(int[])",
+                "flag(boolean)",
+                "initial(char)",
+                "name(java.lang.String)",
+                "ratio(double)",
+                "tags(java.util.List)"
+        );
+
+        MetaInstance<ProcessedSchema> metaInstance = MapleSpi.instance().generate(ProcessedSchema.class);
+        assertThat(metaInstance.newSchemaInstance().getClass().getName()).startsWith(ProcessedSchema_MapleSchema.class.getName());
+
+        MetaInstance<ProcessedSchema.Nested> nestedMetaInstance = MapleSpi.instance().generate(ProcessedSchema.Nested.class);
+        assertThat(nestedMetaInstance.newSchemaInstance().getClass().getName()).startsWith(ProcessedSchema.Nested.class.getName() + PrecompiledSchema.CLASS_NAME_SUFFIX);
+    }
+
+    @Test
+    void testLogging() {
+        MapleSpi.instance().setFormatter(new StandardFormatter());
+        MetaInstance<ProcessedSchema> metaInstance = MapleSpi.instance().generate(ProcessedSchema.class);
+        List<String> logging = new ArrayList<>();
+        StandardMapleLogger<ProcessedSchema, Object> logger = new StandardMapleLogger<>(metaInstance, new Object(), "dummy", (level, o) -> true, (level, o) -> (msg, t) -> logging.add(msg));
+
+        logger.info("hey", s -> s.nameAndId("me").qty(10).big(Long.MAX_VALUE).ratio(1.5).flag(true).initial('x').tags(Arrays.asList("a", "b")));
+        assertThat(logging).containsExactly("hey qty=10 id=me big=9223372036854775807 codes=null flag=true initial=x name=me ratio=1.5 tags=[a, b]");
+
+        assertThatThrownBy(() -> logger.info(s -> s.name("me"))).isInstanceOf(MissingSchemaValueException.class);
+
+        MetaInstance<ProcessedSchema.Nested> nestedMetaInstance = MapleSpi.instance().generate(ProcessedSchema.Nested.class);
+        StandardMapleLogger<ProcessedSchema.Nested, Object> nestedLogger = new StandardMapleLogger<>(nestedMetaInstance, new Object(), "dummy", (level, o) -> true, (level, o) -> (msg, t) -> logging.add(msg));
+        nestedLogger.info(s -> s.value("v").size(() -> 42));
+        assertThat(logging).endsWith("size=42 value=v");
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.scoped;
+
+import io.soabase.maple.api.MdcCloseable;
+import io.soabase.maple.api.Statement;
+import io.soabase.maple.core.MapleContext;
+
+import java.util.concurrent.Callable;
+
+/**
+ * <p>
+ * Scoped equivalent of {@link io.soabase.maple.api.MapleLoggerApi#mdc(Statement)}. The statement's values are
+ * added to the {@link MapleContext#current() current context} for the duration of the given runnable/callable.
+ * </p>
+ *
+ * <p>
+ * On JDK 25+ the context is bound to a {@code ScopedValue} - nothing is copied into thread locals or the logging
+ * library's MDC and subtasks forked by a {@code StructuredTaskScope} inherit the context automatically. On earlier
+ * JDKs the context is attached to the current thread as with {@link MapleContext#attach()}.
+ * </p>
+ */
+public class MapleScope {
+    /**
+     * Run the given runnable with the statement's values added to the current context
+     *
+     * @param schemaClass logging schema
+     * @param statement values
+     * @param runnable code to run
+     */
+    public static <T> void run(Class<T> schemaClass, Statement<T> statement, Runnable runnable) {
+        try (MdcCloseable ignore = ScopedContexts.newContext(schemaClass, statement).attach()) {
+            runnable.run();
+        }
+    }
+
+    /**
+     * Call the given callable with the statement's values added to the current context
+     *
+     * @param schemaClass logging schema
+     * @param statement values
+     * @param callable code to call
+     * @return result of the callable
+     * @throws Exception errors from the callable
+     */
+    public static <T, R> R call(Class<T> schemaClass, Statement<T> statement, Callable<R> callable) throws Exception {
+        try (MdcCloseable ignore = ScopedContexts.newContext(schemaClass, statement).attach()) {
+            return callable.call();
+        }
+    }
+
+    private MapleScope() {
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.scoped;
+
+import io.soabase.maple.api.Statement;
+import io.soabase.maple.core.MapleContext;
+import io.soabase.maple.spi.MapleSpi;
+import io.soabase.maple.spi.MetaInstance;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+class ScopedContexts {
+    private static final Map<Class<?>, MetaInstance<?>> metaInstances = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    static <T> MapleContext newContext(Class<T> schemaClass, Statement<T> statement) {
+        MetaInstance<T> metaInstance = (MetaInstance<T>) metaInstances.computeIfAbsent(schemaClass, __ -> MapleSpi.instance().generate(schemaClass));
+        return MapleContext.current().with(statement.toNamesValues(metaInstance));
+    }
+
+    private ScopedContexts() {
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.scoped;
+
+import io.soabase.maple.core.MapleContext;
+import io.soabase.maple.spi.MapleContextBinding;
+
+/**
+ * Binds the current {@link MapleContext} to a {@link ScopedValue}
+ */
+public class ScopedContextBinding implements MapleContextBinding {
+    static final ScopedValue<MapleContext> CONTEXT = ScopedValue.newInstance();
+
+    @Override
+    public MapleContext boundContext() {
+        return CONTEXT.isBound() ? CONTEXT.get() : null;
+    }
+}
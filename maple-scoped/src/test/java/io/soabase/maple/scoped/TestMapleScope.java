@@ -0,0 +1,81 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.scoped;
+
+import io.soabase.maple.core.MapleContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestMapleScope {
+    public interface Request {
+        Request requestId(String id);
+
+        Request attempt(int attempt);
+    }
+
+    @Test
+    void testScopes() throws Exception {
+        ExecutorService executorService = MapleContext.wrapExecutorService(Executors.newSingleThreadExecutor());
+        try {
+            MapleScope.run(Request.class, s -> s.requestId("r1"), () -> {
+                assertThat(MapleContext.current().get("requestId")).isEqualTo("r1");
+                assertThat(MapleContext.current().get("attempt")).isNull();
+
+                String nested = call(() -> MapleScope.call(Request.class, s -> s.attempt(2), () -> MapleContext.current().get("requestId") + ":" + MapleContext.current().get("attempt")));
+                assertThat(nested).isEqualTo("r1:2");
+                assertThat(MapleContext.current().get("attempt")).isNull();
+
+                String fromExecutor = call(() -> executorService.submit(() -> MapleContext.current().get("requestId")).get());
+                assertThat(fromExecutor).isEqualTo("r1");
+            });
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertThat(MapleContext.current().size()).isEqualTo(0);
+    }
+
+    @Test
+    void testBinding() {
+        // set when testing the packaged multi-release jar on JDK 25+ - otherwise the pre-JDK 25 classes are in use
+        boolean expectScopedValue = Boolean.getBoolean("maple.scoped.expectScopedValue");
+        MapleScope.run(Request.class, s -> s.requestId("r1"), () -> {
+            MapleContext boundContext = new ScopedContextBinding().boundContext();
+            if (expectScopedValue) {
+                assertThat(boundContext).isNotNull();
+                assertThat(boundContext.get("requestId")).isEqualTo("r1");
+            } else {
+                assertThat(boundContext).isNull();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface ThrowingSupplier<T> {
+        T get() throws Exception;
+    }
+
+    private static <T> T call(ThrowingSupplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.slf4j;
+
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.pattern.EnsureExceptionHandling;
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.EncoderBase;
+import ch.qos.logback.core.pattern.Converter;
+import ch.qos.logback.core.pattern.ConverterUtil;
+import ch.qos.logback.core.pattern.parser.Node;
+import ch.qos.logback.core.pattern.parser.Parser;
+import ch.qos.logback.core.spi.ScanException;
+import io.soabase.maple.api.StructuredMessage;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A logback encoder that renders {@link StructuredMessage}s (see
+ * {@link io.soabase.maple.formatters.StandardFormatter.Option#STRUCTURED_MESSAGE}) directly into
+ * its UTF-8 output instead of first creating a String for the message. Other events are encoded
+ * normally.
+ * </p>
+ *
+ * <p>
+ * The pattern is a standard logback pattern (compiled the same way {@link PatternLayout} compiles it). The pattern's
+ * converters write into a reused per-thread buffer
+ * and the message conversion word ({@code %m}, {@code %msg} or {@code %message} without format modifiers) is
+ * rendered by the structured message itself. Output is always UTF-8. E.g.
+ * </p>
+ *
+ * <pre>
+ * &lt;encoder class="io.soabase.maple.slf4j.MapleEncoder"&gt;
+ *     &lt;pattern&gt;%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n&lt;/pattern&gt;
+ * &lt;/encoder&gt;
+ * </pre>
+ */
+@SuppressWarnings("PMD.UselessParentheses")
+public class MapleEncoder extends EncoderBase<ILoggingEvent> {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    private final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+    private String pattern;
+    private Converter<ILoggingEvent> head;
+
+    private static class Buffers {
+        private StringBuilder builder = new StringBuilder(INITIAL_CAPACITY);
+        private byte[] bytes = new byte[INITIAL_CAPACITY * 3];
+
+        private byte[] toUtf8() {
+            int length = builder.length();
+            if (bytes.length < (length * 3)) {
+                bytes = new byte[length * 3];
+            }
+            int position = 0;
+            for (int i = 0; i < length; ++i) {
+                char c = builder.charAt(i);
+                if (c < 0x80) {
+                    bytes[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[position++] = (byte) (0xc0 | (c >> 6));
+                    bytes[position++] = (byte) (0x80 | (c & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && ((i + 1) < length) && Character.isLowSurrogate(builder.charAt(i + 1))) {
+                        int codePoint = Character.toCodePoint(c, builder.charAt(++i));
+                        bytes[position++] = (byte) (0xf0 | (codePoint >> 18));
+                        bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                        bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                        bytes[position++] = (byte) (0x80 | (codePoint & 0x3f));
+                    } else {
+                        bytes[position++] = '?';    // same as String.getBytes() for malformed input
+                    }
+                } else {
+                    bytes[position++] = (byte) (0xe0 | (c >> 12));
+                    bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    bytes[position++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+            byte[] encoded = Arrays.copyOf(bytes, position);
+
+            // don't retain buffers from unusually large messages
+            if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+                builder = new StringBuilder(INITIAL_CAPACITY);
+                bytes = new byte[INITIAL_CAPACITY * 3];
+            }
+            return encoded;
+        }
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    @Override
+    public void start() {
+        if (pattern == null) {
+            addError("No pattern was set for the encoder");
+            return;
+        }
+
+        try {
+            // same as PatternLayoutBase.start()
+            PatternLayout layout = new PatternLayout();
+            layout.setContext(getContext());
+            Parser<ILoggingEvent> parser = new Parser<>(pattern);
+            parser.setContext(getContext());
+            Node node = parser.parse();
+            head = parser.compile(node, layout.getEffectiveConverterMap());
+            new EnsureExceptionHandling().process(getContext(), head);
+            ConverterUtil.setContextForConverters(getContext(), head);
+            ConverterUtil.startConverters(head);
+        } catch (ScanException e) {
+            addError("Failed to parse pattern \"" + pattern + "\".", e);
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        Buffers buffers = this.buffers.get();
+        buffers.builder.setLength(0);
+        StructuredMessage structuredMessage = getStructuredMessage(event);
+        for (Converter<ILoggingEvent> converter = head; converter != null; converter = converter.getNext()) {
+            if ((structuredMessage != null) && (converter instanceof MessageConverter) && (((MessageConverter) converter).getFormattingInfo() == null)) {
+                structuredMessage.formatTo(buffers.builder);
+            } else {
+                converter.write(buffers.builder, event);
+            }
+        }
+        return buffers.toUtf8();
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    private static StructuredMessage getStructuredMessage(ILoggingEvent event) {
+        Object[] arguments = event.getArgumentArray();
+        if ((arguments != null) && (arguments.length > 0) && (arguments[0] instanceof StructuredMessage) && Utils.STRUCTURED_MESSAGE_FORMAT.equals(event.getMessage())) {
+            return (StructuredMessage) arguments[0];
+        }
+        return null;
+    }
+}
@@ -15,7 +15,11 @@
  */
 package io.soabase.maple.slf4j;
 
+import io.soabase.maple.api.MapleFilter;
 import io.soabase.maple.api.MapleFormatter;
+import io.soabase.maple.api.Sampler;
+import io.soabase.maple.core.EventCollapser;
+import io.soabase.maple.core.Samplers;
 import io.soabase.maple.spi.MapleSpi;
 import io.soabase.maple.spi.MetaInstance;
 import org.slf4j.Logger;
@@ -50,15 +54,49 @@ public class MapleFactory {
     }
 
     /**
-     * Return a {@link MapleLogger} that wraps the given logger
+     * Return a {@link MapleLogger} that wraps the given logger. If the schema is annotated with
+     * {@link io.soabase.maple.api.annotations.Sampled} and/or {@link io.soabase.maple.api.annotations.RateLimited}
+     * the logger is sampled accordingly. If the schema is annotated with {@link io.soabase.maple.api.annotations.Collapsed}
+     * duplicate events are collapsed.
      *
      * @param logger logger to wrap
      * @param schemaClass logging schema
      * @return {@link MapleLogger}
      */
     public static <T> MapleLogger<T> getLogger(Logger logger, Class<T> schemaClass) {
+        return getLogger(logger, schemaClass, Samplers.forSchema(schemaClass));
+    }
+
+    /**
+     * Return a {@link MapleLogger} that wraps the given logger and is sampled/rate limited
+     * by the given sampler (e.g. one of the {@link Samplers}). If the schema is annotated with
+     * {@link io.soabase.maple.api.annotations.Collapsed} duplicate events are collapsed.
+     *
+     * @param logger logger to wrap
+     * @param schemaClass logging schema
+     * @param sampler sampler or {@code null}
+     * @return {@link MapleLogger}
+     */
+    public static <T> MapleLogger<T> getLogger(Logger logger, Class<T> schemaClass, Sampler sampler) {
+        return getLogger(logger, schemaClass, sampler, EventCollapser.forSchema(schemaClass));
+    }
+
+    /**
+     * Return a {@link MapleLogger} that wraps the given logger, is sampled/rate limited
+     * by the given sampler and collapses duplicate events with the given collapser
+     *
+     * @param logger logger to wrap
+     * @param schemaClass logging schema
+     * @param sampler sampler or {@code null}
+     * @param collapser collapser or {@code null}
+     * @return {@link MapleLogger}
+     */
+    public static <T> MapleLogger<T> getLogger(Logger logger, Class<T> schemaClass, Sampler sampler, EventCollapser collapser) {
         MetaInstance<T> metaInstance = MapleSpi.instance().generate(schemaClass);
-        return new MapleLoggerImpl<>(metaInstance, logger);
+        if (collapser != null) {
+            metaInstance = collapser.wrap(metaInstance);
+        }
+        return new MapleLoggerImpl<>(metaInstance, logger, sampler);
     }
 
     /**
@@ -81,6 +119,26 @@ public class MapleFactory {
         return MapleSpi.instance().getProductionMode();
     }
 
+    /**
+     * Change whether schema instances are recycled. When {@code true}, each thread re-uses
+     * its schema instances between log statements instead of allocating new ones. Only enable this
+     * if your logging formatter does not retain the name/values it is passed after it returns.
+     *
+     * @param newValue new value
+     */
+    public static void setReuseSchemaInstances(boolean newValue) {
+        MapleSpi.instance().setReuseSchemaInstances(newValue);
+    }
+
+    /**
+     * Return whether schema instances are recycled
+     *
+     * @return true/false
+     */
+    public static boolean getReuseSchemaInstances() {
+        return MapleSpi.instance().getReuseSchemaInstances();
+    }
+
     /**
      * Change the logging formatter in use.
      *
@@ -98,4 +156,22 @@ public class MapleFactory {
     public static MapleFormatter getFormatter() {
         return MapleSpi.instance().getFormatter();
     }
+
+    /**
+     * Change the filter that is applied to log statements for enabled levels before they are evaluated.
+     *
+     * @param filter new filter. Pass {@code null} to log all statements
+     */
+    public static void setFilter(MapleFilter filter) {
+        MapleSpi.instance().setFilter(filter);
+    }
+
+    /**
+     * Return the current filter
+     *
+     * @return filter or {@code null}
+     */
+    public static MapleFilter getFilter() {
+        return MapleSpi.instance().getFilter();
+    }
 }
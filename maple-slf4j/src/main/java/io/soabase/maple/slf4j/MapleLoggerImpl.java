@@ -15,12 +15,13 @@
  */
 package io.soabase.maple.slf4j;
 
+import io.soabase.maple.api.Sampler;
 import io.soabase.maple.core.StandardMapleLogger;
 import io.soabase.maple.spi.MetaInstance;
 import org.slf4j.Logger;
 
 class MapleLoggerImpl<T> extends StandardMapleLogger<T, Logger> implements MapleLogger<T> {
-    MapleLoggerImpl(MetaInstance<T> metaInstance, Logger logger) {
-        super(metaInstance, logger, Utils::isEnabledLoggerName, Utils::levelLogger);
+    MapleLoggerImpl(MetaInstance<T> metaInstance, Logger logger, Sampler sampler) {
+        super(metaInstance, logger, logger.getName(), Utils::isEnabled, Utils::levelLogger, sampler);
     }
 }
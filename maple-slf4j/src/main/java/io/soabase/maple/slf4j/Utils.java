@@ -17,37 +17,111 @@ package io.soabase.maple.slf4j;
 
 import io.soabase.maple.api.LoggingLevel;
 import io.soabase.maple.api.LevelLogger;
+import io.soabase.maple.api.StructuredMessage;
 import org.slf4j.Logger;
 
 class Utils {
-    static String isEnabledLoggerName(LoggingLevel level, Logger logger) {
+    static boolean isEnabled(LoggingLevel level, Logger logger) {
         switch (level) {
             case ERROR:
-                return logger.isErrorEnabled() ? logger.getName() : null;
+                return logger.isErrorEnabled();
             case WARN:
-                return logger.isWarnEnabled() ? logger.getName() : null;
+                return logger.isWarnEnabled();
             case INFO:
-                return logger.isInfoEnabled() ? logger.getName() : null;
+                return logger.isInfoEnabled();
             case DEBUG:
-                return logger.isDebugEnabled() ? logger.getName() : null;
+                return logger.isDebugEnabled();
             case TRACE:
-                return logger.isTraceEnabled() ? logger.getName() : null;
+                return logger.isTraceEnabled();
         }
         throw new IllegalStateException();  // should never get here
     }
 
+    // structured messages are passed as the single argument so that they're only rendered if needed
+    static final String STRUCTURED_MESSAGE_FORMAT = "{}";
+
     static LevelLogger levelLogger(LoggingLevel level, Logger logger) {
         switch (level) {
             case ERROR:
-                return (msg, t) -> error(logger, msg, t);
+                return new LevelLogger() {
+                    @Override
+                    public void log(String msg, Throwable t) {
+                        error(logger, msg, t);
+                    }
+
+                    @Override
+                    public void logStructured(StructuredMessage message, Throwable t) {
+                        if (t != null) {
+                            logger.error(STRUCTURED_MESSAGE_FORMAT, message, t);
+                        } else {
+                            logger.error(STRUCTURED_MESSAGE_FORMAT, message);
+                        }
+                    }
+                };
             case WARN:
-                return (msg, t) -> warn(logger, msg, t);
+                return new LevelLogger() {
+                    @Override
+                    public void log(String msg, Throwable t) {
+                        warn(logger, msg, t);
+                    }
+
+                    @Override
+                    public void logStructured(StructuredMessage message, Throwable t) {
+                        if (t != null) {
+                            logger.warn(STRUCTURED_MESSAGE_FORMAT, message, t);
+                        } else {
+                            logger.warn(STRUCTURED_MESSAGE_FORMAT, message);
+                        }
+                    }
+                };
             case INFO:
-                return (msg, t) -> info(logger, msg, t);
+                return new LevelLogger() {
+                    @Override
+                    public void log(String msg, Throwable t) {
+                        info(logger, msg, t);
+                    }
+
+                    @Override
+                    public void logStructured(StructuredMessage message, Throwable t) {
+                        if (t != null) {
+                            logger.info(STRUCTURED_MESSAGE_FORMAT, message, t);
+                        } else {
+                            logger.info(STRUCTURED_MESSAGE_FORMAT, message);
+                        }
+                    }
+                };
             case DEBUG:
-                return (msg, t) -> debug(logger, msg, t);
+                return new LevelLogger() {
+                    @Override
+                    public void log(String msg, Throwable t) {
+                        debug(logger, msg, t);
+                    }
+
+                    @Override
+                    public void logStructured(StructuredMessage message, Throwable t) {
+                        if (t != null) {
+                            logger.debug(STRUCTURED_MESSAGE_FORMAT, message, t);
+                        } else {
+                            logger.debug(STRUCTURED_MESSAGE_FORMAT, message);
+                        }
+                    }
+                };
             case TRACE:
-                return (msg, t) -> trace(logger, msg, t);
+                return new LevelLogger() {
+                    @Override
+                    public void log(String msg, Throwable t) {
+                        trace(logger, msg, t);
+                    }
+
+                    @Override
+                    public void logStructured(StructuredMessage message, Throwable t) {
+                        if (t != null) {
+                            logger.trace(STRUCTURED_MESSAGE_FORMAT, message, t);
+                        } else {
+                            logger.trace(STRUCTURED_MESSAGE_FORMAT, message);
+                        }
+                    }
+                };
         }
         throw new IllegalStateException();  // should never get here
     }
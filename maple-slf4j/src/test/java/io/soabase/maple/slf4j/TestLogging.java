@@ -15,7 +15,13 @@
  */
 package io.soabase.maple.slf4j;
 
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
 import io.soabase.maple.api.MdcCloseable;
+import io.soabase.maple.api.StructuredMessage;
+import io.soabase.maple.formatters.StandardFormatter;
+import io.soabase.maple.spi.MapleSpi;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.MDC;
@@ -23,6 +29,9 @@ import org.slf4j.event.Level;
 import org.slf4j.event.SubstituteLoggingEvent;
 import org.slf4j.impl.StaticLoggerBinder;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class TestLogging {
@@ -30,6 +39,7 @@ class TestLogging {
     void cleanUp() {
         StaticLoggerBinder.getEventQueue().clear();
         MDC.clear();
+        MapleSpi.instance().reset();
     }
 
     @Test
@@ -58,6 +68,24 @@ class TestLogging {
         assertThat(MDC.get("age")).isNull();
     }
 
+    @Test
+    void testMdcRestoresPreviousValues() {
+        MapleLogger<Schema> logger = MapleFactory.getLogger(getClass(), Schema.class);
+        MDC.put("name", "outer");
+        try (MdcCloseable closeable = logger.mdc(s -> s.name("inner"))) {
+            assertThat(MDC.get("name")).isEqualTo("inner");
+            assertThat(MDC.get("age")).isNull();    // not set so not put
+
+            try (MdcCloseable nested = logger.mdc(s -> s.name("nested").age(10))) {
+                assertThat(MDC.get("name")).isEqualTo("nested");
+                assertThat(MDC.get("age")).isEqualTo("10");
+            }
+            assertThat(MDC.get("name")).isEqualTo("inner");
+            assertThat(MDC.get("age")).isNull();
+        }
+        assertThat(MDC.get("name")).isEqualTo("outer");
+    }
+
     @Test
     void testDefaultMdcValue() {
         MapleLogger<SchemaWithMdc> logger = MapleFactory.getLogger(getClass(), SchemaWithMdc.class);
@@ -74,4 +102,57 @@ class TestLogging {
             assertThat(event.getMessage()).isEqualTo("age=1 name=n transaction_id=other");
         }
     }
+
+    @Test
+    void testStructuredMessageEncoder() {
+        MapleFactory.setFormatter(new StandardFormatter(StandardFormatter.Option.STRUCTURED_MESSAGE));
+
+        LoggerContext context = new LoggerContext();
+        MapleEncoder encoder = new MapleEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%level %logger - %msg%n");
+        encoder.start();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(out);
+        appender.start();
+        ch.qos.logback.classic.Logger logbackLogger = context.getLogger("test");
+        logbackLogger.setAdditive(false);
+        logbackLogger.addAppender(appender);
+
+        MapleLogger<Schema> logger = MapleFactory.getLogger(logbackLogger, Schema.class);
+        logger.info("hey", s -> s.name("m\u00e9 \ud83d\ude00").age(24));
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("INFO test - hey age=24 name=m\u00e9 \ud83d\ude00" + System.lineSeparator());
+
+        out.reset();
+        logger.error("oops", new RuntimeException("bad"), s -> s.name("me"));
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8))
+                .startsWith("ERROR test - oops age=null name=me" + System.lineSeparator() + "java.lang.RuntimeException: bad");
+
+        out.reset();
+        logbackLogger.info("plain {}", "message");
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("INFO test - plain message" + System.lineSeparator());
+    }
+
+    @Test
+    void testDeferredStructuredMessage() {
+        MapleFactory.setFormatter(new StandardFormatter(StandardFormatter.Option.STRUCTURED_MESSAGE));
+        MapleFactory.setReuseSchemaInstances(true);
+        try {
+            MapleLogger<Schema> logger = MapleFactory.getLogger(getClass(), Schema.class);
+            logger.info(s -> s.name("me").age(24));
+            logger.info(s -> s.name("you").age(42));
+
+            // the events are processed after the logging calls have returned
+            SubstituteLoggingEvent event = StaticLoggerBinder.getEventQueue().remove();
+            assertThat(event.getArgumentArray()[0]).isInstanceOf(StructuredMessage.class);
+            assertThat(event.getArgumentArray()[0].toString()).isEqualTo("age=24 name=me");
+            event = StaticLoggerBinder.getEventQueue().remove();
+            assertThat(event.getArgumentArray()[0].toString()).isEqualTo("age=42 name=you");
+        } finally {
+            MapleFactory.setReuseSchemaInstances(false);
+        }
+    }
 }
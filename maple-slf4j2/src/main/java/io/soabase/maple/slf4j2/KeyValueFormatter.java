@@ -0,0 +1,98 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.slf4j2;
+
+import io.soabase.maple.api.LevelLogger;
+import io.soabase.maple.api.LoggingLevel;
+import io.soabase.maple.api.MapleFormatter;
+import io.soabase.maple.api.Names;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.formatters.StandardFormatter;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.soabase.maple.formatters.StandardFormatter.Option.SKIP_NULL_VALUES;
+import static io.soabase.maple.formatters.StandardFormatter.Option.SNAKE_CASE;
+
+/**
+ * <p>
+ * Passes each schema value to SLF4J 2 as a key/value pair (see {@code LoggingEventBuilder.addKeyValue()}) and the main message
+ * as the message - the values are not rendered into the message. Backends such as logback 1.3+ carry the pairs on their
+ * logging events so that encoders can serialize them natively.
+ * </p>
+ *
+ * <p>
+ * Supports the {@link StandardFormatter.Option}s {@code SNAKE_CASE} (applied to the keys) and {@code SKIP_NULL_VALUES}.
+ * Loggers that were not created by this module's {@link MapleFactory} are formatted with the text formatter.
+ * </p>
+ */
+public class KeyValueFormatter implements MapleFormatter {
+    private final boolean snakeCase;
+    private final boolean skipNullValues;
+    private final MapleFormatter textFormatter;
+    private final Map<Names, String[]> renderedKeys = new ConcurrentHashMap<>();
+
+    public KeyValueFormatter(StandardFormatter.Option... options) {
+        this(new StandardFormatter(options), options);
+    }
+
+    /**
+     * @param textFormatter formatter for loggers that don't support key/value pairs
+     * @param options options
+     */
+    public KeyValueFormatter(MapleFormatter textFormatter, StandardFormatter.Option... options) {
+        Collection<StandardFormatter.Option> optionsSet = new HashSet<>(Arrays.asList(options));
+        this.snakeCase = optionsSet.contains(SNAKE_CASE);
+        this.skipNullValues = optionsSet.contains(SKIP_NULL_VALUES);
+        this.textFormatter = textFormatter;
+    }
+
+    @Override
+    public void apply(LevelLogger logger, LoggingLevel loggingLevel, String loggerName, NamesValues namesValues, String mainMessage, Throwable t) {
+        if (logger instanceof Slf4j2LevelLogger) {
+            ((Slf4j2LevelLogger) logger).logKeyValues(keys(namesValues), namesValues, skipNullValues, mainMessage, t);
+        } else {
+            textFormatter.apply(logger, loggingLevel, loggerName, namesValues, mainMessage, t);
+        }
+    }
+
+    private String[] keys(NamesValues namesValues) {
+        Names schemaNames = namesValues.schemaNames();
+        if (schemaNames != null) {
+            String[] keys = renderedKeys.get(schemaNames);
+            return (keys != null) ? keys : renderedKeys.computeIfAbsent(schemaNames, this::renderKeys);
+        }
+        return renderKeys(namesValues);
+    }
+
+    private String[] renderKeys(Names names) {
+        String[] keys = new String[names.qty()];
+        for (int i = 0; i < keys.length; ++i) {
+            String name = names.nthName(i);
+            if (snakeCase) {
+                StringBuilder key = new StringBuilder(name.length() + 8);
+                StandardFormatter.toSnakeCase(key, name);
+                name = key.toString();
+            }
+            keys[i] = name;
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.slf4j2;
+
+import org.slf4j.Marker;
+import org.slf4j.event.KeyValuePair;
+import org.slf4j.event.Level;
+import org.slf4j.event.LoggingEvent;
+
+import java.util.List;
+
+class MapleLoggingEvent implements LoggingEvent {
+    private final Level level;
+    private final String loggerName;
+    private final String message;
+    private final List<KeyValuePair> keyValuePairs;
+    private final Throwable throwable;
+    private final long timeStamp = System.currentTimeMillis();
+    private final String threadName = Thread.currentThread().getName();
+
+    MapleLoggingEvent(Level level, String loggerName, String message, List<KeyValuePair> keyValuePairs, Throwable throwable) {
+        this.level = level;
+        this.loggerName = loggerName;
+        this.message = message;
+        this.keyValuePairs = keyValuePairs;
+        this.throwable = throwable;
+    }
+
+    @Override
+    public Level getLevel() {
+        return level;
+    }
+
+    @Override
+    public String getLoggerName() {
+        return loggerName;
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public List<Object> getArguments() {
+        return null;
+    }
+
+    @Override
+    public Object[] getArgumentArray() {
+        return null;
+    }
+
+    @Override
+    public List<Marker> getMarkers() {
+        return null;
+    }
+
+    @Override
+    public List<KeyValuePair> getKeyValuePairs() {
+        return keyValuePairs;
+    }
+
+    @Override
+    public Throwable getThrowable() {
+        return throwable;
+    }
+
+    @Override
+    public long getTimeStamp() {
+        return timeStamp;
+    }
+
+    @Override
+    public String getThreadName() {
+        return threadName;
+    }
+
+    @Override
+    public String getCallerBoundary() {
+        return Slf4j2LevelLogger.CALLER_BOUNDARY;
+    }
+}
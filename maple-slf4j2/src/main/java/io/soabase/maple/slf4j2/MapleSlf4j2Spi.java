@@ -0,0 +1,36 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.slf4j2;
+
+import io.soabase.maple.spi.StandardMapleSpi;
+import org.slf4j.MDC;
+
+public class MapleSlf4j2Spi extends StandardMapleSpi {
+    @Override
+    public Object getMdcValue(String name) {
+        return MDC.get(name);
+    }
+
+    @Override
+    public void putMdcValue(String name, Object value) {
+        MDC.put(name, String.valueOf(value));
+    }
+
+    @Override
+    public void removeMdcValue(String name) {
+        MDC.remove(name);
+    }
+}
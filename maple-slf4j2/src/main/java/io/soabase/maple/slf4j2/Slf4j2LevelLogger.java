@@ -0,0 +1,91 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.slf4j2;
+
+import io.soabase.maple.api.LevelLogger;
+import io.soabase.maple.api.NamesValues;
+import io.soabase.maple.core.MapleLoggerBase;
+import org.slf4j.Logger;
+import org.slf4j.event.KeyValuePair;
+import org.slf4j.event.Level;
+import org.slf4j.spi.CallerBoundaryAware;
+import org.slf4j.spi.LoggingEventAware;
+import org.slf4j.spi.LoggingEventBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings("PMD.UselessParentheses")
+class Slf4j2LevelLogger implements LevelLogger {
+    // logging events report the Maple caller as the caller
+    static final String CALLER_BOUNDARY = MapleLoggerBase.class.getName();
+
+    private final Logger logger;
+    private final Level level;
+
+    Slf4j2LevelLogger(Logger logger, Level level) {
+        this.logger = logger;
+        this.level = level;
+    }
+
+    @Override
+    public void log(String msg, Throwable t) {
+        switch (level) {
+            case ERROR:
+                logger.error(msg, t);
+                break;
+            case WARN:
+                logger.warn(msg, t);
+                break;
+            case INFO:
+                logger.info(msg, t);
+                break;
+            case DEBUG:
+                logger.debug(msg, t);
+                break;
+            case TRACE:
+                logger.trace(msg, t);
+                break;
+        }
+    }
+
+    void logKeyValues(String[] keys, NamesValues namesValues, boolean skipNullValues, String mainMessage, Throwable t) {
+        if (logger instanceof LoggingEventAware) {
+            // the list can't be reused per thread: backends may retain it (e.g. logback attaches it to its own event
+            // without copying and async appenders queue that event) - but it's sized once and no builder is needed
+            List<KeyValuePair> keyValuePairs = new ArrayList<>(namesValues.qty());
+            for (int i = 0; i < namesValues.qty(); ++i) {
+                Object value = namesValues.nthValue(i);
+                if ((value != null) || !skipNullValues) {
+                    keyValuePairs.add(new KeyValuePair(keys[i], value));
+                }
+            }
+            ((LoggingEventAware) logger).log(new MapleLoggingEvent(level, logger.getName(), mainMessage, keyValuePairs, t));
+        } else {
+            LoggingEventBuilder builder = logger.makeLoggingEventBuilder(level);
+            if (builder instanceof CallerBoundaryAware) {
+                ((CallerBoundaryAware) builder).setCallerBoundary(CALLER_BOUNDARY);
+            }
+            for (int i = 0; i < namesValues.qty(); ++i) {
+                Object value = namesValues.nthValue(i);
+                if ((value != null) || !skipNullValues) {
+                    builder.addKeyValue(keys[i], value);
+                }
+            }
+            builder.setCause(t).log(mainMessage);
+        }
+    }
+}
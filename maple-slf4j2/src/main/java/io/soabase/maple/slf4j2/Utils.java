@@ -0,0 +1,47 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.slf4j2;
+
+import io.soabase.maple.api.LoggingLevel;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+class Utils {
+    private static final Level[] levels = {Level.ERROR, Level.WARN, Level.INFO, Level.DEBUG, Level.TRACE};   // indexed by LoggingLevel ordinal
+
+    static boolean isEnabled(LoggingLevel level, Logger logger) {
+        switch (level) {
+            case ERROR:
+                return logger.isErrorEnabled();
+            case WARN:
+                return logger.isWarnEnabled();
+            case INFO:
+                return logger.isInfoEnabled();
+            case DEBUG:
+                return logger.isDebugEnabled();
+            case TRACE:
+                return logger.isTraceEnabled();
+        }
+        throw new IllegalStateException();  // should never get here
+    }
+
+    static Slf4j2LevelLogger levelLogger(LoggingLevel level, Logger logger) {
+        return new Slf4j2LevelLogger(logger, levels[level.ordinal()]);
+    }
+
+    private Utils() {
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright 2019 Jordan Zimmerman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.soabase.maple.slf4j2;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.soabase.maple.formatters.StandardFormatter;
+import io.soabase.maple.spi.MapleSpi;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.KeyValuePair;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestLogging {
+    private static final String LOGGER_NAME = "maple.slf4j2.test";
+
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void setup() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        appender = new ListAppender<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                // as a layout would - caller data is only available while logging
+                event.getCallerData();
+                super.append(event);
+            }
+        };
+        appender.setContext(context);
+        appender.start();
+        ch.qos.logback.classic.Logger logger = context.getLogger(LOGGER_NAME);
+        logger.setAdditive(false);
+        logger.setLevel(Level.DEBUG);
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(LOGGER_NAME).detachAndStopAllAppenders();
+        MapleSpi.instance().reset();
+    }
+
+    @Test
+    void testKeyValues() {
+        MapleFactory.setFormatter(new KeyValueFormatter(StandardFormatter.Option.SNAKE_CASE));
+        MapleLogger<Schema> logger = MapleFactory.getLogger(LOGGER_NAME, Schema.class);
+        logger.info("hello", s -> s.firstName("first").age(42));
+        logger.error(new IOException("boom"), s -> s.age(1));
+        logger.trace(s -> s.age(2));    // not enabled
+
+        assertThat(appender.list).hasSize(2);
+        ILoggingEvent event = appender.list.get(0);     // logback keeps the list it's given - as a queuing appender would
+        assertThat(event.getLevel()).isEqualTo(Level.INFO);
+        assertThat(event.getFormattedMessage()).isEqualTo("hello");
+        assertThat(event.getKeyValuePairs()).containsExactly(new KeyValuePair("age", 42), new KeyValuePair("first_name", "first"));
+        assertThat(event.getCallerData()[0].getClassName()).isEqualTo(TestLogging.class.getName());
+
+        event = appender.list.get(1);
+        assertThat(event.getLevel()).isEqualTo(Level.ERROR);
+        assertThat(event.getFormattedMessage()).isEmpty();
+        assertThat(event.getKeyValuePairs()).containsExactly(new KeyValuePair("age", 1), new KeyValuePair("first_name", null));
+        assertThat(event.getThrowableProxy().getMessage()).isEqualTo("boom");
+    }
+
+    @Test
+    void testEventBuilder() {
+        // a logger that doesn't accept events directly is logged via the fluent builder
+        Logger target = LoggerFactory.getLogger(LOGGER_NAME);
+        Logger builderOnly = (Logger) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Logger.class}, (proxy, method, args) -> method.invoke(target, args));
+        MapleFactory.setFormatter(new KeyValueFormatter(StandardFormatter.Option.SKIP_NULL_VALUES));
+        MapleLogger<Schema> logger = MapleFactory.getLogger(builderOnly, Schema.class);
+        logger.warn("message", s -> s.age(10));
+
+        assertThat(appender.list).hasSize(1);
+        ILoggingEvent event = appender.list.get(0);
+        assertThat(event.getLevel()).isEqualTo(Level.WARN);
+        assertThat(event.getFormattedMessage()).isEqualTo("message");
+        assertThat(event.getKeyValuePairs()).containsExactly(new KeyValuePair("age", 10));
+        assertThat(event.getCallerData()[0].getClassName()).isEqualTo(TestLogging.class.getName());
+    }
+
+    @Test
+    void testStandardFormatter() {
+        MapleLogger<Schema> logger = MapleFactory.getLogger(LOGGER_NAME, Schema.class);
+        logger.debug("hello", s -> s.firstName("first").age(42));
+
+        assertThat(appender.list).hasSize(1);
+        ILoggingEvent event = appender.list.get(0);
+        assertThat(event.getFormattedMessage()).isEqualTo("age=42 first_name=first hello");
+        assertThat(event.getKeyValuePairs()).isNullOrEmpty();
+    }
+
+    @Test
+    void testEventThreadName() throws Exception {
+        MapleLoggingEvent event = new MapleLoggingEvent(org.slf4j.event.Level.INFO, LOGGER_NAME, "hello", Collections.emptyList(), null);
+        // a backend that queues the event reads it from another thread
+        CompletableFuture<String> threadName = CompletableFuture.supplyAsync(event::getThreadName);
+        assertThat(threadName.get()).isEqualTo(Thread.currentThread().getName());
+    }
+}